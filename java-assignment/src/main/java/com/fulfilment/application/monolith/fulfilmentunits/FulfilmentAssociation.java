@@ -4,6 +4,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 
@@ -11,7 +12,18 @@ import jakarta.persistence.UniqueConstraint;
 @Table(
     name = "fulfilment_association",
     uniqueConstraints =
-        @UniqueConstraint(columnNames = {"product_id", "store_id", "warehouse_business_unit_code"}))
+        @UniqueConstraint(columnNames = {"product_id", "store_id", "warehouse_business_unit_code"}),
+    // The unique constraint already leads with product_id. These two give the store and the
+    // warehouse side of every rule lookup a leading column, and carry the remaining key columns
+    // so that those lookups can be answered from the index alone.
+    indexes = {
+      @Index(
+          name = "idx_fulfilment_association_store",
+          columnList = "store_id, warehouse_business_unit_code, product_id"),
+      @Index(
+          name = "idx_fulfilment_association_warehouse",
+          columnList = "warehouse_business_unit_code, product_id, store_id")
+    })
 public class FulfilmentAssociation {
 
   @Id @GeneratedValue public Long id;
@@ -0,0 +1,30 @@
+package com.fulfilment.application.monolith.fulfilmentunits;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fulfilment.application.monolith.shared.application.exceptions.ApplicationException;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FulfilmentAssociationBatchResult {
+  public int index;
+  public int status;
+  public FulfilmentAssociation association;
+  public String error;
+
+  public static FulfilmentAssociationBatchResult created(
+      int index, FulfilmentAssociation association) {
+    FulfilmentAssociationBatchResult result = new FulfilmentAssociationBatchResult();
+    result.index = index;
+    result.status = 201;
+    result.association = association;
+    return result;
+  }
+
+  public static FulfilmentAssociationBatchResult rejected(
+      int index, ApplicationException exception) {
+    FulfilmentAssociationBatchResult result = new FulfilmentAssociationBatchResult();
+    result.index = index;
+    result.status = exception.getStatusCode();
+    result.error = exception.getMessage();
+    return result;
+  }
+}
@@ -1,18 +1,73 @@
 package com.fulfilment.application.monolith.fulfilmentunits;
 
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationFilter;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationGraph;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentConstraintSnapshot;
 import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.FulfilmentAssociationStore;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.StringJoiner;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 
 @ApplicationScoped
 public class FulfilmentAssociationRepository
     implements PanacheRepository<FulfilmentAssociation>, FulfilmentAssociationStore {
 
+  private static final int FLUSH_INTERVAL = 50;
+  private static final int STREAM_FETCH_SIZE = 10_000;
+  private static final int STORE_LOCK_NAMESPACE = 1;
+  private static final int WAREHOUSE_LOCK_NAMESPACE = 2;
+
   @Override
-  public List<FulfilmentAssociation> listAllById() {
-    return listAll(Sort.by("id"));
+  public List<FulfilmentAssociation> listPage(
+      FulfilmentAssociationFilter filter, Long afterId, int limit) {
+    Parameters parameters = new Parameters();
+    return find(whereClause(filter, afterId, parameters), Sort.by("id"), parameters)
+        .page(0, limit)
+        .list();
+  }
+
+  @Override
+  public void forEachAssociation(
+      FulfilmentAssociationFilter filter, Long afterId, Consumer<FulfilmentAssociation> consumer) {
+    // Selecting columns instead of entities keeps the rows out of the persistence context, so
+    // together with the cursor fetch size the heap stays flat however many rows match.
+    Parameters parameters = new Parameters();
+    String where = whereClause(filter, afterId, parameters);
+    TypedQuery<Object[]> query =
+        getEntityManager()
+            .createQuery(
+                "select a.id, a.productId, a.storeId, a.warehouseBusinessUnitCode "
+                    + "from FulfilmentAssociation a "
+                    + (where.isEmpty() ? "" : "where " + where + " ")
+                    + "order by a.id",
+                Object[].class)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+            .setHint(HibernateHints.HINT_READ_ONLY, true);
+    parameters.map().forEach(query::setParameter);
+
+    try (Stream<Object[]> rows = query.getResultStream()) {
+      rows.forEach(
+          row -> {
+            FulfilmentAssociation association = new FulfilmentAssociation();
+            association.id = (Long) row[0];
+            association.productId = (Long) row[1];
+            association.storeId = (Long) row[2];
+            association.warehouseBusinessUnitCode = (String) row[3];
+            consumer.accept(association);
+          });
+    }
   }
 
   @Override
@@ -21,61 +76,162 @@ public class FulfilmentAssociationRepository
   }
 
   @Override
-  public boolean existsAssociation(Long productId, Long storeId, String warehouseBusinessUnitCode) {
-    return count(
-            "productId = ?1 and storeId = ?2 and warehouseBusinessUnitCode = ?3",
-            productId,
-            storeId,
-            warehouseBusinessUnitCode)
-        > 0;
+  public void createAll(List<FulfilmentAssociation> associations) {
+    // Flushing in statement-sized chunks lets Hibernate send each chunk as one JDBC batch while
+    // keeping the persistence context from growing with the size of the request. Only the
+    // chunk's own associations are detached; anything else the caller's transaction has loaded
+    // stays managed.
+    EntityManager entityManager = getEntityManager();
+    for (int from = 0; from < associations.size(); from += FLUSH_INTERVAL) {
+      List<FulfilmentAssociation> chunk =
+          associations.subList(from, Math.min(from + FLUSH_INTERVAL, associations.size()));
+      chunk.forEach(entityManager::persist);
+      entityManager.flush();
+      chunk.forEach(entityManager::detach);
+    }
   }
 
   @Override
-  public boolean existsWarehouseForStore(Long storeId, String warehouseBusinessUnitCode) {
-    return count("storeId = ?1 and warehouseBusinessUnitCode = ?2", storeId, warehouseBusinessUnitCode)
-        > 0;
+  public FulfilmentConstraintSnapshot loadConstraintSnapshot(
+      Long productId, Long storeId, String warehouseBusinessUnitCode) {
+    // Every rule only ever looks at rows of the store or of the warehouse, so one pass over that
+    // slice with conditional aggregates answers all of them in a single round trip.
+    Object[] row =
+        getEntityManager()
+            .createQuery(
+                "select "
+                    + "coalesce(sum(case when a.productId = :productId and a.storeId = :storeId "
+                    + "and a.warehouseBusinessUnitCode = :warehouseCode then 1 else 0 end), 0), "
+                    + "count(distinct case when a.productId = :productId and a.storeId = :storeId "
+                    + "then a.warehouseBusinessUnitCode end), "
+                    + "coalesce(sum(case when a.storeId = :storeId "
+                    + "and a.warehouseBusinessUnitCode = :warehouseCode then 1 else 0 end), 0), "
+                    + "count(distinct case when a.storeId = :storeId "
+                    + "then a.warehouseBusinessUnitCode end), "
+                    + "coalesce(sum(case when a.warehouseBusinessUnitCode = :warehouseCode "
+                    + "and a.productId = :productId then 1 else 0 end), 0), "
+                    + "count(distinct case when a.warehouseBusinessUnitCode = :warehouseCode "
+                    + "then a.productId end) "
+                    + "from FulfilmentAssociation a "
+                    + "where a.storeId = :storeId or a.warehouseBusinessUnitCode = :warehouseCode",
+                Object[].class)
+            .setParameter("productId", productId)
+            .setParameter("storeId", storeId)
+            .setParameter("warehouseCode", warehouseBusinessUnitCode)
+            .getSingleResult();
+
+    return new FulfilmentConstraintSnapshot(
+        asLong(row[0]) > 0,
+        asLong(row[1]),
+        asLong(row[2]) > 0,
+        asLong(row[3]),
+        asLong(row[4]) > 0,
+        asLong(row[5]));
   }
 
   @Override
-  public boolean existsProductForWarehouse(String warehouseBusinessUnitCode, Long productId) {
-    return count("warehouseBusinessUnitCode = ?1 and productId = ?2", warehouseBusinessUnitCode, productId)
-        > 0;
+  public FulfilmentAssociationGraph loadConstraintGraph(
+      Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes) {
+    FulfilmentAssociationGraph graph = new FulfilmentAssociationGraph();
+    if (storeIds.isEmpty() && warehouseBusinessUnitCodes.isEmpty()) {
+      return graph;
+    }
+
+    try (Stream<Object[]> rows =
+        getEntityManager()
+            .createQuery(
+                "select a.productId, a.storeId, a.warehouseBusinessUnitCode "
+                    + "from FulfilmentAssociation a "
+                    + "where a.storeId in :storeIds "
+                    + "or a.warehouseBusinessUnitCode in :warehouseCodes",
+                Object[].class)
+            .setParameter("storeIds", storeIds)
+            .setParameter("warehouseCodes", warehouseBusinessUnitCodes)
+            .getResultStream()) {
+      rows.forEach(row -> graph.add((Long) row[0], (Long) row[1], (String) row[2]));
+    }
+
+    return graph;
   }
 
   @Override
-  public long countDistinctWarehousesForProductAndStore(Long productId, Long storeId) {
-    return getEntityManager()
-        .createQuery(
-            "select count(distinct a.warehouseBusinessUnitCode) "
-                + "from FulfilmentAssociation a "
-                + "where a.productId = :productId and a.storeId = :storeId",
-            Long.class)
-        .setParameter("productId", productId)
-        .setParameter("storeId", storeId)
+  public void lockForAdmission(
+      Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes) {
+    // Transaction-scoped advisory locks in two namespaces, taken in a fixed order so that
+    // overlapping requests cannot deadlock. They are released by the commit or rollback.
+    SortedSet<Long> keys = new TreeSet<>();
+    storeIds.forEach(
+        storeId -> keys.add(advisoryKey(STORE_LOCK_NAMESPACE, Long.hashCode(storeId))));
+    warehouseBusinessUnitCodes.forEach(
+        code -> keys.add(advisoryKey(WAREHOUSE_LOCK_NAMESPACE, code.hashCode())));
+    if (keys.isEmpty()) {
+      return;
+    }
+
+    // All the keys go in one statement, however large the batch. PostgreSQL evaluates a volatile
+    // function in the select list after the sort, so the locks are still taken in key order.
+    StringJoiner array = new StringJoiner(",", "{", "}");
+    keys.forEach(key -> array.add(key.toString()));
+    getEntityManager()
+        .createNativeQuery(
+            "select count(*) from (select pg_advisory_xact_lock(k) "
+                + "from unnest(cast(:keys as bigint[])) as k order by k) as locked")
+        .setParameter("keys", array.toString())
         .getSingleResult();
   }
 
   @Override
-  public long countDistinctWarehousesForStore(Long storeId) {
-    return getEntityManager()
-        .createQuery(
-            "select count(distinct a.warehouseBusinessUnitCode) "
-                + "from FulfilmentAssociation a "
-                + "where a.storeId = :storeId",
-            Long.class)
-        .setParameter("storeId", storeId)
-        .getSingleResult();
+  public void forEachAssociationByStore(Consumer<FulfilmentAssociation> consumer) {
+    TypedQuery<Object[]> query =
+        getEntityManager()
+            .createQuery(
+                "select a.productId, a.storeId, a.warehouseBusinessUnitCode "
+                    + "from FulfilmentAssociation a "
+                    + "order by a.storeId, a.productId",
+                Object[].class)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+            .setHint(HibernateHints.HINT_READ_ONLY, true);
+
+    // Closing the stream releases the cursor now rather than when the transaction ends.
+    try (Stream<Object[]> rows = query.getResultStream()) {
+      rows.forEach(
+          row -> {
+            FulfilmentAssociation association = new FulfilmentAssociation();
+            association.productId = (Long) row[0];
+            association.storeId = (Long) row[1];
+            association.warehouseBusinessUnitCode = (String) row[2];
+            consumer.accept(association);
+          });
+    }
   }
 
-  @Override
-  public long countDistinctProductsForWarehouse(String warehouseBusinessUnitCode) {
-    return getEntityManager()
-        .createQuery(
-            "select count(distinct a.productId) "
-                + "from FulfilmentAssociation a "
-                + "where a.warehouseBusinessUnitCode = :warehouseBusinessUnitCode",
-            Long.class)
-        .setParameter("warehouseBusinessUnitCode", warehouseBusinessUnitCode)
-        .getSingleResult();
+  private String whereClause(
+      FulfilmentAssociationFilter filter, Long afterId, Parameters parameters) {
+    List<String> conditions = new ArrayList<>();
+    if (afterId != null) {
+      conditions.add("id > :afterId");
+      parameters.and("afterId", afterId);
+    }
+    if (filter.storeId != null) {
+      conditions.add("storeId = :storeId");
+      parameters.and("storeId", filter.storeId);
+    }
+    if (filter.productId != null) {
+      conditions.add("productId = :productId");
+      parameters.and("productId", filter.productId);
+    }
+    if (filter.warehouseBusinessUnitCode != null) {
+      conditions.add("warehouseBusinessUnitCode = :warehouseCode");
+      parameters.and("warehouseCode", filter.warehouseBusinessUnitCode);
+    }
+    return String.join(" and ", conditions);
+  }
+
+  private long advisoryKey(int namespace, int hash) {
+    return ((long) namespace << 32) | (hash & 0xFFFFFFFFL);
+  }
+
+  private long asLong(Object value) {
+    return value == null ? 0L : ((Number) value).longValue();
   }
 }
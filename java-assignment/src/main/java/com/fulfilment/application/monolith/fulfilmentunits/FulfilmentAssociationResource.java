@@ -1,14 +1,33 @@
 package com.fulfilment.application.monolith.fulfilmentunits;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fulfilment.application.monolith.fulfilmentunits.application.usecases.FulfilmentAssociationUseCase;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationFilter;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationPage;
+import com.fulfilment.application.monolith.shared.application.exceptions.UnprocessableEntityException;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 @Path("fulfilment-association")
@@ -17,11 +36,64 @@ import java.util.List;
 @Consumes("application/json")
 public class FulfilmentAssociationResource {
 
+  static final String NDJSON = "application/x-ndjson";
+
   @Inject FulfilmentAssociationUseCase fulfilmentAssociationUseCase;
+  @Inject ObjectMapper objectMapper;
+  @Context UriInfo uriInfo;
 
   @GET
-  public List<FulfilmentAssociation> list() {
-    return fulfilmentAssociationUseCase.list();
+  public Response list(
+      @QueryParam("storeId") Long storeId,
+      @QueryParam("productId") Long productId,
+      @QueryParam("warehouseBusinessUnitCode") String warehouseBusinessUnitCode,
+      @QueryParam("after") Long after,
+      @QueryParam("limit") @DefaultValue("100") int limit) {
+    FulfilmentAssociationPage page =
+        fulfilmentAssociationUseCase.list(
+            new FulfilmentAssociationFilter(storeId, productId, warehouseBusinessUnitCode),
+            after,
+            limit);
+
+    Response.ResponseBuilder response = Response.ok(page.items);
+    if (page.nextAfterId != null) {
+      response.link(
+          uriInfo.getRequestUriBuilder().replaceQueryParam("after", page.nextAfterId).build(),
+          "next");
+    }
+    return response.build();
+  }
+
+  @GET
+  @Path("stream")
+  @Produces(NDJSON)
+  public StreamingOutput stream(
+      @QueryParam("storeId") Long storeId,
+      @QueryParam("productId") Long productId,
+      @QueryParam("warehouseBusinessUnitCode") String warehouseBusinessUnitCode,
+      @QueryParam("after") Long after) {
+    FulfilmentAssociationFilter filter =
+        new FulfilmentAssociationFilter(storeId, productId, warehouseBusinessUnitCode);
+    ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    // Rows are written one by one as the cursor advances instead of being collected first.
+    return output -> {
+      try {
+        fulfilmentAssociationUseCase.stream(
+            filter,
+            after,
+            association -> {
+              try {
+                writer.writeValue(output, association);
+                output.write('\n');
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+    };
   }
 
   @POST
@@ -29,4 +101,48 @@ public class FulfilmentAssociationResource {
     FulfilmentAssociation association = fulfilmentAssociationUseCase.associate(request);
     return Response.ok(association).status(201).build();
   }
+
+  @POST
+  @Path("batch")
+  public List<FulfilmentAssociationBatchResult> associateBatch(
+      List<FulfilmentAssociationRequest> requests) {
+    return fulfilmentAssociationUseCase.associateAll(requests);
+  }
+
+  @POST
+  @Path("batch")
+  @Consumes(NDJSON)
+  public List<FulfilmentAssociationBatchResult> associateBatchStream(InputStream body)
+      throws IOException {
+    return fulfilmentAssociationUseCase.associateAll(readRequests(body));
+  }
+
+  private List<FulfilmentAssociationRequest> readRequests(InputStream body) throws IOException {
+    List<FulfilmentAssociationRequest> requests = new ArrayList<>();
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+      String line;
+      int lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank()) {
+          continue;
+        }
+        // Rejected while reading, so an oversized body is never held in memory as a whole.
+        if (requests.size() == FulfilmentAssociationUseCase.MAX_BATCH_SIZE) {
+          throw new UnprocessableEntityException(
+              "A batch can contain at most "
+                  + FulfilmentAssociationUseCase.MAX_BATCH_SIZE
+                  + " associations.");
+        }
+        try {
+          requests.add(objectMapper.readValue(line, FulfilmentAssociationRequest.class));
+        } catch (JsonProcessingException e) {
+          throw new UnprocessableEntityException(
+              "Malformed association on line " + lineNumber + ".");
+        }
+      }
+    }
+    return requests;
+  }
 }
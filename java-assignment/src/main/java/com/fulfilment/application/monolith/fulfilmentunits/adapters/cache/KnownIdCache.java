@@ -0,0 +1,82 @@
+package com.fulfilment.application.monolith.fulfilmentunits.adapters.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+import java.util.function.LongSupplier;
+
+// Ids known to exist. Only positive answers are kept, so a miss always goes to the loader and an
+// id that is created later is never reported as missing. Deletes in this instance invalidate an
+// id at once; a delete made by another instance is only seen once the entry expires, so an id can
+// be reported as existing for up to the time to live after its row is gone.
+public class KnownIdCache {
+
+  // id -> System.nanoTime() after which the id has to be loaded again
+  private final Map<Long, Long> known = new ConcurrentHashMap<>();
+  private final AtomicLong invalidations = new AtomicLong();
+  private final int maxIds;
+  private final long timeToLiveNanos;
+  private final LongSupplier clock;
+
+  public KnownIdCache(int maxIds, Duration timeToLive) {
+    this(maxIds, timeToLive, System::nanoTime);
+  }
+
+  KnownIdCache(int maxIds, Duration timeToLive, LongSupplier clock) {
+    if (maxIds < 1) {
+      throw new IllegalArgumentException("The cache must hold at least one id");
+    }
+    if (timeToLive.isNegative() || timeToLive.isZero()) {
+      throw new IllegalArgumentException("The cache entries must live for a positive time");
+    }
+    this.maxIds = maxIds;
+    this.timeToLiveNanos = timeToLive.toNanos();
+    this.clock = clock;
+  }
+
+  public boolean exists(long id, LongPredicate loader) {
+    Long expiresAt = known.get(id);
+    if (expiresAt != null) {
+      if (clock.getAsLong() - expiresAt < 0) {
+        return true;
+      }
+      known.remove(id, expiresAt);
+    }
+
+    long stamp = invalidations.get();
+    if (!loader.test(id)) {
+      return false;
+    }
+    admit(id);
+    // An invalidation that raced with the load may have been for this very id, in which case
+    // the loader could have seen the row just before it was deleted.
+    if (invalidations.get() != stamp) {
+      known.remove(id);
+    }
+    return true;
+  }
+
+  public void add(long id) {
+    admit(id);
+  }
+
+  public void invalidate(long id) {
+    // Counted before removing, so a concurrent load either sees the bump or gets removed here.
+    invalidations.incrementAndGet();
+    known.remove(id);
+  }
+
+  int size() {
+    return known.size();
+  }
+
+  private void admit(long id) {
+    // Starting over is cheaper than tracking recency, and the entries refill on demand.
+    if (known.size() >= maxIds) {
+      known.clear();
+    }
+    known.put(id, clock.getAsLong() + timeToLiveNanos);
+  }
+}
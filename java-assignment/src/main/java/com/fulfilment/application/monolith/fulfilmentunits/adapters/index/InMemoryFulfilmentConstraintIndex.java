@@ -0,0 +1,234 @@
+package com.fulfilment.application.monolith.fulfilmentunits.adapters.index;
+
+import com.fulfilment.application.monolith.fulfilmentunits.FulfilmentAssociation;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationGraph;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentConstraintSnapshot;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.FulfilmentAssociationStore;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.FulfilmentConstraintIndex;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+// Keeps every association in memory so that admission checks do not query the database. The
+// graph only learns about commits made by this JVM and is rebuilt at startup alone, so it is for
+// single-instance deployments and off by default: with several instances, each one would check
+// the limits against counts that miss the others' associations.
+@ApplicationScoped
+public class InMemoryFulfilmentConstraintIndex implements FulfilmentConstraintIndex {
+
+  private static final Logger LOGGER =
+      Logger.getLogger(InMemoryFulfilmentConstraintIndex.class.getName());
+
+  private final FulfilmentAssociationStore fulfilmentAssociationStore;
+  private final TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+  private final StripedAdmissionLocks admissionLocks;
+  private final boolean enabled;
+  private final Object transactionResourceKey = new Object();
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // Both graphs are guarded by the lock. The live graph stays null until the first rebuild has
+  // finished, and in the meantime lookups fall back to the database.
+  private FulfilmentAssociationGraph graph;
+  private FulfilmentAssociationGraph rebuilding;
+
+  @Inject
+  public InMemoryFulfilmentConstraintIndex(
+      FulfilmentAssociationStore fulfilmentAssociationStore,
+      TransactionSynchronizationRegistry transactionSynchronizationRegistry,
+      @ConfigProperty(name = "fulfilment-association.constraint-index.enabled", defaultValue = "false")
+          boolean enabled,
+      @ConfigProperty(name = "fulfilment-association.admission.lock-stripes", defaultValue = "1024")
+          int lockStripes,
+      @ConfigProperty(name = "fulfilment-association.admission.lock-timeout", defaultValue = "10s")
+          Duration lockTimeout) {
+    this(
+        fulfilmentAssociationStore,
+        transactionSynchronizationRegistry,
+        new StripedAdmissionLocks(lockStripes, lockTimeout.toMillis()),
+        enabled);
+  }
+
+  InMemoryFulfilmentConstraintIndex(
+      FulfilmentAssociationStore fulfilmentAssociationStore,
+      TransactionSynchronizationRegistry transactionSynchronizationRegistry,
+      StripedAdmissionLocks admissionLocks,
+      boolean enabled) {
+    this.fulfilmentAssociationStore = fulfilmentAssociationStore;
+    this.transactionSynchronizationRegistry = transactionSynchronizationRegistry;
+    this.admissionLocks = admissionLocks;
+    this.enabled = enabled;
+  }
+
+  void onStart(@Observes StartupEvent event) {
+    if (enabled) {
+      rebuild();
+    }
+  }
+
+  @Transactional
+  public void rebuild() {
+    long startedAt = System.nanoTime();
+    FulfilmentAssociationGraph next = new FulfilmentAssociationGraph();
+
+    // Commits that land while the table is being streamed are applied to the new graph as
+    // well; adding an association that the stream also returns is a no-op.
+    lock.writeLock().lock();
+    try {
+      rebuilding = next;
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    fulfilmentAssociationStore.forEachAssociationByStore(
+        association -> {
+          lock.writeLock().lock();
+          try {
+            next.add(
+                association.productId,
+                association.storeId,
+                association.warehouseBusinessUnitCode);
+          } finally {
+            lock.writeLock().unlock();
+          }
+        });
+
+    lock.writeLock().lock();
+    try {
+      next.trimToSize();
+      graph = next;
+      rebuilding = null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    LOGGER.infof(
+        "Rebuilt fulfilment constraint index with %d associations in %d ms (~%d KiB)",
+        next.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt),
+        next.estimatedFootprintBytes() / 1024);
+  }
+
+  @Override
+  public FulfilmentConstraintSnapshot snapshot(
+      Long productId, Long storeId, String warehouseBusinessUnitCode) {
+    lock.readLock().lock();
+    try {
+      if (graph != null) {
+        return graph.snapshot(productId, storeId, warehouseBusinessUnitCode);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    return fulfilmentAssociationStore.loadConstraintSnapshot(
+        productId, storeId, warehouseBusinessUnitCode);
+  }
+
+  @Override
+  public FulfilmentAssociationGraph subgraph(
+      Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes) {
+    lock.readLock().lock();
+    try {
+      if (graph != null) {
+        return graph.subgraph(storeIds, warehouseBusinessUnitCodes);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    return fulfilmentAssociationStore.loadConstraintGraph(storeIds, warehouseBusinessUnitCodes);
+  }
+
+  @Override
+  public void lockForAdmission(
+      Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes) {
+    if (enabled) {
+      // The striped locks queue requests of this JVM in memory, so that only one of them at a
+      // time waits on the database lock for the same keys. They are held until the index has
+      // applied the commit.
+      TransactionWork work = currentTransactionWork();
+      if (work.lease != null) {
+        throw new IllegalStateException("Admission is already held by the current transaction");
+      }
+      work.lease = admissionLocks.acquire(storeIds, warehouseBusinessUnitCodes);
+    }
+    // The database lock is what serializes admission across instances, index or not.
+    fulfilmentAssociationStore.lockForAdmission(storeIds, warehouseBusinessUnitCodes);
+  }
+
+  @Override
+  public void recordOnCommit(Collection<FulfilmentAssociation> associations) {
+    if (!enabled || associations.isEmpty()) {
+      return;
+    }
+
+    currentTransactionWork().pending.addAll(associations);
+  }
+
+  private TransactionWork currentTransactionWork() {
+    TransactionWork work =
+        (TransactionWork) transactionSynchronizationRegistry.getResource(transactionResourceKey);
+    if (work == null) {
+      work = new TransactionWork();
+      transactionSynchronizationRegistry.putResource(transactionResourceKey, work);
+      transactionSynchronizationRegistry.registerInterposedSynchronization(work);
+    }
+    return work;
+  }
+
+  private void apply(Collection<FulfilmentAssociation> associations) {
+    lock.writeLock().lock();
+    try {
+      for (FulfilmentAssociation association : associations) {
+        if (graph != null) {
+          graph.add(
+              association.productId, association.storeId, association.warehouseBusinessUnitCode);
+        }
+        if (rebuilding != null) {
+          rebuilding.add(
+              association.productId, association.storeId, association.warehouseBusinessUnitCode);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private final class TransactionWork implements Synchronization {
+
+    private final List<FulfilmentAssociation> pending = new ArrayList<>();
+    private StripedAdmissionLocks.Lease lease;
+
+    @Override
+    public void beforeCompletion() {}
+
+    @Override
+    public void afterCompletion(int status) {
+      // The index has to reflect the commit before the next request for the same keys is
+      // admitted, so the lease is only released once the associations have been applied.
+      try {
+        if (status == Status.STATUS_COMMITTED) {
+          apply(pending);
+        }
+      } finally {
+        if (lease != null) {
+          lease.release();
+        }
+      }
+    }
+  }
+}
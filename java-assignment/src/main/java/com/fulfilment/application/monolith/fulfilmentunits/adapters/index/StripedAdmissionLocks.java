@@ -0,0 +1,87 @@
+package com.fulfilment.application.monolith.fulfilmentunits.adapters.index;
+
+import com.fulfilment.application.monolith.shared.application.exceptions.ConflictException;
+import java.util.Collection;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+public class StripedAdmissionLocks {
+
+  // Binary semaphores rather than ReentrantLocks: a lease is released from a transaction
+  // synchronization, which is not guaranteed to run on the thread that acquired it.
+  private final Semaphore[] stripes;
+  private final long timeoutMillis;
+
+  public StripedAdmissionLocks(int stripeCount, long timeoutMillis) {
+    if (stripeCount < 1) {
+      throw new IllegalArgumentException("At least one lock stripe is required");
+    }
+    this.stripes = new Semaphore[stripeCount];
+    for (int stripe = 0; stripe < stripeCount; stripe++) {
+      stripes[stripe] = new Semaphore(1);
+    }
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  public Lease acquire(Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes) {
+    // The store stripe serializes the per-store and per-product-per-store rules, the warehouse
+    // stripe the per-warehouse rule. Taking stripes in ascending order rules out deadlocks
+    // between requests that touch overlapping keys.
+    int[] ordered =
+        IntStream.concat(
+                storeIds.stream().mapToInt(storeId -> stripeOf(Long.hashCode(storeId))),
+                warehouseBusinessUnitCodes.stream().mapToInt(code -> stripeOf(~code.hashCode())))
+            .sorted()
+            .distinct()
+            .toArray();
+
+    int acquired = 0;
+    try {
+      for (int stripe : ordered) {
+        if (!stripes[stripe].tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+          throw new ConflictException(
+              "Timed out waiting for concurrent fulfilment associations to complete.");
+        }
+        acquired++;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      release(ordered, acquired);
+      throw new ConflictException(
+          "Interrupted while waiting for fulfilment association admission.");
+    } catch (RuntimeException e) {
+      release(ordered, acquired);
+      throw e;
+    }
+
+    return new Lease(ordered);
+  }
+
+  private int stripeOf(int hash) {
+    int spread = hash ^ (hash >>> 16);
+    return Math.floorMod(spread * 0x9E3779B9, stripes.length);
+  }
+
+  private void release(int[] ordered, int count) {
+    for (int index = count - 1; index >= 0; index--) {
+      stripes[ordered[index]].release();
+    }
+  }
+
+  public final class Lease {
+    private final int[] ordered;
+    private boolean released;
+
+    private Lease(int[] ordered) {
+      this.ordered = ordered;
+    }
+
+    public synchronized void release() {
+      if (!released) {
+        released = true;
+        StripedAdmissionLocks.this.release(ordered, ordered.length);
+      }
+    }
+  }
+}
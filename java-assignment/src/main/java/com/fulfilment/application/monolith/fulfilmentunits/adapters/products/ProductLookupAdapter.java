@@ -1,20 +1,53 @@
 package com.fulfilment.application.monolith.fulfilmentunits.adapters.products;
 
+import com.fulfilment.application.monolith.fulfilmentunits.adapters.cache.KnownIdCache;
 import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.ProductLookupPort;
+import com.fulfilment.application.monolith.products.ProductLifecycleEvent;
 import com.fulfilment.application.monolith.products.ProductRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 @ApplicationScoped
 public class ProductLookupAdapter implements ProductLookupPort {
 
   private final ProductRepository productRepository;
+  private final KnownIdCache knownProducts;
 
-  public ProductLookupAdapter(ProductRepository productRepository) {
+  @Inject
+  public ProductLookupAdapter(
+      ProductRepository productRepository,
+      @ConfigProperty(name = "fulfilment-association.lookup-cache.max-ids", defaultValue = "100000")
+          int maxIds,
+      @ConfigProperty(name = "fulfilment-association.lookup-cache.ttl", defaultValue = "30s")
+          Duration timeToLive) {
+    this(productRepository, new KnownIdCache(maxIds, timeToLive));
+  }
+
+  ProductLookupAdapter(ProductRepository productRepository, KnownIdCache knownProducts) {
     this.productRepository = productRepository;
+    this.knownProducts = knownProducts;
   }
 
   @Override
   public boolean existsById(Long productId) {
-    return productRepository.findById(productId) != null;
+    return knownProducts.exists(productId, id -> productRepository.count("id", id) > 0);
+  }
+
+  void onCreated(@Observes(during = TransactionPhase.AFTER_SUCCESS) ProductLifecycleEvent event) {
+    if (event.operation == ProductLifecycleEvent.Operation.CREATE) {
+      knownProducts.add(event.productId);
+    }
+  }
+
+  // After completion rather than after success: forgetting an id is always safe.
+  void onDeleted(
+      @Observes(during = TransactionPhase.AFTER_COMPLETION) ProductLifecycleEvent event) {
+    if (event.operation == ProductLifecycleEvent.Operation.DELETE) {
+      knownProducts.invalidate(event.productId);
+    }
   }
 }
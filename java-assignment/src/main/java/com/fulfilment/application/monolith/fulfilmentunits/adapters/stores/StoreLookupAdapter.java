@@ -1,20 +1,53 @@
 package com.fulfilment.application.monolith.fulfilmentunits.adapters.stores;
 
+import com.fulfilment.application.monolith.fulfilmentunits.adapters.cache.KnownIdCache;
 import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.StoreLookupPort;
+import com.fulfilment.application.monolith.stores.StoreLifecycleEvent;
 import com.fulfilment.application.monolith.stores.adapters.database.StoreRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 @ApplicationScoped
 public class StoreLookupAdapter implements StoreLookupPort {
 
   private final StoreRepository storeRepository;
+  private final KnownIdCache knownStores;
 
-  public StoreLookupAdapter(StoreRepository storeRepository) {
+  @Inject
+  public StoreLookupAdapter(
+      StoreRepository storeRepository,
+      @ConfigProperty(name = "fulfilment-association.lookup-cache.max-ids", defaultValue = "100000")
+          int maxIds,
+      @ConfigProperty(name = "fulfilment-association.lookup-cache.ttl", defaultValue = "30s")
+          Duration timeToLive) {
+    this(storeRepository, new KnownIdCache(maxIds, timeToLive));
+  }
+
+  StoreLookupAdapter(StoreRepository storeRepository, KnownIdCache knownStores) {
     this.storeRepository = storeRepository;
+    this.knownStores = knownStores;
   }
 
   @Override
   public boolean existsById(Long storeId) {
-    return storeRepository.findById(storeId) != null;
+    return knownStores.exists(storeId, id -> storeRepository.count("id", id) > 0);
+  }
+
+  void onCreated(@Observes(during = TransactionPhase.AFTER_SUCCESS) StoreLifecycleEvent event) {
+    if (event.operation == StoreLifecycleEvent.Operation.CREATE) {
+      knownStores.add(event.storeId);
+    }
+  }
+
+  // After completion rather than after success: forgetting an id is always safe.
+  void onDeleted(
+      @Observes(during = TransactionPhase.AFTER_COMPLETION) StoreLifecycleEvent event) {
+    if (event.operation == StoreLifecycleEvent.Operation.DELETE) {
+      knownStores.invalidate(event.storeId);
+    }
   }
 }
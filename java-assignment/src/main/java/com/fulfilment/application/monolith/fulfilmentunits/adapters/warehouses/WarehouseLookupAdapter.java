@@ -15,11 +15,7 @@ public class WarehouseLookupAdapter implements WarehouseLookupPort {
 
   @Override
   public String resolveBusinessUnitCode(String warehouseIdentifier) {
-    var resolvedWarehouse = warehouseRepository.findByBusinessUnitCode(warehouseIdentifier);
-    if (resolvedWarehouse == null) {
-      resolvedWarehouse = warehouseRepository.findById(warehouseIdentifier);
-    }
-
+    var resolvedWarehouse = warehouseRepository.resolve(warehouseIdentifier);
     if (resolvedWarehouse == null) {
       return null;
     }
@@ -1,98 +1,235 @@
 package com.fulfilment.application.monolith.fulfilmentunits.application.usecases;
 
 import com.fulfilment.application.monolith.fulfilmentunits.FulfilmentAssociation;
+import com.fulfilment.application.monolith.fulfilmentunits.FulfilmentAssociationBatchResult;
 import com.fulfilment.application.monolith.fulfilmentunits.FulfilmentAssociationRequest;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationFilter;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationGraph;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationPage;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentConstraintSnapshot;
 import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.FulfilmentAssociationStore;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.FulfilmentConstraintIndex;
 import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.ProductLookupPort;
 import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.StoreLookupPort;
 import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.WarehouseLookupPort;
+import com.fulfilment.application.monolith.shared.application.exceptions.ApplicationException;
 import com.fulfilment.application.monolith.shared.application.exceptions.BadRequestException;
 import com.fulfilment.application.monolith.shared.application.exceptions.ConflictException;
 import com.fulfilment.application.monolith.shared.application.exceptions.NotFoundException;
 import com.fulfilment.application.monolith.shared.application.exceptions.UnprocessableEntityException;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 @ApplicationScoped
 public class FulfilmentAssociationUseCase {
 
+  public static final int MAX_BATCH_SIZE = 10_000;
+  static final int MAX_PAGE_SIZE = 1_000;
+
   private final ProductLookupPort productLookupPort;
   private final StoreLookupPort storeLookupPort;
   private final WarehouseLookupPort warehouseLookupPort;
   private final FulfilmentAssociationStore fulfilmentAssociationStore;
+  private final FulfilmentConstraintIndex fulfilmentConstraintIndex;
 
   public FulfilmentAssociationUseCase(
       ProductLookupPort productLookupPort,
       StoreLookupPort storeLookupPort,
       WarehouseLookupPort warehouseLookupPort,
-      FulfilmentAssociationStore fulfilmentAssociationStore) {
+      FulfilmentAssociationStore fulfilmentAssociationStore,
+      FulfilmentConstraintIndex fulfilmentConstraintIndex) {
     this.productLookupPort = productLookupPort;
     this.storeLookupPort = storeLookupPort;
     this.warehouseLookupPort = warehouseLookupPort;
     this.fulfilmentAssociationStore = fulfilmentAssociationStore;
+    this.fulfilmentConstraintIndex = fulfilmentConstraintIndex;
   }
 
-  public List<FulfilmentAssociation> list() {
-    return fulfilmentAssociationStore.listAllById();
+  public FulfilmentAssociationPage list(
+      FulfilmentAssociationFilter filter, Long afterId, int limit) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new UnprocessableEntityException(
+          "limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+    }
+
+    // One row past the page tells whether there is a next page without a count query.
+    List<FulfilmentAssociation> rows =
+        fulfilmentAssociationStore.listPage(filter, afterId, limit + 1);
+    if (rows.size() <= limit) {
+      return new FulfilmentAssociationPage(rows, null);
+    }
+    List<FulfilmentAssociation> items = rows.subList(0, limit);
+    return new FulfilmentAssociationPage(items, items.get(limit - 1).id);
+  }
+
+  // The cursor only stays open inside the transaction, so the consumer has to do its writing
+  // from within this call.
+  @Transactional
+  public void stream(
+      FulfilmentAssociationFilter filter, Long afterId, Consumer<FulfilmentAssociation> consumer) {
+    fulfilmentAssociationStore.forEachAssociation(filter, afterId, consumer);
   }
 
   @Transactional
   public FulfilmentAssociation associate(FulfilmentAssociationRequest request) {
+    FulfilmentAssociation association =
+        resolveAssociation(
+            request,
+            productLookupPort::existsById,
+            storeLookupPort::existsById,
+            warehouseLookupPort::resolveBusinessUnitCode);
+
+    // Held until the transaction completes, so that two requests can never both pass the rules
+    // against the same state.
+    fulfilmentConstraintIndex.lockForAdmission(
+        List.of(association.storeId), List.of(association.warehouseBusinessUnitCode));
+    FulfilmentConstraintSnapshot snapshot =
+        fulfilmentConstraintIndex.snapshot(
+            association.productId, association.storeId, association.warehouseBusinessUnitCode);
+    enforceAssociationRules(snapshot);
+
+    fulfilmentAssociationStore.create(association);
+    fulfilmentConstraintIndex.recordOnCommit(List.of(association));
+
+    return association;
+  }
+
+  @Transactional
+  public List<FulfilmentAssociationBatchResult> associateAll(
+      List<FulfilmentAssociationRequest> requests) {
+    if (requests == null || requests.isEmpty()) {
+      throw new UnprocessableEntityException("At least one association is required.");
+    }
+    if (requests.size() > MAX_BATCH_SIZE) {
+      throw new UnprocessableEntityException(
+          "A batch can contain at most " + MAX_BATCH_SIZE + " associations.");
+    }
+
+    Map<Long, Boolean> knownProducts = new HashMap<>();
+    Map<Long, Boolean> knownStores = new HashMap<>();
+    Map<String, Optional<String>> resolvedWarehouses = new HashMap<>();
+    Predicate<Long> productExists =
+        productId -> knownProducts.computeIfAbsent(productId, productLookupPort::existsById);
+    Predicate<Long> storeExists =
+        storeId -> knownStores.computeIfAbsent(storeId, storeLookupPort::existsById);
+    Function<String, String> warehouseResolver =
+        identifier ->
+            resolvedWarehouses.computeIfAbsent(identifier, this::resolveWarehouse).orElse(null);
+
+    FulfilmentAssociationBatchResult[] results =
+        new FulfilmentAssociationBatchResult[requests.size()];
+    FulfilmentAssociation[] candidates = new FulfilmentAssociation[requests.size()];
+    Set<Long> storeIds = new HashSet<>();
+    Set<String> warehouseBusinessUnitCodes = new HashSet<>();
+
+    for (int index = 0; index < requests.size(); index++) {
+      try {
+        FulfilmentAssociation candidate =
+            resolveAssociation(
+                requests.get(index), productExists, storeExists, warehouseResolver);
+        candidates[index] = candidate;
+        storeIds.add(candidate.storeId);
+        warehouseBusinessUnitCodes.add(candidate.warehouseBusinessUnitCode);
+      } catch (ApplicationException e) {
+        results[index] = FulfilmentAssociationBatchResult.rejected(index, e);
+      }
+    }
+
+    // The graph holds every existing association of the touched stores and warehouses, which is
+    // all the rules ever look at. Admitted items are added to it as we go so that conflicts
+    // inside the batch itself are caught the same way as conflicts with persisted rows.
+    fulfilmentConstraintIndex.lockForAdmission(storeIds, warehouseBusinessUnitCodes);
+    FulfilmentAssociationGraph graph =
+        fulfilmentConstraintIndex.subgraph(storeIds, warehouseBusinessUnitCodes);
+    List<FulfilmentAssociation> admitted = new ArrayList<>();
+
+    for (int index = 0; index < candidates.length; index++) {
+      FulfilmentAssociation candidate = candidates[index];
+      if (candidate == null) {
+        continue;
+      }
+
+      try {
+        enforceAssociationRules(
+            graph.snapshot(
+                candidate.productId, candidate.storeId, candidate.warehouseBusinessUnitCode));
+      } catch (ApplicationException e) {
+        results[index] = FulfilmentAssociationBatchResult.rejected(index, e);
+        continue;
+      }
+
+      graph.add(candidate.productId, candidate.storeId, candidate.warehouseBusinessUnitCode);
+      admitted.add(candidate);
+      results[index] = FulfilmentAssociationBatchResult.created(index, candidate);
+    }
+
+    if (!admitted.isEmpty()) {
+      fulfilmentAssociationStore.createAll(admitted);
+      fulfilmentConstraintIndex.recordOnCommit(admitted);
+    }
+
+    return Arrays.asList(results);
+  }
+
+  private Optional<String> resolveWarehouse(String warehouseIdentifier) {
+    return Optional.ofNullable(warehouseLookupPort.resolveBusinessUnitCode(warehouseIdentifier));
+  }
+
+  private FulfilmentAssociation resolveAssociation(
+      FulfilmentAssociationRequest request,
+      Predicate<Long> productExists,
+      Predicate<Long> storeExists,
+      Function<String, String> warehouseResolver) {
     validateRequest(request);
 
-    if (!productLookupPort.existsById(request.productId)) {
+    if (!productExists.test(request.productId)) {
       throw new NotFoundException("Product with id of " + request.productId + " does not exist.");
     }
 
-    if (!storeLookupPort.existsById(request.storeId)) {
+    if (!storeExists.test(request.storeId)) {
       throw new NotFoundException("Store with id of " + request.storeId + " does not exist.");
     }
 
-    String warehouseBusinessUnitCode =
-        warehouseLookupPort.resolveBusinessUnitCode(request.warehouseIdentifier);
+    String warehouseBusinessUnitCode = warehouseResolver.apply(request.warehouseIdentifier);
     if (warehouseBusinessUnitCode == null) {
       throw new NotFoundException(
           "Warehouse with identifier " + request.warehouseIdentifier + " does not exist.");
     }
 
-    if (fulfilmentAssociationStore.existsAssociation(
-        request.productId, request.storeId, warehouseBusinessUnitCode)) {
+    FulfilmentAssociation association = new FulfilmentAssociation();
+    association.productId = request.productId;
+    association.storeId = request.storeId;
+    association.warehouseBusinessUnitCode = warehouseBusinessUnitCode;
+    return association;
+  }
+
+  private void enforceAssociationRules(FulfilmentConstraintSnapshot snapshot) {
+    if (snapshot.associationExists) {
       throw new ConflictException("Association already exists for product/store/warehouse combination.");
     }
 
-    long warehousesForProductAndStore =
-        fulfilmentAssociationStore.countDistinctWarehousesForProductAndStore(
-            request.productId, request.storeId);
-    if (warehousesForProductAndStore >= 2) {
+    if (snapshot.warehousesForProductAndStore >= 2) {
       throw new BadRequestException("A product can be fulfilled by at most 2 warehouses per store.");
     }
 
-    if (!fulfilmentAssociationStore.existsWarehouseForStore(
-        request.storeId, warehouseBusinessUnitCode)) {
-      long warehousesForStore =
-          fulfilmentAssociationStore.countDistinctWarehousesForStore(request.storeId);
-      if (warehousesForStore >= 3) {
-        throw new BadRequestException("A store can be fulfilled by at most 3 warehouses.");
-      }
+    if (!snapshot.storeUsesWarehouse && snapshot.warehousesForStore >= 3) {
+      throw new BadRequestException("A store can be fulfilled by at most 3 warehouses.");
     }
 
-    if (!fulfilmentAssociationStore.existsProductForWarehouse(
-        warehouseBusinessUnitCode, request.productId)) {
-      long productsForWarehouse =
-          fulfilmentAssociationStore.countDistinctProductsForWarehouse(warehouseBusinessUnitCode);
-      if (productsForWarehouse >= 5) {
-        throw new BadRequestException("A warehouse can store at most 5 product types.");
-      }
+    if (!snapshot.warehouseHoldsProduct && snapshot.productsForWarehouse >= 5) {
+      throw new BadRequestException("A warehouse can store at most 5 product types.");
     }
-
-    FulfilmentAssociation association = new FulfilmentAssociation();
-    association.productId = request.productId;
-    association.storeId = request.storeId;
-    association.warehouseBusinessUnitCode = warehouseBusinessUnitCode;
-    fulfilmentAssociationStore.create(association);
-
-    return association;
   }
 
   private void validateRequest(FulfilmentAssociationRequest request) {
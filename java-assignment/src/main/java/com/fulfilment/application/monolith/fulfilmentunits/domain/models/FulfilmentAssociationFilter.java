@@ -0,0 +1,19 @@
+package com.fulfilment.application.monolith.fulfilmentunits.domain.models;
+
+public class FulfilmentAssociationFilter {
+
+  public static final FulfilmentAssociationFilter NONE =
+      new FulfilmentAssociationFilter(null, null, null);
+
+  // null criteria match every association
+  public final Long storeId;
+  public final Long productId;
+  public final String warehouseBusinessUnitCode;
+
+  public FulfilmentAssociationFilter(
+      Long storeId, Long productId, String warehouseBusinessUnitCode) {
+    this.storeId = storeId;
+    this.productId = productId;
+    this.warehouseBusinessUnitCode = warehouseBusinessUnitCode;
+  }
+}
@@ -0,0 +1,252 @@
+package com.fulfilment.application.monolith.fulfilmentunits.domain.models;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+public class FulfilmentAssociationGraph {
+
+  private static final long[] NO_PRODUCTS = new long[0];
+  private static final int[] NO_WAREHOUSES = new int[0];
+
+  // Warehouse codes are interned to dense ordinals so that every adjacency list below can be a
+  // primitive array instead of a set of boxed values.
+  private final Map<String, Integer> warehouseOrdinals = new HashMap<>();
+  private String[] warehouseCodes = new String[16];
+  private long[][] productsByWarehouse = new long[16][];
+  private int[] productCountByWarehouse = new int[16];
+
+  private final Map<Long, StoreAdjacency> storesById = new HashMap<>();
+  private long associationCount;
+
+  public boolean add(Long productId, Long storeId, String warehouseBusinessUnitCode) {
+    int warehouse = internWarehouse(warehouseBusinessUnitCode);
+    StoreAdjacency store = storesById.computeIfAbsent(storeId, key -> new StoreAdjacency());
+    if (!store.add(productId, warehouse)) {
+      return false;
+    }
+
+    addProductToWarehouse(warehouse, productId);
+    associationCount++;
+    return true;
+  }
+
+  public FulfilmentConstraintSnapshot snapshot(
+      Long productId, Long storeId, String warehouseBusinessUnitCode) {
+    Integer warehouse = warehouseOrdinals.get(warehouseBusinessUnitCode);
+    boolean warehouseHoldsProduct = false;
+    long productsForWarehouse = 0;
+    if (warehouse != null) {
+      productsForWarehouse = productCountByWarehouse[warehouse];
+      warehouseHoldsProduct =
+          Arrays.binarySearch(
+                  productsByWarehouse[warehouse], 0, productCountByWarehouse[warehouse], productId)
+              >= 0;
+    }
+
+    StoreAdjacency store = storesById.get(storeId);
+    if (store == null) {
+      return new FulfilmentConstraintSnapshot(
+          false, 0, false, 0, warehouseHoldsProduct, productsForWarehouse);
+    }
+
+    int ordinal = warehouse == null ? -1 : warehouse;
+    boolean associationExists = false;
+    int warehousesForProductAndStore = 0;
+    for (int index = store.firstIndexOf(productId);
+        index < store.size && store.products[index] == productId;
+        index++) {
+      warehousesForProductAndStore++;
+      associationExists |= store.warehouses[index] == ordinal;
+    }
+
+    return new FulfilmentConstraintSnapshot(
+        associationExists,
+        warehousesForProductAndStore,
+        ordinal >= 0 && Arrays.binarySearch(store.distinctWarehouses, ordinal) >= 0,
+        store.distinctWarehouses.length,
+        warehouseHoldsProduct,
+        productsForWarehouse);
+  }
+
+  public FulfilmentAssociationGraph subgraph(
+      Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes) {
+    FulfilmentAssociationGraph subgraph = new FulfilmentAssociationGraph();
+    for (Long storeId : storeIds) {
+      StoreAdjacency store = storesById.get(storeId);
+      if (store == null) {
+        continue;
+      }
+      for (int index = 0; index < store.size; index++) {
+        subgraph.add(store.products[index], storeId, warehouseCodes[store.warehouses[index]]);
+      }
+    }
+
+    // Only the product set of a warehouse matters to the rules, so the stores behind those
+    // products are not copied along.
+    for (String warehouseBusinessUnitCode : warehouseBusinessUnitCodes) {
+      Integer warehouse = warehouseOrdinals.get(warehouseBusinessUnitCode);
+      if (warehouse == null) {
+        continue;
+      }
+      int copy = subgraph.internWarehouse(warehouseBusinessUnitCode);
+      for (int index = 0; index < productCountByWarehouse[warehouse]; index++) {
+        subgraph.addProductToWarehouse(copy, productsByWarehouse[warehouse][index]);
+      }
+    }
+
+    return subgraph;
+  }
+
+  public long size() {
+    return associationCount;
+  }
+
+  public void trimToSize() {
+    for (int warehouse = 0; warehouse < warehouseOrdinals.size(); warehouse++) {
+      productsByWarehouse[warehouse] =
+          Arrays.copyOf(productsByWarehouse[warehouse], productCountByWarehouse[warehouse]);
+    }
+    storesById.values().forEach(StoreAdjacency::trimToSize);
+  }
+
+  public long estimatedFootprintBytes() {
+    // Rough object sizes for a 64-bit JVM with compressed oops: array and object headers are
+    // 16 bytes, a HashMap entry with its boxed key is about 48 bytes.
+    long bytes = 0;
+    for (int warehouse = 0; warehouse < warehouseOrdinals.size(); warehouse++) {
+      bytes += 16 + 8L * productsByWarehouse[warehouse].length;
+      bytes += 48 + 40 + 2L * warehouseCodes[warehouse].length();
+    }
+    for (StoreAdjacency store : storesById.values()) {
+      bytes += 48 + 32;
+      bytes += 16 + 8L * store.products.length;
+      bytes += 16 + 4L * store.warehouses.length;
+      bytes += 16 + 4L * store.distinctWarehouses.length;
+    }
+    return bytes;
+  }
+
+  private int internWarehouse(String warehouseBusinessUnitCode) {
+    Integer existing = warehouseOrdinals.get(warehouseBusinessUnitCode);
+    if (existing != null) {
+      return existing;
+    }
+
+    int ordinal = warehouseOrdinals.size();
+    if (ordinal == warehouseCodes.length) {
+      int capacity = ordinal * 2;
+      warehouseCodes = Arrays.copyOf(warehouseCodes, capacity);
+      productsByWarehouse = Arrays.copyOf(productsByWarehouse, capacity);
+      productCountByWarehouse = Arrays.copyOf(productCountByWarehouse, capacity);
+    }
+    warehouseCodes[ordinal] = warehouseBusinessUnitCode;
+    productsByWarehouse[ordinal] = NO_PRODUCTS;
+    warehouseOrdinals.put(warehouseBusinessUnitCode, ordinal);
+    return ordinal;
+  }
+
+  private void addProductToWarehouse(int warehouse, long productId) {
+    long[] products = productsByWarehouse[warehouse];
+    int count = productCountByWarehouse[warehouse];
+    int position = Arrays.binarySearch(products, 0, count, productId);
+    if (position >= 0) {
+      return;
+    }
+
+    int insertAt = -position - 1;
+    if (count == products.length) {
+      products = Arrays.copyOf(products, Math.max(4, count * 2));
+      productsByWarehouse[warehouse] = products;
+    }
+    System.arraycopy(products, insertAt, products, insertAt + 1, count - insertAt);
+    products[insertAt] = productId;
+    productCountByWarehouse[warehouse] = count + 1;
+  }
+
+  private static final class StoreAdjacency {
+
+    // (product, warehouse) pairs of the store, kept sorted by product and then warehouse so that
+    // all warehouses of one product are adjacent.
+    private long[] products = NO_PRODUCTS;
+    private int[] warehouses = NO_WAREHOUSES;
+    private int size;
+
+    private int[] distinctWarehouses = NO_WAREHOUSES;
+
+    private boolean add(long productId, int warehouse) {
+      int insertAt;
+      if (size == 0 || compare(size - 1, productId, warehouse) < 0) {
+        // Rebuilds stream associations ordered by store and product, which makes this the
+        // common case and keeps them linear.
+        insertAt = size;
+      } else {
+        int position = search(productId, warehouse);
+        if (position >= 0) {
+          return false;
+        }
+        insertAt = -position - 1;
+      }
+
+      if (size == products.length) {
+        int capacity = Math.max(4, size + (size >> 1));
+        products = Arrays.copyOf(products, capacity);
+        warehouses = Arrays.copyOf(warehouses, capacity);
+      }
+      System.arraycopy(products, insertAt, products, insertAt + 1, size - insertAt);
+      System.arraycopy(warehouses, insertAt, warehouses, insertAt + 1, size - insertAt);
+      products[insertAt] = productId;
+      warehouses[insertAt] = warehouse;
+      size++;
+
+      int distinctPosition = Arrays.binarySearch(distinctWarehouses, warehouse);
+      if (distinctPosition < 0) {
+        int distinctInsertAt = -distinctPosition - 1;
+        int[] grown = new int[distinctWarehouses.length + 1];
+        System.arraycopy(distinctWarehouses, 0, grown, 0, distinctInsertAt);
+        grown[distinctInsertAt] = warehouse;
+        System.arraycopy(
+            distinctWarehouses,
+            distinctInsertAt,
+            grown,
+            distinctInsertAt + 1,
+            distinctWarehouses.length - distinctInsertAt);
+        distinctWarehouses = grown;
+      }
+      return true;
+    }
+
+    private int firstIndexOf(long productId) {
+      int position = search(productId, Integer.MIN_VALUE);
+      return position >= 0 ? position : -position - 1;
+    }
+
+    private int search(long productId, int warehouse) {
+      int low = 0;
+      int high = size - 1;
+      while (low <= high) {
+        int middle = (low + high) >>> 1;
+        int comparison = compare(middle, productId, warehouse);
+        if (comparison < 0) {
+          low = middle + 1;
+        } else if (comparison > 0) {
+          high = middle - 1;
+        } else {
+          return middle;
+        }
+      }
+      return -(low + 1);
+    }
+
+    private int compare(int index, long productId, int warehouse) {
+      int byProduct = Long.compare(products[index], productId);
+      return byProduct != 0 ? byProduct : Integer.compare(warehouses[index], warehouse);
+    }
+
+    private void trimToSize() {
+      products = Arrays.copyOf(products, size);
+      warehouses = Arrays.copyOf(warehouses, size);
+    }
+  }
+}
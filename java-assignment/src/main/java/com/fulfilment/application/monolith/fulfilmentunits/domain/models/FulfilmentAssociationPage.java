@@ -0,0 +1,17 @@
+package com.fulfilment.application.monolith.fulfilmentunits.domain.models;
+
+import com.fulfilment.application.monolith.fulfilmentunits.FulfilmentAssociation;
+import java.util.List;
+
+public class FulfilmentAssociationPage {
+
+  public final List<FulfilmentAssociation> items;
+
+  // id to pass as the next `after` cursor, null on the last page
+  public final Long nextAfterId;
+
+  public FulfilmentAssociationPage(List<FulfilmentAssociation> items, Long nextAfterId) {
+    this.items = items;
+    this.nextAfterId = nextAfterId;
+  }
+}
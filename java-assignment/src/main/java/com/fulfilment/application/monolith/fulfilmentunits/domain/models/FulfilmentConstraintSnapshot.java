@@ -0,0 +1,40 @@
+package com.fulfilment.application.monolith.fulfilmentunits.domain.models;
+
+public class FulfilmentConstraintSnapshot {
+
+  public static final FulfilmentConstraintSnapshot EMPTY =
+      new FulfilmentConstraintSnapshot(false, 0, false, 0, false, 0);
+
+  // the exact product/store/warehouse combination is already associated
+  public final boolean associationExists;
+
+  // distinct warehouses already fulfilling the product for the store
+  public final long warehousesForProductAndStore;
+
+  // the warehouse already fulfils at least one product for the store
+  public final boolean storeUsesWarehouse;
+
+  // distinct warehouses already fulfilling the store
+  public final long warehousesForStore;
+
+  // the warehouse already stores the product for at least one store
+  public final boolean warehouseHoldsProduct;
+
+  // distinct products already stored by the warehouse
+  public final long productsForWarehouse;
+
+  public FulfilmentConstraintSnapshot(
+      boolean associationExists,
+      long warehousesForProductAndStore,
+      boolean storeUsesWarehouse,
+      long warehousesForStore,
+      boolean warehouseHoldsProduct,
+      long productsForWarehouse) {
+    this.associationExists = associationExists;
+    this.warehousesForProductAndStore = warehousesForProductAndStore;
+    this.storeUsesWarehouse = storeUsesWarehouse;
+    this.warehousesForStore = warehousesForStore;
+    this.warehouseHoldsProduct = warehouseHoldsProduct;
+    this.productsForWarehouse = productsForWarehouse;
+  }
+}
@@ -1,23 +1,33 @@
 package com.fulfilment.application.monolith.fulfilmentunits.domain.ports;
 
 import com.fulfilment.application.monolith.fulfilmentunits.FulfilmentAssociation;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationFilter;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationGraph;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentConstraintSnapshot;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface FulfilmentAssociationStore {
 
-  List<FulfilmentAssociation> listAllById();
+  // Up to `limit` associations matching the filter with an id greater than `afterId`, by id.
+  List<FulfilmentAssociation> listPage(
+      FulfilmentAssociationFilter filter, Long afterId, int limit);
 
-  void create(FulfilmentAssociation association);
+  void forEachAssociation(
+      FulfilmentAssociationFilter filter, Long afterId, Consumer<FulfilmentAssociation> consumer);
 
-  boolean existsAssociation(Long productId, Long storeId, String warehouseBusinessUnitCode);
+  void create(FulfilmentAssociation association);
 
-  boolean existsWarehouseForStore(Long storeId, String warehouseBusinessUnitCode);
+  void createAll(List<FulfilmentAssociation> associations);
 
-  boolean existsProductForWarehouse(String warehouseBusinessUnitCode, Long productId);
+  FulfilmentConstraintSnapshot loadConstraintSnapshot(
+      Long productId, Long storeId, String warehouseBusinessUnitCode);
 
-  long countDistinctWarehousesForProductAndStore(Long productId, Long storeId);
+  FulfilmentAssociationGraph loadConstraintGraph(
+      Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes);
 
-  long countDistinctWarehousesForStore(Long storeId);
+  void lockForAdmission(Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes);
 
-  long countDistinctProductsForWarehouse(String warehouseBusinessUnitCode);
+  void forEachAssociationByStore(Consumer<FulfilmentAssociation> consumer);
 }
@@ -0,0 +1,20 @@
+package com.fulfilment.application.monolith.fulfilmentunits.domain.ports;
+
+import com.fulfilment.application.monolith.fulfilmentunits.FulfilmentAssociation;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationGraph;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentConstraintSnapshot;
+import java.util.Collection;
+
+public interface FulfilmentConstraintIndex {
+
+  FulfilmentConstraintSnapshot snapshot(
+      Long productId, Long storeId, String warehouseBusinessUnitCode);
+
+  FulfilmentAssociationGraph subgraph(
+      Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes);
+
+  void lockForAdmission(
+      Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes);
+
+  void recordOnCommit(Collection<FulfilmentAssociation> associations);
+}
@@ -0,0 +1,23 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "location")
+public class DbLocation {
+
+  @Id public String identification;
+
+  public int maxNumberOfWarehouses;
+
+  public int maxCapacity;
+
+  public DbLocation() {}
+
+  public Location toLocation() {
+    return new Location(identification, maxNumberOfWarehouses, maxCapacity);
+  }
+}
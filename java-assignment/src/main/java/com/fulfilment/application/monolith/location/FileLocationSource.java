@@ -0,0 +1,58 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads one location per line as `identification,maxNumberOfWarehouses,maxCapacity`. Blank
+// lines and lines starting with # are ignored.
+public class FileLocationSource implements LocationSource {
+
+  private final Path file;
+
+  public FileLocationSource(Path file) {
+    this.file = file;
+  }
+
+  @Override
+  public List<Location> load() {
+    List<String> lines;
+    try {
+      lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to read locations from " + file, e);
+    }
+
+    List<Location> locations = new ArrayList<>(lines.size());
+    for (int index = 0; index < lines.size(); index++) {
+      String line = lines.get(index).strip();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      locations.add(parse(line, index + 1));
+    }
+    return locations;
+  }
+
+  private Location parse(String line, int lineNumber) {
+    String[] fields = line.split(",");
+    if (fields.length != 3) {
+      throw new IllegalArgumentException(
+          "Expected 3 fields on line " + lineNumber + " of " + file + ": " + line);
+    }
+    try {
+      return new Location(
+          fields[0].strip(),
+          Integer.parseInt(fields[1].strip()),
+          Integer.parseInt(fields[2].strip()));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(
+          "Invalid number on line " + lineNumber + " of " + file + ": " + line, e);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+// Immutable snapshot of the known locations, indexed by identification. A reload builds a new
+// catalogue and swaps it in as a whole, so readers never see a half-loaded set.
+public final class LocationCatalogue {
+
+  private final Map<String, Location> locationsByIdentification;
+
+  private LocationCatalogue(Map<String, Location> locationsByIdentification) {
+    this.locationsByIdentification = locationsByIdentification;
+  }
+
+  public static LocationCatalogue of(Collection<Location> locations) {
+    Map<String, Location> byIdentification = new HashMap<>(locations.size() * 2);
+    for (Location location : locations) {
+      if (location.identification == null || location.identification.isBlank()) {
+        throw new IllegalArgumentException("Location identification is required");
+      }
+      if (byIdentification.put(location.identification, location) != null) {
+        throw new IllegalArgumentException(
+            "Duplicate location identification: " + location.identification);
+      }
+    }
+    return new LocationCatalogue(Map.copyOf(byIdentification));
+  }
+
+  public Location find(String identification) {
+    return identification == null ? null : locationsByIdentification.get(identification);
+  }
+
+  public int size() {
+    return locationsByIdentification.size();
+  }
+}
@@ -2,31 +2,78 @@ package com.fulfilment.application.monolith.location;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
-import java.util.ArrayList;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
 import java.util.List;
+import org.jboss.logging.Logger;
 
 @ApplicationScoped
 public class LocationGateway implements LocationResolver {
 
-  private static final List<Location> locations = new ArrayList<>();
-
-  static {
-    locations.add(new Location("ZWOLLE-001", 1, 40));
-    locations.add(new Location("ZWOLLE-002", 2, 50));
-    locations.add(new Location("AMSTERDAM-001", 5, 100));
-    locations.add(new Location("AMSTERDAM-002", 3, 75));
-    locations.add(new Location("TILBURG-001", 1, 40));
-    locations.add(new Location("HELMOND-001", 1, 45));
-    locations.add(new Location("EINDHOVEN-001", 2, 70));
-    locations.add(new Location("VETSBY-001", 1, 90));
+  private static final Logger LOGGER = Logger.getLogger(LocationGateway.class.getName());
+
+  static final LocationSource BUILT_IN =
+      () ->
+          List.of(
+              new Location("ZWOLLE-001", 1, 40),
+              new Location("ZWOLLE-002", 2, 50),
+              new Location("AMSTERDAM-001", 5, 100),
+              new Location("AMSTERDAM-002", 3, 75),
+              new Location("TILBURG-001", 1, 40),
+              new Location("HELMOND-001", 1, 45),
+              new Location("EINDHOVEN-001", 2, 70),
+              new Location("VETSBY-001", 1, 90));
+
+  private final LocationSource locationSource;
+  private volatile LocationCatalogue catalogue;
+
+  public LocationGateway() {
+    this(BUILT_IN);
+  }
+
+  @Inject
+  public LocationGateway(LocationSource locationSource) {
+    this.locationSource = locationSource;
+  }
+
+  void onStart(@Observes StartupEvent event) {
+    reload();
   }
 
   @Override
   public Location resolveByIdentifier(String identifier) {
-    return locations.stream()
-        .filter(location -> location.identification.equals(identifier))
-        .findFirst()
-        .orElse(null);
+    LocationCatalogue current = catalogue;
+    if (current == null) {
+      current = initialCatalogue();
+    }
+    return current.find(identifier);
+  }
+
+  // Loads the source into a fresh catalogue and swaps it in. Lookups keep using the previous
+  // catalogue until the swap, and keep using it for good if the source cannot be loaded.
+  @Scheduled(
+      every = "${location.catalogue.refresh-interval:off}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  public synchronized void reload() {
+    try {
+      LocationCatalogue next = LocationCatalogue.of(locationSource.load());
+      catalogue = next;
+      LOGGER.debugf("Loaded %d locations", next.size());
+    } catch (RuntimeException e) {
+      if (catalogue == null) {
+        throw e;
+      }
+      LOGGER.warnf(e, "Keeping the %d previously loaded locations", catalogue.size());
+    }
+  }
+
+  private synchronized LocationCatalogue initialCatalogue() {
+    if (catalogue == null) {
+      reload();
+    }
+    return catalogue;
   }
 }
@@ -0,0 +1,16 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+import java.util.List;
+
+@ApplicationScoped
+public class LocationRepository implements PanacheRepositoryBase<DbLocation, String> {
+
+  @Transactional
+  public List<Location> loadAll() {
+    return listAll().stream().map(DbLocation::toLocation).toList();
+  }
+}
@@ -0,0 +1,9 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.util.List;
+
+public interface LocationSource {
+
+  List<Location> load();
+}
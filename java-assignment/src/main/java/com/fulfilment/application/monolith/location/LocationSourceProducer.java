@@ -0,0 +1,32 @@
+package com.fulfilment.application.monolith.location;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ApplicationScoped
+public class LocationSourceProducer {
+
+  @Produces
+  @ApplicationScoped
+  LocationSource locationSource(
+      @ConfigProperty(name = "location.catalogue.source", defaultValue = "built-in")
+          String source,
+      @ConfigProperty(name = "location.catalogue.file") Optional<String> file,
+      LocationRepository locationRepository) {
+    return switch (source) {
+      case "built-in" -> LocationGateway.BUILT_IN;
+      case "file" ->
+          new FileLocationSource(
+              Path.of(
+                  file.orElseThrow(
+                      () ->
+                          new IllegalStateException(
+                              "location.catalogue.file is required for the file source"))));
+      case "table" -> locationRepository::loadAll;
+      default -> throw new IllegalStateException("Unknown location catalogue source: " + source);
+    };
+  }
+}
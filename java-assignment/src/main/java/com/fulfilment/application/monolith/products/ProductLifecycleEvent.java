@@ -0,0 +1,25 @@
+package com.fulfilment.application.monolith.products;
+
+public class ProductLifecycleEvent {
+
+  public enum Operation {
+    CREATE,
+    DELETE
+  }
+
+  public final Operation operation;
+  public final Long productId;
+
+  private ProductLifecycleEvent(Operation operation, Long productId) {
+    this.operation = operation;
+    this.productId = productId;
+  }
+
+  public static ProductLifecycleEvent created(Long productId) {
+    return new ProductLifecycleEvent(Operation.CREATE, productId);
+  }
+
+  public static ProductLifecycleEvent deleted(Long productId) {
+    return new ProductLifecycleEvent(Operation.DELETE, productId);
+  }
+}
@@ -1,22 +1,31 @@
 package com.fulfilment.application.monolith.products;
 
 import com.fulfilment.application.monolith.products.domain.ports.ProductStore;
-import io.quarkus.panache.common.Sort;
+import com.fulfilment.application.monolith.shared.adapters.database.NameKeyset;
+import com.fulfilment.application.monolith.shared.application.pagination.NameCursor;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 
 @ApplicationScoped
 public class ProductRepository implements PanacheRepository<Product>, ProductStore {
 
   @Override
-  public List<Product> listAllByName() {
-    return listAll(Sort.by("name"));
+  public List<Product> listPage(String namePrefix, NameCursor after, int limit) {
+    Parameters parameters = new Parameters();
+    return find(NameKeyset.where(namePrefix, after, parameters), NameKeyset.ORDER, parameters)
+        .withHint(HibernateHints.HINT_READ_ONLY, true)
+        .page(0, limit)
+        .list();
   }
 
   @Override
   public Product findById(Long id) {
-    return find("id", id).firstResult();
+    // An identity lookup goes through the persistence context and the second-level cache before
+    // it reaches the database, which a query on the id never does.
+    return getEntityManager().find(Product.class, id);
   }
 
   @Override
@@ -26,6 +35,11 @@ public class ProductRepository implements PanacheRepository<Product>, ProductSto
 
   @Override
   public void remove(Product product) {
-    delete("id", product.id);
+    // Removing the managed instance evicts just its cache entry, where a bulk delete would drop
+    // the whole region and leave a stale instance in the persistence context.
+    Product managed = findById(product.id);
+    if (managed != null) {
+      delete(managed);
+    }
   }
 }
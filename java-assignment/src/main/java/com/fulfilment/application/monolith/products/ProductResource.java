@@ -1,6 +1,9 @@
 package com.fulfilment.application.monolith.products;
 
 import com.fulfilment.application.monolith.products.application.usecases.ProductUseCase;
+import com.fulfilment.application.monolith.products.domain.models.ProductPage;
+import com.fulfilment.application.monolith.shared.adapters.restapi.FieldProjection;
+import com.fulfilment.application.monolith.shared.application.pagination.NameCursor;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
@@ -10,8 +13,12 @@ import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
 import java.util.List;
+import java.util.Map;
 
 @Path("product")
 @ApplicationScoped
@@ -19,11 +26,35 @@ import java.util.List;
 @Consumes("application/json")
 public class ProductResource {
 
+  private static final FieldProjection<Product> PROJECTION =
+      new FieldProjection<>(
+          Map.of(
+              "id", product -> product.id,
+              "name", product -> product.name,
+              "description", product -> product.description,
+              "price", product -> product.price,
+              "stock", product -> product.stock));
+
   @Inject ProductUseCase productUseCase;
+  @Context UriInfo uriInfo;
 
   @GET
-  public List<Product> get() {
-    return productUseCase.list();
+  public Response get(
+      @QueryParam("namePrefix") String namePrefix,
+      @QueryParam("after") String after,
+      @QueryParam("limit") Integer limit,
+      @QueryParam("fields") String fields) {
+    List<String> selectedFields = PROJECTION.parse(fields);
+    ProductPage page =
+        productUseCase.list(namePrefix, after == null ? null : NameCursor.decode(after), limit);
+
+    Response.ResponseBuilder response = Response.ok(PROJECTION.apply(page.items, selectedFields));
+    if (page.next != null) {
+      response.link(
+          uriInfo.getRequestUriBuilder().replaceQueryParam("after", page.next.encode()).build(),
+          "next");
+    }
+    return response.build();
   }
 
   @GET
@@ -0,0 +1,24 @@
+package com.fulfilment.application.monolith.products.adapters.events;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.products.ProductLifecycleEvent;
+import com.fulfilment.application.monolith.products.domain.ports.ProductLifecyclePublisher;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+
+@ApplicationScoped
+public class CdiProductLifecyclePublisher implements ProductLifecyclePublisher {
+
+  @Inject Event<ProductLifecycleEvent> productLifecycleEvents;
+
+  @Override
+  public void publishCreated(Product product) {
+    productLifecycleEvents.fire(ProductLifecycleEvent.created(product.id));
+  }
+
+  @Override
+  public void publishDeleted(Product product) {
+    productLifecycleEvents.fire(ProductLifecycleEvent.deleted(product.id));
+  }
+}
@@ -1,24 +1,52 @@
 package com.fulfilment.application.monolith.products.application.usecases;
 
 import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.products.domain.models.ProductPage;
+import com.fulfilment.application.monolith.products.domain.ports.ProductLifecyclePublisher;
 import com.fulfilment.application.monolith.products.domain.ports.ProductStore;
 import com.fulfilment.application.monolith.shared.application.exceptions.NotFoundException;
 import com.fulfilment.application.monolith.shared.application.exceptions.UnprocessableEntityException;
+import com.fulfilment.application.monolith.shared.application.pagination.NameCursor;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
 import java.util.List;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 @ApplicationScoped
 public class ProductUseCase {
 
+  static final int MAX_PAGE_SIZE = 1_000;
+
   private final ProductStore productStore;
+  private final ProductLifecyclePublisher productLifecyclePublisher;
+  private final int unpaginatedLimit;
 
-  public ProductUseCase(ProductStore productStore) {
+  public ProductUseCase(
+      ProductStore productStore,
+      ProductLifecyclePublisher productLifecyclePublisher,
+      @ConfigProperty(name = "product.list.max-results", defaultValue = "1000")
+          int unpaginatedLimit) {
     this.productStore = productStore;
+    this.productLifecyclePublisher = productLifecyclePublisher;
+    this.unpaginatedLimit = unpaginatedLimit;
   }
 
-  public List<Product> list() {
-    return productStore.listAllByName();
+  public ProductPage list(String namePrefix, NameCursor after, Integer limit) {
+    // Without a limit the caller gets the first unpaginatedLimit products and a cursor for the
+    // rest, never the whole table.
+    int pageSize = limit == null ? unpaginatedLimit : limit;
+    if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+      throw new UnprocessableEntityException(
+          "limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+    }
+
+    List<Product> rows = productStore.listPage(namePrefix, after, pageSize + 1);
+    if (rows.size() <= pageSize) {
+      return new ProductPage(rows, null);
+    }
+    List<Product> items = rows.subList(0, pageSize);
+    Product last = items.get(pageSize - 1);
+    return new ProductPage(items, new NameCursor(last.name, last.id));
   }
 
   public Product getSingle(Long id) {
@@ -36,6 +64,7 @@ public class ProductUseCase {
     }
 
     productStore.create(product);
+    productLifecyclePublisher.publishCreated(product);
     return product;
   }
 
@@ -66,5 +95,6 @@ public class ProductUseCase {
       throw new NotFoundException("Product with id of " + id + " does not exist.");
     }
     productStore.remove(entity);
+    productLifecyclePublisher.publishDeleted(entity);
   }
 }
@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.products.domain.models;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.shared.application.pagination.NameCursor;
+import java.util.List;
+
+public class ProductPage {
+
+  public final List<Product> items;
+
+  // position to continue from, null on the last page
+  public final NameCursor next;
+
+  public ProductPage(List<Product> items, NameCursor next) {
+    this.items = items;
+    this.next = next;
+  }
+}
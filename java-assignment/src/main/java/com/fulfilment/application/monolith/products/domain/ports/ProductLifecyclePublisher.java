@@ -0,0 +1,10 @@
+package com.fulfilment.application.monolith.products.domain.ports;
+
+import com.fulfilment.application.monolith.products.Product;
+
+public interface ProductLifecyclePublisher {
+
+  void publishCreated(Product product);
+
+  void publishDeleted(Product product);
+}
@@ -1,11 +1,13 @@
 package com.fulfilment.application.monolith.products.domain.ports;
 
 import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.shared.application.pagination.NameCursor;
 import java.util.List;
 
 public interface ProductStore {
 
-  List<Product> listAllByName();
+  // Up to limit products in name order, nulls last, then id, starting after the cursor.
+  List<Product> listPage(String namePrefix, NameCursor after, int limit);
 
   Product findById(Long id);
 
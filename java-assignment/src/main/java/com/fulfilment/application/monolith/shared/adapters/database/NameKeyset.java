@@ -0,0 +1,39 @@
+package com.fulfilment.application.monolith.shared.adapters.database;
+
+import com.fulfilment.application.monolith.shared.application.pagination.NameCursor;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
+import java.util.ArrayList;
+import java.util.List;
+
+// Query parts for keyset pagination over entities with a nullable `name` and an `id`.
+public final class NameKeyset {
+
+  public static final Sort ORDER =
+      Sort.by("name", Sort.Direction.Ascending, Sort.NullPrecedence.NULLS_LAST).and("id");
+
+  private NameKeyset() {}
+
+  public static String where(String namePrefix, NameCursor after, Parameters parameters) {
+    List<String> conditions = new ArrayList<>();
+    if (namePrefix != null && !namePrefix.isEmpty()) {
+      conditions.add("name like :namePrefix escape '\\'");
+      parameters.and("namePrefix", escapeLike(namePrefix) + "%");
+    }
+    // Rows after the cursor in ORDER. The name comparison keeps the unique name index usable
+    // instead of comparing a (name, id) row value.
+    if (after != null && after.name == null) {
+      conditions.add("(name is null and id > :afterId)");
+      parameters.and("afterId", after.id);
+    } else if (after != null) {
+      conditions.add(
+          "(name > :afterName or (name = :afterName and id > :afterId) or name is null)");
+      parameters.and("afterName", after.name).and("afterId", after.id);
+    }
+    return String.join(" and ", conditions);
+  }
+
+  private static String escapeLike(String value) {
+    return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+}
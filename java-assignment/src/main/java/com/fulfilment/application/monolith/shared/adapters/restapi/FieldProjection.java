@@ -0,0 +1,52 @@
+package com.fulfilment.application.monolith.shared.adapters.restapi;
+
+import com.fulfilment.application.monolith.shared.application.exceptions.UnprocessableEntityException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Reduces response items to the fields named in a comma-separated `fields` query parameter.
+public class FieldProjection<T> {
+
+  private final Map<String, Function<T, Object>> accessors;
+
+  public FieldProjection(Map<String, Function<T, Object>> accessors) {
+    this.accessors = accessors;
+  }
+
+  // The selected field names in request order, or null when every field is wanted.
+  public List<String> parse(String fields) {
+    if (fields == null || fields.isBlank()) {
+      return null;
+    }
+    List<String> selected = new ArrayList<>();
+    for (String field : fields.split(",")) {
+      String name = field.trim();
+      if (!accessors.containsKey(name)) {
+        throw new UnprocessableEntityException(
+            "Unknown field " + name + ", expected one of " + accessors.keySet() + ".");
+      }
+      if (!selected.contains(name)) {
+        selected.add(name);
+      }
+    }
+    return selected;
+  }
+
+  public Object apply(List<T> items, List<String> selected) {
+    if (selected == null) {
+      return items;
+    }
+    List<Map<String, Object>> projected = new ArrayList<>(items.size());
+    for (T item : items) {
+      Map<String, Object> values = new LinkedHashMap<>();
+      for (String name : selected) {
+        values.put(name, accessors.get(name).apply(item));
+      }
+      projected.add(values);
+    }
+    return projected;
+  }
+}
@@ -0,0 +1,14 @@
+package com.fulfilment.application.monolith.shared.application.exceptions;
+
+// A failure part way through work that is committed in steps, such as an import. The steps
+// committed before it stay; the message says how far the work got, and the status is that of the
+// underlying failure.
+public class PartiallyAppliedException extends ApplicationException {
+
+  public PartiallyAppliedException(String message, RuntimeException cause) {
+    super(
+        message,
+        cause instanceof ApplicationException failure ? failure.getStatusCode() : 500);
+    initCause(cause);
+  }
+}
@@ -0,0 +1,41 @@
+package com.fulfilment.application.monolith.shared.application.pagination;
+
+import com.fulfilment.application.monolith.shared.application.exceptions.UnprocessableEntityException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Position in a listing ordered by name, nulls last, then id. Clients get it as an opaque token.
+public class NameCursor {
+
+  // name of the last row returned, null when that row has no name
+  public final String name;
+
+  // id of the last row returned
+  public final Long id;
+
+  public NameCursor(String name, Long id) {
+    this.name = name;
+    this.id = id;
+  }
+
+  public String encode() {
+    String raw = id + (name == null ? "-" : "+" + name);
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static NameCursor decode(String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int separator = raw.indexOf('+');
+      if (separator < 0 && raw.endsWith("-")) {
+        return new NameCursor(null, Long.parseLong(raw.substring(0, raw.length() - 1)));
+      }
+      return new NameCursor(
+          raw.substring(separator + 1), Long.parseLong(raw.substring(0, separator)));
+    } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+      throw new UnprocessableEntityException("Invalid cursor: " + token);
+    }
+  }
+}
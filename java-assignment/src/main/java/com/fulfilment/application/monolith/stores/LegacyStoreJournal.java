@@ -0,0 +1,341 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import org.jboss.logging.Logger;
+
+// Append-only file drop for the legacy system: one line per store change, written to numbered
+// segment files that roll over at a fixed size. Appends only reach the page cache; flush() makes
+// everything appended so far durable, and callers that flush while another fsync is running share
+// the next one instead of each issuing their own.
+//
+// Record format: <idempotency key> <C|U> <store id> <stock> <name>\n, with backslash and newline
+// in the name escaped.
+//
+// A journal owns its directory: a second journal on the same directory, in this process or
+// another one, fails to open instead of interleaving segments and replaying foreign keys.
+//
+// The legacy system reports its progress by writing the name of the last segment it has fully
+// read to legacy-store.consumed. Only segments up to that one are ever deleted, once there are
+// more than maxSegments. When the unread segments alone fill maxSegments, append refuses the
+// record with a LegacyStoreJournalFullException rather than drop undelivered ones.
+public class LegacyStoreJournal implements AutoCloseable {
+
+  private static final Logger LOGGER = Logger.getLogger(LegacyStoreJournal.class.getName());
+
+  static final String SEGMENT_PREFIX = "legacy-store-";
+  static final String SEGMENT_SUFFIX = ".log";
+  static final String LOCK_FILE = "legacy-store.lock";
+  static final String CONSUMED_FILE = "legacy-store.consumed";
+
+  private final Path directory;
+  private final long segmentSize;
+  private final int maxSegments;
+  private final FileChannel lockChannel;
+  private final FileLock directoryLock;
+
+  // Guards the segment and the encode buffers.
+  private final ReentrantLock appendLock = new ReentrantLock();
+  private final Deque<Path> segments = new ArrayDeque<>();
+  private final StringBuilder line = new StringBuilder(128);
+  private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+  private ByteBuffer buffer = ByteBuffer.allocateDirect(512);
+  private FileChannel channel;
+  private long segmentNumber;
+  private long segmentBytes;
+
+  // Bytes appended and bytes known to be on disk, counted over the journal's lifetime.
+  private volatile long appended;
+  private volatile long durable;
+  private final ReentrantLock flushLock = new ReentrantLock();
+
+  public LegacyStoreJournal(Path directory, long segmentSize, int maxSegments) {
+    if (segmentSize < 1 || maxSegments < 1) {
+      throw new IllegalArgumentException("Journal segment size and count must be positive");
+    }
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.maxSegments = maxSegments;
+    try {
+      Files.createDirectories(directory);
+      lockChannel =
+          FileChannel.open(
+              directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      directoryLock = lockDirectory();
+      segments.addAll(existingSegments());
+      segmentNumber = segments.isEmpty() ? 0 : number(segments.peekLast());
+      deleteConsumedSegments(maxSegments - 1);
+      // A segment left by the previous run may end in a torn record, so never append to it.
+      openNextSegment();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot open legacy store journal in " + directory, e);
+    }
+  }
+
+  public void append(String idempotencyKey, char operation, Store store) {
+    appendLock.lock();
+    try {
+      ByteBuffer record = encode(idempotencyKey, operation, store);
+      if (segmentBytes > 0 && segmentBytes + record.remaining() > segmentSize) {
+        // Room for the next segment is made before the current one is closed, so a full journal
+        // leaves it open for the records that still fit.
+        deleteConsumedSegments(maxSegments - 1);
+        if (segments.size() >= maxSegments) {
+          throw new LegacyStoreJournalFullException(
+              "Legacy store journal in "
+                  + directory
+                  + " holds "
+                  + segments.size()
+                  + " segments the legacy system has not read");
+        }
+        rotate();
+      }
+      int length = record.remaining();
+      while (record.hasRemaining()) {
+        channel.write(record);
+      }
+      segmentBytes += length;
+      appended += length;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to append store " + store.id + " to journal", e);
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  // Returns once everything appended before the call is on disk.
+  public void flush() {
+    long target = appended;
+    if (durable >= target) {
+      return;
+    }
+    flushLock.lock();
+    try {
+      // The fsync this caller waited on may already have covered its records.
+      if (durable >= target) {
+        return;
+      }
+      long covered;
+      FileChannel current;
+      appendLock.lock();
+      try {
+        covered = appended;
+        current = channel;
+      } finally {
+        appendLock.unlock();
+      }
+      try {
+        current.force(false);
+      } catch (ClosedChannelException e) {
+        // Rotated meanwhile; rotation forces a segment before closing it.
+      }
+      durable = covered;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to flush legacy store journal", e);
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  // Idempotency keys of up to max of the most recent records in earlier segments, oldest first.
+  // Segments are read newest first and only as far back as needed.
+  public List<String> recentKeys(int max) {
+    List<Path> earlier;
+    appendLock.lock();
+    try {
+      earlier = new ArrayList<>(segments);
+      earlier.remove(earlier.size() - 1);
+    } finally {
+      appendLock.unlock();
+    }
+
+    Deque<String> keys = new ArrayDeque<>();
+    for (int i = earlier.size() - 1; i >= 0 && keys.size() < max; i--) {
+      Path segment = earlier.get(i);
+      List<String> segmentKeys = new ArrayList<>();
+      try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+        String record;
+        while ((record = reader.readLine()) != null) {
+          int end = record.indexOf(' ');
+          if (end > 0) {
+            segmentKeys.add(record.substring(0, end));
+          }
+        }
+      } catch (IOException e) {
+        LOGGER.warnf(e, "Skipping unreadable journal segment %s", segment);
+      }
+      for (int k = segmentKeys.size() - 1; k >= 0 && keys.size() < max; k--) {
+        keys.addFirst(segmentKeys.get(k));
+      }
+    }
+    return new ArrayList<>(keys);
+  }
+
+  @Override
+  public void close() {
+    appendLock.lock();
+    try {
+      channel.force(false);
+      channel.close();
+    } catch (IOException e) {
+      LOGGER.warn("Failed to close legacy store journal", e);
+    } finally {
+      try {
+        directoryLock.release();
+        lockChannel.close();
+      } catch (IOException e) {
+        LOGGER.warn("Failed to release legacy store journal directory", e);
+      }
+      appendLock.unlock();
+    }
+  }
+
+  private FileLock lockDirectory() throws IOException {
+    FileLock lock;
+    try {
+      lock = lockChannel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      lock = null;
+    }
+    if (lock == null) {
+      lockChannel.close();
+      throw new IllegalStateException(
+          "Legacy store journal directory " + directory + " is in use by another journal");
+    }
+    return lock;
+  }
+
+  // Encodes straight into the reused direct buffer, which the channel writes without another copy.
+  private ByteBuffer encode(String idempotencyKey, char operation, Store store) {
+    line.setLength(0);
+    line.append(idempotencyKey)
+        .append(' ')
+        .append(operation)
+        .append(' ')
+        .append(store.id)
+        .append(' ')
+        .append(store.quantityProductsInStock)
+        .append(' ');
+    escapeInto(store.name, line);
+    line.append('\n');
+
+    while (true) {
+      buffer.clear();
+      encoder.reset();
+      CoderResult result = encoder.encode(CharBuffer.wrap(line), buffer, true);
+      if (!result.isOverflow()) {
+        result = encoder.flush(buffer);
+      }
+      if (!result.isOverflow()) {
+        return buffer.flip();
+      }
+      buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+    }
+  }
+
+  private void rotate() throws IOException {
+    channel.force(false);
+    channel.close();
+    openNextSegment();
+  }
+
+  private void openNextSegment() throws IOException {
+    Path segment;
+    while (true) {
+      segmentNumber++;
+      segment =
+          directory.resolve(
+              String.format("%s%020d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+      try {
+        channel =
+            FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        break;
+      } catch (FileAlreadyExistsException e) {
+        // Not a segment of this journal, since the directory is locked; skip past it.
+        LOGGER.warnf("Skipping existing journal segment %s", segment);
+      }
+    }
+    segments.addLast(segment);
+    segmentBytes = 0;
+    LOGGER.debugf("Opened legacy store journal segment %s", segment);
+  }
+
+  // Deletes the oldest segments while there are more than keep, but only those the legacy system
+  // has read.
+  private void deleteConsumedSegments(int keep) throws IOException {
+    long consumed = consumedSegmentNumber();
+    while (segments.size() > keep && number(segments.peekFirst()) <= consumed) {
+      Files.deleteIfExists(segments.removeFirst());
+    }
+  }
+
+  // Number of the last segment the legacy system has fully read, 0 before it has read any.
+  private long consumedSegmentNumber() {
+    Path marker = directory.resolve(CONSUMED_FILE);
+    if (!Files.exists(marker)) {
+      return 0;
+    }
+    try {
+      return number(Path.of(Files.readString(marker, StandardCharsets.UTF_8).strip()));
+    } catch (IOException | RuntimeException e) {
+      // Treated as nothing read, which keeps every segment.
+      LOGGER.warnf(e, "Ignoring unreadable legacy store consumer marker %s", marker);
+      return 0;
+    }
+  }
+
+  private List<Path> existingSegments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(
+              file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+              })
+          .sorted()
+          .toList();
+    }
+  }
+
+  private static long number(Path segment) {
+    String name = segment.getFileName().toString();
+    return Long.parseLong(
+        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  private static void escapeInto(String name, StringBuilder line) {
+    if (name == null) {
+      return;
+    }
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c == '\\') {
+        line.append("\\\\");
+      } else if (c == '\n') {
+        line.append("\\n");
+      } else {
+        line.append(c);
+      }
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package com.fulfilment.application.monolith.stores;
+
+// The legacy system has fallen so far behind that the journal has no segment left it may delete.
+// Nothing was written; the change has to be offered again once the legacy system catches up.
+public class LegacyStoreJournalFullException extends IllegalStateException {
+
+  public LegacyStoreJournalFullException(String message) {
+    super(message);
+  }
+}
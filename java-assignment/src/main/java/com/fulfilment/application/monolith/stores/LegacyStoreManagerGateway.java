@@ -1,51 +1,109 @@
 package com.fulfilment.application.monolith.stores;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
-import java.nio.file.Files;
+import jakarta.inject.Inject;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
+// Hands store changes to the legacy system by appending them to the journal it picks up.
 @ApplicationScoped
 public class LegacyStoreManagerGateway {
 
-  public void createStoreOnLegacySystem(Store store) {
-    // just to emulate as this would send this to a legacy system, let's write a temp file with the
-    writeToFile(store);
-  }
+  private static final Logger LOGGER = Logger.getLogger(LegacyStoreManagerGateway.class.getName());
 
-  public void updateStoreOnLegacySystem(Store store) {
-    // just to emulate as this would send this to a legacy system, let's write a temp file with the
-    writeToFile(store);
-  }
+  static final int REMEMBERED_KEYS = 10_000;
 
-  private void writeToFile(Store store) {
-    try {
-      // Step 1: Create a temporary file
-      Path tempFile;
+  private final LegacyStoreJournal journal;
 
-      tempFile = Files.createTempFile(store.name, ".txt");
+  // Idempotency keys of the most recent changes applied, standing in for the deduplication the
+  // legacy system does on its side. A change that is relayed again after a crash carries the same
+  // key and is not applied twice.
+  private final Map<String, Boolean> appliedKeys =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+          return size() > REMEMBERED_KEYS;
+        }
+      };
 
-      System.out.println("Temporary file created at: " + tempFile.toString());
+  // Keys appended since the last flush, forgotten again if the flush fails so that the
+  // redelivered change is written.
+  private final List<String> unflushedKeys = new ArrayList<>();
 
-      // Step 2: Write data to the temporary file
-      String content =
-          "Store created. [ name ="
-              + store.name
-              + " ] [ items on stock ="
-              + store.quantityProductsInStock
-              + "]";
-      Files.write(tempFile, content.getBytes());
-      System.out.println("Data written to temporary file.");
+  @Inject
+  public LegacyStoreManagerGateway(
+      // Relative to the working directory and owned by one instance: a second instance started
+      // from the same directory fails to open the journal rather than share its segments.
+      @ConfigProperty(
+              name = "store.legacy-sync.journal.directory",
+              defaultValue = "legacy-store-journal")
+          String directory,
+      @ConfigProperty(name = "store.legacy-sync.journal.segment-size", defaultValue = "67108864")
+          long segmentSize,
+      @ConfigProperty(name = "store.legacy-sync.journal.max-segments", defaultValue = "8")
+          int maxSegments) {
+    this(new LegacyStoreJournal(Path.of(directory), segmentSize, maxSegments));
+  }
 
-      // Step 3: Optionally, read the data back to verify
-      String readContent = new String(Files.readAllBytes(tempFile));
-      System.out.println("Data read from temporary file: " + readContent);
+  LegacyStoreManagerGateway(LegacyStoreJournal journal) {
+    this.journal = journal;
+    for (String key : journal.recentKeys(REMEMBERED_KEYS)) {
+      appliedKeys.put(key, Boolean.TRUE);
+    }
+  }
+
+  // Returns false when the change had already been applied.
+  public boolean createStoreOnLegacySystem(Store store, String idempotencyKey) {
+    return append('C', store, idempotencyKey);
+  }
 
-      // Step 4: Delete the temporary file when done
-      Files.delete(tempFile);
-      System.out.println("Temporary file deleted.");
+  // Returns false when the change had already been applied.
+  public boolean updateStoreOnLegacySystem(Store store, String idempotencyKey) {
+    return append('U', store, idempotencyKey);
+  }
+
+  // Makes the changes handed over so far durable. A change counts as delivered only once this
+  // returns.
+  public void flush() {
+    int covered;
+    synchronized (this) {
+      covered = unflushedKeys.size();
+    }
+    try {
+      journal.flush();
+    } catch (UncheckedIOException e) {
+      synchronized (this) {
+        unflushedKeys.forEach(appliedKeys::remove);
+        unflushedKeys.clear();
+      }
+      throw e;
+    }
+    synchronized (this) {
+      unflushedKeys.subList(0, Math.min(covered, unflushedKeys.size())).clear();
+    }
+  }
+
+  @PreDestroy
+  void close() {
+    journal.close();
+  }
 
-    } catch (Exception e) {
-      e.printStackTrace();
+  private synchronized boolean append(char operation, Store store, String idempotencyKey) {
+    if (appliedKeys.containsKey(idempotencyKey)) {
+      LOGGER.debugf("Change %s to store %d was already applied", idempotencyKey, store.id);
+      return false;
     }
+    journal.append(idempotencyKey, operation, store);
+    appliedKeys.put(idempotencyKey, Boolean.TRUE);
+    unflushedKeys.add(idempotencyKey);
+    LOGGER.debugf("Journaled change %s to store %d", idempotencyKey, store.id);
+    return true;
   }
 }
@@ -0,0 +1,167 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.fulfilment.application.monolith.stores.adapters.database.DbStoreSyncOutbox;
+import com.fulfilment.application.monolith.stores.adapters.database.StoreSyncOutboxRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+// Sends the store changes recorded in the outbox to the legacy system. Every instance runs a
+// relay; claimed rows stay locked until the legacy system has them, so relays never send the same
+// change in parallel and a crash only means the change is sent again with the same idempotency
+// key.
+@ApplicationScoped
+public class LegacyStoreSyncRelay {
+
+  private static final Logger LOGGER = Logger.getLogger(LegacyStoreSyncRelay.class.getName());
+
+  private final StoreSyncOutboxRepository outbox;
+  private final LegacyStoreManagerGateway legacyStoreManagerGateway;
+  private final int batchSize;
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+
+  private final AtomicLong sent = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+  private final AtomicLong retried = new AtomicLong();
+
+  @Inject
+  public LegacyStoreSyncRelay(
+      StoreSyncOutboxRepository outbox,
+      LegacyStoreManagerGateway legacyStoreManagerGateway,
+      @ConfigProperty(name = "store.legacy-sync.batch-size", defaultValue = "100") int batchSize,
+      @ConfigProperty(name = "store.legacy-sync.max-attempts", defaultValue = "5") int maxAttempts,
+      @ConfigProperty(name = "store.legacy-sync.initial-backoff", defaultValue = "200ms")
+          Duration initialBackoff,
+      @ConfigProperty(name = "store.legacy-sync.max-backoff", defaultValue = "30s")
+          Duration maxBackoff) {
+    if (batchSize < 1 || maxAttempts < 1) {
+      throw new IllegalArgumentException(
+          "Legacy store sync batch size and attempts must be positive");
+    }
+    this.outbox = outbox;
+    this.legacyStoreManagerGateway = legacyStoreManagerGateway;
+    this.batchSize = batchSize;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+  }
+
+  // Keeps taking batches, each in its own transaction, until one comes back short.
+  @Scheduled(
+      every = "${store.legacy-sync.poll-interval:1s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void relay() {
+    int claimed;
+    do {
+      claimed = QuarkusTransaction.requiringNew().call(this::relayBatch);
+    } while (claimed == batchSize);
+  }
+
+  public LegacyStoreSyncStatistics statistics() {
+    LocalDateTime oldest = outbox.oldestPendingCreatedAt();
+    return new LegacyStoreSyncStatistics(
+        outbox.countPending(),
+        oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()),
+        sent.get(),
+        coalesced.get(),
+        retried.get(),
+        outbox.countFailed());
+  }
+
+  // Claims up to batchSize stores with a due change and sends each one's latest state. Must run
+  // in a transaction. Returns the number of stores claimed, or 0 when the journal was full.
+  int relayBatch() {
+    LocalDateTime now = LocalDateTime.now();
+    List<DbStoreSyncOutbox> heads = outbox.claimHeads(now, batchSize);
+    if (heads.isEmpty()) {
+      return 0;
+    }
+
+    Map<Long, List<DbStoreSyncOutbox>> changesByStore = new LinkedHashMap<>();
+    for (DbStoreSyncOutbox head : heads) {
+      changesByStore.put(head.storeId, new ArrayList<>());
+    }
+    for (DbStoreSyncOutbox change : outbox.listPendingForStores(changesByStore.keySet())) {
+      changesByStore.get(change.storeId).add(change);
+    }
+
+    List<Long> delivered = new ArrayList<>();
+    boolean journalFull = false;
+    for (List<DbStoreSyncOutbox> changes : changesByStore.values()) {
+      try {
+        send(changes);
+        sent.incrementAndGet();
+        coalesced.addAndGet(changes.size() - 1);
+        delivered.addAll(ids(changes));
+      } catch (LegacyStoreJournalFullException e) {
+        // Backpressure rather than a failed attempt: the remaining changes stay pending as they
+        // are and are offered again on the next poll.
+        LOGGER.warnf("Pausing legacy store sync: %s", e.getMessage());
+        journalFull = true;
+        break;
+      } catch (RuntimeException e) {
+        retryLater(changes, now, e);
+      }
+    }
+    if (!delivered.isEmpty()) {
+      // One fsync for the whole batch; a failure rolls the batch back for redelivery.
+      legacyStoreManagerGateway.flush();
+      outbox.acknowledge(delivered);
+    }
+    // Reported as a short batch so that relay() waits for the next poll.
+    return journalFull ? 0 : heads.size();
+  }
+
+  // Only the latest state of the store goes out. It is still a create when the legacy system
+  // has not seen the store yet.
+  private void send(List<DbStoreSyncOutbox> changes) {
+    DbStoreSyncOutbox latest = changes.get(changes.size() - 1);
+    boolean created =
+        changes.stream().anyMatch(c -> c.operation == DbStoreSyncOutbox.Operation.CREATE);
+    if (created) {
+      legacyStoreManagerGateway.createStoreOnLegacySystem(latest.toStore(), latest.idempotencyKey);
+    } else {
+      legacyStoreManagerGateway.updateStoreOnLegacySystem(latest.toStore(), latest.idempotencyKey);
+    }
+  }
+
+  private void retryLater(List<DbStoreSyncOutbox> changes, LocalDateTime now, RuntimeException e) {
+    DbStoreSyncOutbox head = changes.get(0);
+    int attempts = head.attempts + 1;
+    if (attempts >= maxAttempts) {
+      outbox.markFailed(ids(changes), attempts, now);
+      LOGGER.errorf(
+          e, "Giving up legacy sync of store %d after %d attempts", head.storeId, attempts);
+      return;
+    }
+
+    retried.incrementAndGet();
+    Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+    if (backoff.compareTo(maxBackoff) > 0) {
+      backoff = maxBackoff;
+    }
+    outbox.reschedule(ids(changes), attempts, now.plus(backoff));
+    LOGGER.warnf(
+        "Legacy sync of store %d failed (attempt %d), retrying in %d ms: %s",
+        head.storeId,
+        attempts,
+        backoff.toMillis(),
+        e.getMessage());
+  }
+
+  private static List<Long> ids(List<DbStoreSyncOutbox> changes) {
+    return changes.stream().map(c -> c.id).toList();
+  }
+}
@@ -0,0 +1,20 @@
+package com.fulfilment.application.monolith.stores;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+
+@Path("store-sync")
+@ApplicationScoped
+@Produces("application/json")
+public class LegacyStoreSyncResource {
+
+  @Inject LegacyStoreSyncRelay legacyStoreSyncRelay;
+
+  @GET
+  public LegacyStoreSyncStatistics statistics() {
+    return legacyStoreSyncRelay.statistics();
+  }
+}
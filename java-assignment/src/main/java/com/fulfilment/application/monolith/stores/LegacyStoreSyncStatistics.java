@@ -0,0 +1,32 @@
+package com.fulfilment.application.monolith.stores;
+
+public class LegacyStoreSyncStatistics {
+
+  // outbox rows waiting to be sent, across all instances
+  public final long queueDepth;
+
+  // age of the oldest waiting row, 0 when the outbox is empty
+  public final long oldestLagMillis;
+
+  // store states delivered to the legacy system by this instance
+  public final long sent;
+
+  // outbox rows folded into a later change of the same store by this instance
+  public final long coalesced;
+
+  // failed sends this instance scheduled again
+  public final long retried;
+
+  // outbox rows given up on after the last attempt, kept for replay
+  public final long failed;
+
+  public LegacyStoreSyncStatistics(
+      long queueDepth, long oldestLagMillis, long sent, long coalesced, long retried, long failed) {
+    this.queueDepth = queueDepth;
+    this.oldestLagMillis = oldestLagMillis;
+    this.sent = sent;
+    this.coalesced = coalesced;
+    this.retried = retried;
+    this.failed = failed;
+  }
+}
@@ -0,0 +1,25 @@
+package com.fulfilment.application.monolith.stores;
+
+public class StoreLifecycleEvent {
+
+  public enum Operation {
+    CREATE,
+    DELETE
+  }
+
+  public final Operation operation;
+  public final Long storeId;
+
+  private StoreLifecycleEvent(Operation operation, Long storeId) {
+    this.operation = operation;
+    this.storeId = storeId;
+  }
+
+  public static StoreLifecycleEvent created(Long storeId) {
+    return new StoreLifecycleEvent(Operation.CREATE, storeId);
+  }
+
+  public static StoreLifecycleEvent deleted(Long storeId) {
+    return new StoreLifecycleEvent(Operation.DELETE, storeId);
+  }
+}
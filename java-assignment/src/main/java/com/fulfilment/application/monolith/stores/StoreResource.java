@@ -1,6 +1,11 @@
 package com.fulfilment.application.monolith.stores;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.shared.adapters.restapi.FieldProjection;
+import com.fulfilment.application.monolith.shared.application.pagination.NameCursor;
+import com.fulfilment.application.monolith.stores.adapters.restapi.StoreImportReader;
 import com.fulfilment.application.monolith.stores.application.usecases.StoreUseCase;
+import com.fulfilment.application.monolith.stores.domain.models.StorePage;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
@@ -11,8 +16,13 @@ import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
 @Path("store")
 @ApplicationScoped
@@ -20,11 +30,34 @@ import java.util.List;
 @Consumes("application/json")
 public class StoreResource {
 
+  private static final FieldProjection<Store> PROJECTION =
+      new FieldProjection<>(
+          Map.of(
+              "id", store -> store.id,
+              "name", store -> store.name,
+              "quantityProductsInStock", store -> store.quantityProductsInStock));
+
   @Inject StoreUseCase storeUseCase;
+  @Inject ObjectMapper objectMapper;
+  @Context UriInfo uriInfo;
 
   @GET
-  public List<Store> get() {
-    return storeUseCase.list();
+  public Response get(
+      @QueryParam("namePrefix") String namePrefix,
+      @QueryParam("after") String after,
+      @QueryParam("limit") Integer limit,
+      @QueryParam("fields") String fields) {
+    List<String> selectedFields = PROJECTION.parse(fields);
+    StorePage page =
+        storeUseCase.list(namePrefix, after == null ? null : NameCursor.decode(after), limit);
+
+    Response.ResponseBuilder response = Response.ok(PROJECTION.apply(page.items, selectedFields));
+    if (page.next != null) {
+      response.link(
+          uriInfo.getRequestUriBuilder().replaceQueryParam("after", page.next.encode()).build(),
+          "next");
+    }
+    return response.build();
   }
 
   @GET
@@ -39,6 +72,19 @@ public class StoreResource {
     return Response.ok(store).status(201).build();
   }
 
+  @POST
+  @Path("bulk")
+  public Response createBulk(InputStream body) {
+    return created(storeUseCase.createAll(StoreImportReader.json(objectMapper, body)));
+  }
+
+  @POST
+  @Path("bulk")
+  @Consumes("text/csv")
+  public Response createBulkCsv(InputStream body) {
+    return created(storeUseCase.createAll(StoreImportReader.csv(body)));
+  }
+
   @PUT
   @Path("{id}")
   public Store update(Long id, Store updatedStore) {
@@ -57,4 +103,8 @@ public class StoreResource {
     storeUseCase.delete(id);
     return Response.status(204).build();
   }
+
+  private Response created(int count) {
+    return Response.status(201).entity(Map.of("created", count)).build();
+  }
 }
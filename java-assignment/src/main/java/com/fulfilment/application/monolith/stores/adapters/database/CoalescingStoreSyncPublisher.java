@@ -0,0 +1,121 @@
+package com.fulfilment.application.monolith.stores.adapters.database;
+
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.stores.domain.ports.StoreSyncPublisher;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.RollbackException;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.SystemException;
+import jakarta.transaction.Transaction;
+import jakarta.transaction.TransactionManager;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Collects the stores a transaction changes and writes one outbox row per store, with its final
+// state, just before the transaction commits. Intermediate states never reach the outbox, and no
+// snapshot is taken until then.
+@ApplicationScoped
+public class CoalescingStoreSyncPublisher implements StoreSyncPublisher {
+
+  private static final Object PENDING_KEY = CoalescingStoreSyncPublisher.class;
+
+  private final StoreSyncOutboxRepository outbox;
+  private final TransactionManager transactionManager;
+  private final TransactionSynchronizationRegistry synchronizationRegistry;
+
+  @Inject
+  public CoalescingStoreSyncPublisher(
+      StoreSyncOutboxRepository outbox,
+      TransactionManager transactionManager,
+      TransactionSynchronizationRegistry synchronizationRegistry) {
+    this.outbox = outbox;
+    this.transactionManager = transactionManager;
+    this.synchronizationRegistry = synchronizationRegistry;
+  }
+
+  @Override
+  public void publishCreated(Store store) {
+    pending().put(store, true);
+  }
+
+  @Override
+  public void publishUpdated(Store store) {
+    pending().put(store, false);
+  }
+
+  // A store created in bulk is written once and not changed again by the import, so there is
+  // nothing to coalesce. Its row is written and flushed now and then detached, leaving nothing
+  // behind for the commit.
+  @Override
+  public void publishCreatedAll(List<Store> stores) {
+    if (stores.isEmpty()) {
+      return;
+    }
+    List<DbStoreSyncOutbox> entries = new ArrayList<>(stores.size());
+    for (Store store : stores) {
+      entries.add(outbox.append(DbStoreSyncOutbox.Operation.CREATE, store));
+    }
+    outbox.flush();
+    entries.forEach(outbox.getEntityManager()::detach);
+  }
+
+  private PendingSyncs pending() {
+    PendingSyncs pending = (PendingSyncs) synchronizationRegistry.getResource(PENDING_KEY);
+    if (pending != null) {
+      return pending;
+    }
+    try {
+      Transaction transaction = transactionManager.getTransaction();
+      if (transaction == null) {
+        throw new IllegalStateException("Store changes must be published within a transaction");
+      }
+      pending = new PendingSyncs();
+      // Hibernate's own flush is a synchronization too, registered when the transaction first
+      // touched the persistence context, so it may well run before this one. The rows are
+      // therefore flushed here rather than left to it.
+      transaction.registerSynchronization(pending);
+      synchronizationRegistry.putResource(PENDING_KEY, pending);
+      return pending;
+    } catch (RollbackException | SystemException e) {
+      throw new IllegalStateException("Cannot publish store changes in this transaction", e);
+    }
+  }
+
+  private final class PendingSyncs implements Synchronization {
+
+    // Keyed by store id, in the order the stores were first changed.
+    private final Map<Long, Store> stores = new LinkedHashMap<>();
+    private final Set<Long> created = new HashSet<>();
+
+    private void put(Store store, boolean isCreate) {
+      stores.put(store.id, store);
+      // A store created in this transaction is still new to the legacy system after updates.
+      if (isCreate) {
+        created.add(store.id);
+      }
+    }
+
+    @Override
+    public void beforeCompletion() {
+      for (Store store : stores.values()) {
+        outbox.append(
+            created.contains(store.id)
+                ? DbStoreSyncOutbox.Operation.CREATE
+                : DbStoreSyncOutbox.Operation.UPDATE,
+            store);
+      }
+      if (!stores.isEmpty()) {
+        outbox.flush();
+      }
+    }
+
+    @Override
+    public void afterCompletion(int status) {}
+  }
+}
@@ -0,0 +1,65 @@
+package com.fulfilment.application.monolith.stores.adapters.database;
+
+import com.fulfilment.application.monolith.stores.Store;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+@Entity
+// One row per committed store change that the legacy system has not acknowledged yet. The
+// index serves the relay's "oldest pending row of each store" lookup.
+@Table(
+    name = "store_sync_outbox",
+    indexes = @Index(name = "idx_store_sync_outbox_store", columnList = "storeId, failedAt, id"))
+public class DbStoreSyncOutbox {
+
+  public enum Operation {
+    CREATE,
+    UPDATE
+  }
+
+  @Id @GeneratedValue public Long id;
+
+  // sent along with the change so that the legacy system can ignore a redelivery
+  @Column(nullable = false, unique = true, length = 36)
+  public String idempotencyKey;
+
+  @Column(nullable = false)
+  public Long storeId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 6)
+  public Operation operation;
+
+  @Column(length = 40)
+  public String name;
+
+  public int quantityProductsInStock;
+
+  @Column(nullable = false)
+  public LocalDateTime createdAt;
+
+  // not relayed before this time, pushed back after each failed attempt
+  @Column(nullable = false)
+  public LocalDateTime availableAt;
+
+  public int attempts;
+
+  // set when the relay gave up; the row is kept for inspection and replay
+  public LocalDateTime failedAt;
+
+  public DbStoreSyncOutbox() {}
+
+  public Store toStore() {
+    Store store = new Store(name);
+    store.id = storeId;
+    store.quantityProductsInStock = quantityProductsInStock;
+    return store;
+  }
+}
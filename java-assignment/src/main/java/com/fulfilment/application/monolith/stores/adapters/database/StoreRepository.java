@@ -1,23 +1,35 @@
 package com.fulfilment.application.monolith.stores.adapters.database;
 
+import com.fulfilment.application.monolith.shared.adapters.database.NameKeyset;
+import com.fulfilment.application.monolith.shared.application.pagination.NameCursor;
 import com.fulfilment.application.monolith.stores.Store;
 import com.fulfilment.application.monolith.stores.domain.ports.StoreStore;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
-import io.quarkus.panache.common.Sort;
+import io.quarkus.panache.common.Parameters;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.util.Collection;
 import java.util.List;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
 
 @ApplicationScoped
 public class StoreRepository implements PanacheRepository<Store>, StoreStore {
 
   @Override
-  public List<Store> listAllByName() {
-    return listAll(Sort.by("name"));
+  public List<Store> listPage(String namePrefix, NameCursor after, int limit) {
+    Parameters parameters = new Parameters();
+    return find(NameKeyset.where(namePrefix, after, parameters), NameKeyset.ORDER, parameters)
+        .withHint(HibernateHints.HINT_READ_ONLY, true)
+        .page(0, limit)
+        .list();
   }
 
   @Override
   public Store findById(Long id) {
-    return find("id", id).firstResult();
+    // An identity lookup goes through the persistence context and the second-level cache before
+    // it reaches the database, which a query on the id never does.
+    return getEntityManager().find(Store.class, id);
   }
 
   @Override
@@ -25,8 +37,41 @@ public class StoreRepository implements PanacheRepository<Store>, StoreStore {
     persist(store);
   }
 
+  @Override
+  public void createAll(List<Store> stores) {
+    Session session = getEntityManager().unwrap(Session.class);
+    // Imported stores are not read back in bulk, so they are not put into the entity cache.
+    CacheMode cacheMode = session.getCacheMode();
+    session.setCacheMode(CacheMode.IGNORE);
+    try {
+      persist(stores.stream());
+      flush();
+      for (Store store : stores) {
+        session.detach(store);
+      }
+    } finally {
+      session.setCacheMode(cacheMode);
+    }
+  }
+
+  @Override
+  public List<String> findExistingNames(Collection<String> names) {
+    if (names.isEmpty()) {
+      return List.of();
+    }
+    return getEntityManager()
+        .createQuery("select name from Store where name in ?1", String.class)
+        .setParameter(1, names)
+        .getResultList();
+  }
+
   @Override
   public void remove(Store store) {
-    delete("id", store.id);
+    // Removing the managed instance evicts just its cache entry, where a bulk delete would drop
+    // the whole region and leave a stale instance in the persistence context.
+    Store managed = findById(store.id);
+    if (managed != null) {
+      delete(managed);
+    }
   }
 }
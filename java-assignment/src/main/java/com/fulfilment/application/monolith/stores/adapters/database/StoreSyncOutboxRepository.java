@@ -0,0 +1,79 @@
+package com.fulfilment.application.monolith.stores.adapters.database;
+
+import com.fulfilment.application.monolith.stores.Store;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.hibernate.LockOptions;
+import org.hibernate.jpa.SpecHints;
+
+// Writes store changes to the outbox in the caller's transaction, so a change is recorded for the
+// legacy system exactly when the store write commits, and serves the relay that drains it.
+@ApplicationScoped
+public class StoreSyncOutboxRepository implements PanacheRepository<DbStoreSyncOutbox> {
+
+  // Locks the oldest pending row of up to limit stores, skipping rows another relay holds. Only
+  // a store's oldest row can be claimed, so the later rows of a claimed store stay with the relay
+  // that claimed it and changes to one store are never sent out of order.
+  public List<DbStoreSyncOutbox> claimHeads(LocalDateTime now, int limit) {
+    return find(
+            "from DbStoreSyncOutbox o where o.failedAt is null and o.availableAt <= ?1"
+                + " and o.id = (select min(h.id) from DbStoreSyncOutbox h"
+                + " where h.storeId = o.storeId and h.failedAt is null) order by o.id",
+            now)
+        .withLock(LockModeType.PESSIMISTIC_WRITE)
+        .withHint(SpecHints.HINT_SPEC_LOCK_TIMEOUT, LockOptions.SKIP_LOCKED)
+        .page(0, limit)
+        .list();
+  }
+
+  public List<DbStoreSyncOutbox> listPendingForStores(Collection<Long> storeIds) {
+    return list("storeId in ?1 and failedAt is null order by id", storeIds);
+  }
+
+  public void acknowledge(Collection<Long> ids) {
+    delete("id in ?1", ids);
+  }
+
+  public void reschedule(Collection<Long> ids, int attempts, LocalDateTime availableAt) {
+    update("attempts = ?1, availableAt = ?2 where id in ?3", attempts, availableAt, ids);
+  }
+
+  public void markFailed(Collection<Long> ids, int attempts, LocalDateTime failedAt) {
+    update("attempts = ?1, failedAt = ?2 where id in ?3", attempts, failedAt, ids);
+  }
+
+  public long countPending() {
+    return count("failedAt is null");
+  }
+
+  public long countFailed() {
+    return count("failedAt is not null");
+  }
+
+  public LocalDateTime oldestPendingCreatedAt() {
+    return getEntityManager()
+        .createQuery(
+            "select min(createdAt) from DbStoreSyncOutbox where failedAt is null",
+            LocalDateTime.class)
+        .getSingleResult();
+  }
+
+  public DbStoreSyncOutbox append(DbStoreSyncOutbox.Operation operation, Store store) {
+    LocalDateTime now = LocalDateTime.now();
+    DbStoreSyncOutbox entry = new DbStoreSyncOutbox();
+    entry.idempotencyKey = UUID.randomUUID().toString();
+    entry.storeId = store.id;
+    entry.operation = operation;
+    entry.name = store.name;
+    entry.quantityProductsInStock = store.quantityProductsInStock;
+    entry.createdAt = now;
+    entry.availableAt = now;
+    persist(entry);
+    return entry;
+  }
+}
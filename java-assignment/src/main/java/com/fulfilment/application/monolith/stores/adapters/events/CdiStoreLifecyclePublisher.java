@@ -0,0 +1,24 @@
+package com.fulfilment.application.monolith.stores.adapters.events;
+
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.stores.StoreLifecycleEvent;
+import com.fulfilment.application.monolith.stores.domain.ports.StoreLifecyclePublisher;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+
+@ApplicationScoped
+public class CdiStoreLifecyclePublisher implements StoreLifecyclePublisher {
+
+  @Inject Event<StoreLifecycleEvent> storeLifecycleEvents;
+
+  @Override
+  public void publishCreated(Store store) {
+    storeLifecycleEvents.fire(StoreLifecycleEvent.created(store.id));
+  }
+
+  @Override
+  public void publishDeleted(Store store) {
+    storeLifecycleEvents.fire(StoreLifecycleEvent.deleted(store.id));
+  }
+}
@@ -0,0 +1,154 @@
+package com.fulfilment.application.monolith.stores.adapters.restapi;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.shared.application.exceptions.BadRequestException;
+import com.fulfilment.application.monolith.stores.Store;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Reads an import body one store at a time, so that a large import is never held in memory as a
+// whole. Malformed input surfaces as a BadRequestException from next().
+public final class StoreImportReader {
+
+  static final String CSV_HEADER = "name,quantityProductsInStock";
+
+  private StoreImportReader() {}
+
+  // A JSON array of store objects.
+  public static Iterator<Store> json(ObjectMapper objectMapper, InputStream body) {
+    try {
+      JsonParser parser = objectMapper.createParser(body);
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new BadRequestException("Expected a JSON array of stores.");
+      }
+      return new LookaheadIterator() {
+        @Override
+        Store read() throws IOException {
+          JsonToken token = parser.nextToken();
+          if (token == JsonToken.END_ARRAY) {
+            return null;
+          }
+          if (token != JsonToken.START_OBJECT) {
+            throw new BadRequestException("Expected a store object at " + location(parser));
+          }
+          return parser.readValueAs(Store.class);
+        }
+      };
+    } catch (IOException e) {
+      throw new BadRequestException("Malformed import: " + e.getMessage());
+    }
+  }
+
+  // CSV with the columns name and quantityProductsInStock, optionally preceded by that header.
+  // Fields may be quoted, with quotes inside doubled.
+  public static Iterator<Store> csv(InputStream body) {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    return new LookaheadIterator() {
+      private int lineNumber;
+
+      @Override
+      Store read() throws IOException {
+        String line;
+        do {
+          line = reader.readLine();
+          lineNumber++;
+          if (line == null) {
+            return null;
+          }
+        } while (line.isBlank() || (lineNumber == 1 && isHeader(line)));
+
+        List<String> fields = split(line, lineNumber);
+        if (fields.size() != 2) {
+          throw new BadRequestException("Expected 2 fields on line " + lineNumber + ".");
+        }
+        Store store = new Store(fields.get(0).isEmpty() ? null : fields.get(0));
+        try {
+          store.quantityProductsInStock = Integer.parseInt(fields.get(1).trim());
+        } catch (NumberFormatException e) {
+          throw new BadRequestException(
+              "Invalid quantityProductsInStock on line " + lineNumber + ".");
+        }
+        return store;
+      }
+    };
+  }
+
+  private static boolean isHeader(String line) {
+    return line.replace("\"", "").replace(" ", "").equalsIgnoreCase(CSV_HEADER);
+  }
+
+  private static List<String> split(String line, int lineNumber) {
+    List<String> fields = new ArrayList<>(2);
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          field.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    if (quoted) {
+      throw new BadRequestException("Unterminated quote on line " + lineNumber + ".");
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+
+  private static String location(JsonParser parser) {
+    return "line " + parser.currentLocation().getLineNr();
+  }
+
+  private abstract static class LookaheadIterator implements Iterator<Store> {
+    private Store next;
+    private boolean done;
+
+    // The next store, or null at the end of the input.
+    abstract Store read() throws IOException;
+
+    @Override
+    public boolean hasNext() {
+      if (next == null && !done) {
+        try {
+          next = read();
+        } catch (IOException e) {
+          throw new BadRequestException("Malformed import: " + e.getMessage());
+        }
+        done = next == null;
+      }
+      return next != null;
+    }
+
+    @Override
+    public Store next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Store store = next;
+      next = null;
+      return store;
+    }
+  }
+}
@@ -1,27 +1,65 @@
 package com.fulfilment.application.monolith.stores.application.usecases;
 
+import com.fulfilment.application.monolith.shared.application.exceptions.ConflictException;
 import com.fulfilment.application.monolith.shared.application.exceptions.NotFoundException;
+import com.fulfilment.application.monolith.shared.application.exceptions.PartiallyAppliedException;
 import com.fulfilment.application.monolith.shared.application.exceptions.UnprocessableEntityException;
+import com.fulfilment.application.monolith.shared.application.pagination.NameCursor;
 import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.stores.domain.models.StorePage;
+import com.fulfilment.application.monolith.stores.domain.ports.StoreLifecyclePublisher;
 import com.fulfilment.application.monolith.stores.domain.ports.StoreStore;
 import com.fulfilment.application.monolith.stores.domain.ports.StoreSyncPublisher;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 @ApplicationScoped
 public class StoreUseCase {
 
+  static final int MAX_PAGE_SIZE = 1_000;
+
   private final StoreStore storeStore;
   private final StoreSyncPublisher storeSyncPublisher;
-
-  public StoreUseCase(StoreStore storeStore, StoreSyncPublisher storeSyncPublisher) {
+  private final StoreLifecyclePublisher storeLifecyclePublisher;
+  private final int unpaginatedLimit;
+  private final int importChunkSize;
+
+  public StoreUseCase(
+      StoreStore storeStore,
+      StoreSyncPublisher storeSyncPublisher,
+      StoreLifecyclePublisher storeLifecyclePublisher,
+      @ConfigProperty(name = "store.list.max-results", defaultValue = "1000") int unpaginatedLimit,
+      @ConfigProperty(name = "store.import.chunk-size", defaultValue = "1000") int importChunkSize) {
     this.storeStore = storeStore;
     this.storeSyncPublisher = storeSyncPublisher;
+    this.storeLifecyclePublisher = storeLifecyclePublisher;
+    this.unpaginatedLimit = unpaginatedLimit;
+    this.importChunkSize = importChunkSize;
   }
 
-  public List<Store> list() {
-    return storeStore.listAllByName();
+  public StorePage list(String namePrefix, NameCursor after, Integer limit) {
+    // Without a limit the caller gets the first unpaginatedLimit stores and a cursor for the rest,
+    // never the whole table.
+    int pageSize = limit == null ? unpaginatedLimit : limit;
+    if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+      throw new UnprocessableEntityException(
+          "limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+    }
+
+    List<Store> rows = storeStore.listPage(namePrefix, after, pageSize + 1);
+    if (rows.size() <= pageSize) {
+      return new StorePage(rows, null);
+    }
+    List<Store> items = rows.subList(0, pageSize);
+    Store last = items.get(pageSize - 1);
+    return new StorePage(items, new NameCursor(last.name, last.id));
   }
 
   public Store getSingle(Long id) {
@@ -40,9 +78,68 @@ public class StoreUseCase {
 
     storeStore.create(store);
     storeSyncPublisher.publishCreated(store);
+    storeLifecyclePublisher.publishCreated(store);
     return store;
   }
 
+  // Creates the stores a chunk at a time: each chunk is checked for taken names with one query,
+  // inserted in JDBC batches, recorded for the legacy system as a whole and committed in its own
+  // transaction, so that an import of any size stays within the transaction timeout. A failure
+  // keeps the chunks already committed and reports how many stores they hold, so the rest can be
+  // imported again. No lifecycle event is fired per store; the store lookups learn the new ids on
+  // first use instead. Returns the number of stores created.
+  public int createAll(Iterator<Store> stores) {
+    Set<String> names = new HashSet<>();
+    List<Store> chunk = new ArrayList<>(importChunkSize);
+    int created = 0;
+    try {
+      while (stores.hasNext()) {
+        Store store = stores.next();
+        if (store.id != null) {
+          throw new UnprocessableEntityException(
+              "Id was invalidly set on store " + (created + chunk.size() + 1) + ".");
+        }
+        if (store.name != null && !names.add(store.name)) {
+          throw new UnprocessableEntityException(
+              "Store name " + store.name + " appears more than once.");
+        }
+        chunk.add(store);
+        if (chunk.size() == importChunkSize) {
+          created += createChunk(chunk);
+          chunk = new ArrayList<>(importChunkSize);
+        }
+      }
+      if (!chunk.isEmpty()) {
+        created += createChunk(chunk);
+      }
+    } catch (RuntimeException e) {
+      if (created == 0) {
+        throw e;
+      }
+      throw new PartiallyAppliedException(
+          (e.getMessage() == null ? "Import failed." : e.getMessage())
+              + " "
+              + created
+              + " stores were created before the failure.",
+          e);
+    }
+    return created;
+  }
+
+  // Not private, so that the call from createAll goes through the transaction interceptor.
+  @Transactional(Transactional.TxType.REQUIRES_NEW)
+  int createChunk(List<Store> chunk) {
+    List<String> names = chunk.stream().map(store -> store.name).filter(Objects::nonNull).toList();
+    List<String> taken = storeStore.findExistingNames(names);
+    if (!taken.isEmpty()) {
+      throw new ConflictException("Store names already exist: " + String.join(", ", taken));
+    }
+
+    storeStore.createAll(chunk);
+    storeSyncPublisher.publishCreatedAll(chunk);
+    return chunk.size();
+  }
+
   @Transactional
   public Store update(Long id, Store updatedStore) {
     if (updatedStore.name == null) {
@@ -93,5 +190,6 @@ public class StoreUseCase {
       throw new NotFoundException("Store with id of " + id + " does not exist.");
     }
     storeStore.remove(entity);
+    storeLifecyclePublisher.publishDeleted(entity);
   }
 }
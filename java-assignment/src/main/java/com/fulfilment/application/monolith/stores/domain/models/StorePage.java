@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.stores.domain.models;
+
+import com.fulfilment.application.monolith.shared.application.pagination.NameCursor;
+import com.fulfilment.application.monolith.stores.Store;
+import java.util.List;
+
+public class StorePage {
+
+  public final List<Store> items;
+
+  // position to continue from, null on the last page
+  public final NameCursor next;
+
+  public StorePage(List<Store> items, NameCursor next) {
+    this.items = items;
+    this.next = next;
+  }
+}
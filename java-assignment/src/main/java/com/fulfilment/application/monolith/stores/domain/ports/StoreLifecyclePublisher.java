@@ -0,0 +1,10 @@
+package com.fulfilment.application.monolith.stores.domain.ports;
+
+import com.fulfilment.application.monolith.stores.Store;
+
+public interface StoreLifecyclePublisher {
+
+  void publishCreated(Store store);
+
+  void publishDeleted(Store store);
+}
@@ -1,15 +1,25 @@
 package com.fulfilment.application.monolith.stores.domain.ports;
 
 import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.shared.application.pagination.NameCursor;
+import java.util.Collection;
 import java.util.List;
 
 public interface StoreStore {
 
-  List<Store> listAllByName();
+  // Up to limit stores in name order, nulls last, then id, starting after the cursor.
+  List<Store> listPage(String namePrefix, NameCursor after, int limit);
 
   Store findById(Long id);
 
   void create(Store store);
 
+  // Persists the stores in JDBC batches and detaches them afterwards, so that an import does not
+  // grow the persistence context with every chunk.
+  void createAll(List<Store> stores);
+
+  // Those of the given names that a store already has.
+  List<String> findExistingNames(Collection<String> names);
+
   void remove(Store store);
 }
@@ -1,10 +1,15 @@
 package com.fulfilment.application.monolith.stores.domain.ports;
 
 import com.fulfilment.application.monolith.stores.Store;
+import java.util.List;
 
 public interface StoreSyncPublisher {
 
   void publishCreated(Store store);
 
+  // Records stores created in bulk right away, rather than holding them until the commit the way
+  // single changes are, so that an import does not keep every store it has created.
+  void publishCreatedAll(List<Store> stores);
+
   void publishUpdated(Store store);
 }
@@ -0,0 +1,25 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Running totals of the active warehouses per location, kept in step with the warehouse table
+// by WarehouseRepository in the same transaction as every change.
+@Entity
+@Table(name = "location_occupancy")
+public class DbLocationOccupancy {
+
+  @Id public String location;
+
+  public long warehouses;
+
+  public long capacity;
+
+  public DbLocationOccupancy() {}
+
+  public LocationOccupancy toLocationOccupancy() {
+    return new LocationOccupancy(warehouses, capacity);
+  }
+}
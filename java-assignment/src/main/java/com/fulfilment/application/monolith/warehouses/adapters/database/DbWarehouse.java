@@ -6,9 +6,12 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
 
 @Entity
+// The live network only: archived generations move to DbWarehouseHistory. Lookups go through
+// partial indexes over the active rows, created in import.sql since JPA cannot declare them.
 @Table(name = "warehouse")
 @Cacheable
 public class DbWarehouse {
@@ -27,6 +30,10 @@ public class DbWarehouse {
 
   public LocalDateTime archivedAt;
 
+  // Revision of the business unit rather than of this row: a replacement starts from the revision
+  // of the generation it replaces plus one, so a writer holding an older generation is refused.
+  @Version public Long version;
+
   public DbWarehouse() {}
 
   public Warehouse toWarehouse() {
@@ -37,6 +44,7 @@ public class DbWarehouse {
     warehouse.stock = this.stock;
     warehouse.createdAt = this.createdAt;
     warehouse.archivedAt = this.archivedAt;
+    warehouse.version = this.version;
     return warehouse;
   }
 }
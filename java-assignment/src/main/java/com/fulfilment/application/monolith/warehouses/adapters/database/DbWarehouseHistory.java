@@ -0,0 +1,49 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+// Archived warehouse generations, moved out of the warehouse table so that it only ever holds
+// the live network. A row keeps the id it had there. Only WarehouseRepository writes here, when a
+// warehouse is archived, and the compaction job, for rows archived outside the application.
+@Entity
+@Table(
+    name = "warehouse_history",
+    indexes = {
+      @Index(
+          name = "idx_warehouse_history_business_unit_code",
+          columnList = "businessUnitCode, createdAt")
+    })
+public class DbWarehouseHistory {
+
+  @Id public Long id;
+
+  public String businessUnitCode;
+
+  public String location;
+
+  public Integer capacity;
+
+  public Integer stock;
+
+  public LocalDateTime createdAt;
+
+  public LocalDateTime archivedAt;
+
+  public DbWarehouseHistory() {}
+
+  static DbWarehouseHistory of(DbWarehouse archived) {
+    var history = new DbWarehouseHistory();
+    history.id = archived.id;
+    history.businessUnitCode = archived.businessUnitCode;
+    history.location = archived.location;
+    history.capacity = archived.capacity;
+    history.stock = archived.stock;
+    history.createdAt = archived.createdAt;
+    history.archivedAt = archived.archivedAt;
+    return history;
+  }
+}
@@ -0,0 +1,61 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+public class WarehouseCacheStatistics {
+
+  // false when quarkus.hibernate-orm.statistics is off, in which case every counter stays 0
+  public final boolean enabled;
+
+  // DbWarehouse entity region, holding the rows
+  public final RegionCounters entities;
+
+  // active-lookup query region, holding the ids matched by business unit code or id
+  public final RegionCounters lookups;
+
+  public WarehouseCacheStatistics(
+      boolean enabled, RegionCounters entities, RegionCounters lookups) {
+    this.enabled = enabled;
+    this.entities = entities;
+    this.lookups = lookups;
+  }
+
+  public static WarehouseCacheStatistics from(Statistics statistics) {
+    return new WarehouseCacheStatistics(
+        statistics.isStatisticsEnabled(),
+        RegionCounters.from(statistics.getDomainDataRegionStatistics(DbWarehouse.class.getName())),
+        RegionCounters.from(
+            statistics.getQueryRegionStatistics(WarehouseRepository.ACTIVE_LOOKUP_REGION)));
+  }
+
+  public static class RegionCounters {
+
+    public final long hits;
+
+    public final long misses;
+
+    public final long puts;
+
+    public final long elementsInMemory;
+
+    public RegionCounters(long hits, long misses, long puts, long elementsInMemory) {
+      this.hits = hits;
+      this.misses = misses;
+      this.puts = puts;
+      this.elementsInMemory = elementsInMemory;
+    }
+
+    // Regions are created on first use, so there is nothing to report before that.
+    static RegionCounters from(CacheRegionStatistics region) {
+      if (region == null) {
+        return new RegionCounters(0, 0, 0, 0);
+      }
+      return new RegionCounters(
+          region.getHitCount(),
+          region.getMissCount(),
+          region.getPutCount(),
+          Math.max(0, region.getElementCountInMemory()));
+    }
+  }
+}
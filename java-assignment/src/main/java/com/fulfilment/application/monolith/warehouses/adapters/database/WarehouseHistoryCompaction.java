@@ -0,0 +1,52 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+// Archiving through the application already moves a warehouse into the history table. This job
+// sweeps up archived rows that reached the live table some other way, so that it keeps holding
+// the live network only. Rows are locked with SKIP LOCKED, so instances can run it side by side.
+@ApplicationScoped
+public class WarehouseHistoryCompaction {
+
+  private static final Logger LOGGER = Logger.getLogger(WarehouseHistoryCompaction.class.getName());
+
+  private final WarehouseHistoryRepository warehouseHistoryRepository;
+  private final int batchSize;
+
+  @Inject
+  public WarehouseHistoryCompaction(
+      WarehouseHistoryRepository warehouseHistoryRepository,
+      @ConfigProperty(name = "warehouse.history.compaction-batch-size", defaultValue = "1000")
+          int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException(
+          "Warehouse history compaction batch size must be positive");
+    }
+    this.warehouseHistoryRepository = warehouseHistoryRepository;
+    this.batchSize = batchSize;
+  }
+
+  // Keeps moving batches, each in its own transaction, until one comes back short.
+  @Scheduled(
+      every = "${warehouse.history.compaction-interval:5m}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void compact() {
+    long total = 0;
+    int moved;
+    do {
+      moved =
+          QuarkusTransaction.requiringNew()
+              .call(() -> warehouseHistoryRepository.compactArchived(batchSize));
+      total += moved;
+    } while (moved == batchSize);
+
+    if (total > 0) {
+      LOGGER.infof("Moved %d archived warehouses to the history table", total);
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseHistoryCursor;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseHistoryPage;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseHistoryStore;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.hibernate.query.NativeQuery;
+
+@ApplicationScoped
+public class WarehouseHistoryRepository
+    implements WarehouseHistoryStore, PanacheRepository<DbWarehouseHistory> {
+
+  // Rows loaded without a creation time sort as the newest, as they do in the queries below.
+  private static final Comparator<Object[]> NEWEST_FIRST =
+      Comparator.<Object[], LocalDateTime>comparing(
+              row -> (LocalDateTime) row[4], Comparator.nullsLast(Comparator.naturalOrder()))
+          .thenComparing(row -> (Long) row[6])
+          .reversed();
+
+  @Override
+  public WarehouseHistoryPage history(String buCode, WarehouseHistoryCursor after, int limit) {
+    // The active generation comes from the live table through its partial index, the archived
+    // ones from the (businessUnitCode, createdAt) index here, walked backwards. Each side is read
+    // one row past the page, which tells whether there is a next page without a count query.
+    List<Object[]> rows =
+        new ArrayList<>(
+            generations("DbWarehouse", " and archivedAt is null", buCode, after, limit + 1));
+    rows.addAll(generations("DbWarehouseHistory", "", buCode, after, limit + 1));
+    rows.sort(NEWEST_FIRST);
+
+    List<Warehouse> items = new ArrayList<>(Math.min(rows.size(), limit));
+    for (Object[] row : rows.subList(0, Math.min(rows.size(), limit))) {
+      var warehouse = new Warehouse();
+      warehouse.businessUnitCode = (String) row[0];
+      warehouse.location = (String) row[1];
+      warehouse.capacity = (Integer) row[2];
+      warehouse.stock = (Integer) row[3];
+      warehouse.createdAt = (LocalDateTime) row[4];
+      warehouse.archivedAt = (LocalDateTime) row[5];
+      items.add(warehouse);
+    }
+    if (rows.size() <= limit) {
+      return new WarehouseHistoryPage(items, null);
+    }
+    Object[] last = rows.get(limit - 1);
+    return new WarehouseHistoryPage(
+        items, new WarehouseHistoryCursor((LocalDateTime) last[4], (Long) last[6]));
+  }
+
+  // Moves up to limit archived rows still in the live table, such as rows archived by loads that
+  // bypass the application, into the history table. Returns the number of rows moved.
+  public int compactArchived(int limit) {
+    return getEntityManager()
+        .createNativeQuery(
+            "with moved as ("
+                + "delete from warehouse where id in (select id from warehouse "
+                + "where archivedAt is not null limit :limit for update skip locked) "
+                + "returning id, businessUnitCode, location, capacity, stock, createdAt, "
+                + "archivedAt) "
+                + "insert into warehouse_history "
+                + "(id, businessUnitCode, location, capacity, stock, createdAt, archivedAt) "
+                + "select id, businessUnitCode, location, capacity, stock, createdAt, archivedAt "
+                + "from moved")
+        .unwrap(NativeQuery.class)
+        // Only the two warehouse tables change; without declared query spaces Hibernate would
+        // evict every second-level cache region.
+        .addSynchronizedEntityClass(DbWarehouse.class)
+        .addSynchronizedEntityClass(DbWarehouseHistory.class)
+        .setParameter("limit", limit)
+        .executeUpdate();
+  }
+
+  private List<Object[]> generations(
+      String entity, String condition, String buCode, WarehouseHistoryCursor after, int limit) {
+    String position = "";
+    if (after != null) {
+      position =
+          after.createdAt == null
+              ? " and (createdAt is not null or id < :afterId)"
+              : " and (createdAt < :afterCreatedAt"
+                  + " or (createdAt = :afterCreatedAt and id < :afterId))";
+    }
+    TypedQuery<Object[]> query =
+        getEntityManager()
+            .createQuery(
+                "select businessUnitCode, location, capacity, stock, createdAt, archivedAt, id "
+                    + "from "
+                    + entity
+                    + " where businessUnitCode = :buCode"
+                    + condition
+                    + position
+                    + " order by createdAt desc nulls first, id desc",
+                Object[].class)
+            .setParameter("buCode", buCode)
+            .setMaxResults(limit);
+    if (after != null) {
+      query.setParameter("afterId", after.id);
+      if (after.createdAt != null) {
+        query.setParameter("afterCreatedAt", after.createdAt);
+      }
+    }
+    return query.getResultList();
+  }
+}
@@ -1,31 +1,142 @@
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
-import java.util.NoSuchElementException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
 
 @ApplicationScoped
 public class WarehouseRepository implements WarehouseStore, PanacheRepository<DbWarehouse> {
 
+  // Query cache region for the active-warehouse lookups. It only holds ids, the rows come from
+  // the DbWarehouse entity region, and Hibernate drops its entries whenever the warehouse table
+  // is written, so archiving or replacing a warehouse is never served stale.
+  public static final String ACTIVE_LOOKUP_REGION = "warehouse-active-lookup";
+
+  // Partial unique index from import.sql: at most one active warehouse per business unit code.
+  static final String ACTIVE_BUSINESS_UNIT_CODE_INDEX = "idx_warehouse_active_business_unit_code";
+
+  static final int CODE_LOOKUP_CHUNK = 1_000;
+  private static final int STREAM_FETCH_SIZE = 10_000;
+
   @Override
   public List<Warehouse> getAll() {
     return find("archivedAt is null").list().stream().map(DbWarehouse::toWarehouse).toList();
   }
 
+  @Override
+  public List<Warehouse> listActive(String location, String after, int limit) {
+    return activeRows(location, after)
+        .setMaxResults(limit)
+        .getResultStream()
+        .map(WarehouseRepository::fromRow)
+        .toList();
+  }
+
+  @Override
+  public void forEachActive(String location, String after, Consumer<Warehouse> consumer) {
+    // Columns instead of entities keep the rows out of the persistence context and the
+    // second-level cache, so together with the cursor fetch size the heap stays flat however many
+    // warehouses there are.
+    try (Stream<Object[]> rows =
+        activeRows(location, after)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultStream()) {
+      rows.forEach(row -> consumer.accept(fromRow(row)));
+    }
+  }
+
+  private TypedQuery<Object[]> activeRows(String location, String after) {
+    StringBuilder query =
+        new StringBuilder(
+            "select businessUnitCode, location, capacity, stock from DbWarehouse "
+                + "where archivedAt is null");
+    if (location != null) {
+      query.append(" and location = :location");
+    }
+    if (after != null) {
+      query.append(" and businessUnitCode > :after");
+    }
+    query.append(" order by businessUnitCode");
+
+    TypedQuery<Object[]> rows = getEntityManager().createQuery(query.toString(), Object[].class);
+    if (location != null) {
+      rows.setParameter("location", location);
+    }
+    if (after != null) {
+      rows.setParameter("after", after);
+    }
+    return rows;
+  }
+
+  private static Warehouse fromRow(Object[] row) {
+    var warehouse = new Warehouse();
+    warehouse.businessUnitCode = (String) row[0];
+    warehouse.location = (String) row[1];
+    warehouse.capacity = (Integer) row[2];
+    warehouse.stock = (Integer) row[3];
+    return warehouse;
+  }
+
   @Override
   public void create(Warehouse warehouse) {
-    var dbWarehouse = new DbWarehouse();
-    dbWarehouse.businessUnitCode = warehouse.businessUnitCode;
-    dbWarehouse.location = warehouse.location;
-    dbWarehouse.capacity = warehouse.capacity;
-    dbWarehouse.stock = warehouse.stock;
-    dbWarehouse.createdAt = warehouse.createdAt;
-    dbWarehouse.archivedAt = warehouse.archivedAt;
+    var dbWarehouse = toDbWarehouse(warehouse);
 
+    if (dbWarehouse.archivedAt == null) {
+      adjustOccupancy(dbWarehouse.location, 1, capacityOf(dbWarehouse));
+    }
     persist(dbWarehouse);
+    warehouse.version = dbWarehouse.version;
+    if (dbWarehouse.archivedAt != null) {
+      moveToHistory(dbWarehouse);
+    } else {
+      // A second active warehouse for the business unit fails here rather than at commit.
+      flush();
+    }
+  }
+
+  @Override
+  public void createAll(List<Warehouse> warehouses) {
+    // One occupancy adjustment per location, taken in name order like update does.
+    Map<String, long[]> deltas = new TreeMap<>();
+    for (Warehouse warehouse : warehouses) {
+      if (warehouse.archivedAt == null) {
+        long[] delta = deltas.computeIfAbsent(warehouse.location, location -> new long[2]);
+        delta[0] += 1;
+        delta[1] += warehouse.capacity == null ? 0 : warehouse.capacity;
+      }
+    }
+    deltas.forEach((location, delta) -> adjustOccupancy(location, delta[0], delta[1]));
+
+    for (Warehouse warehouse : warehouses) {
+      var dbWarehouse = toDbWarehouse(warehouse);
+      persist(dbWarehouse);
+      if (dbWarehouse.archivedAt != null) {
+        moveToHistory(dbWarehouse);
+      }
+    }
+    // As in create, a business unit code another batch made active first fails here, where the
+    // caller can still tell it apart, rather than at commit.
+    flush();
   }
 
   @Override
@@ -37,12 +148,56 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
                 () ->
                     new NoSuchElementException(
                         "Warehouse not found: " + warehouse.businessUnitCode));
+    if (!Objects.equals(dbWarehouse.version, warehouse.version)) {
+      throw new OptimisticLockException(
+          "Warehouse was changed concurrently: " + warehouse.businessUnitCode);
+    }
+
+    // Both sides of the change are applied per location, taking the row locks in name order so
+    // that concurrent moves between two locations cannot deadlock.
+    Map<String, long[]> deltas = new TreeMap<>();
+    deltas.computeIfAbsent(dbWarehouse.location, location -> new long[2])[0] -= 1;
+    deltas.get(dbWarehouse.location)[1] -= capacityOf(dbWarehouse);
+    if (warehouse.archivedAt == null) {
+      long[] delta = deltas.computeIfAbsent(warehouse.location, location -> new long[2]);
+      delta[0] += 1;
+      delta[1] += warehouse.capacity == null ? 0 : warehouse.capacity;
+    }
+    deltas.forEach(
+        (location, delta) -> {
+          if (delta[0] != 0 || delta[1] != 0) {
+            adjustOccupancy(location, delta[0], delta[1]);
+          }
+        });
 
     dbWarehouse.location = warehouse.location;
     dbWarehouse.capacity = warehouse.capacity;
     dbWarehouse.stock = warehouse.stock;
     dbWarehouse.createdAt = warehouse.createdAt;
     dbWarehouse.archivedAt = warehouse.archivedAt;
+
+    if (dbWarehouse.archivedAt != null) {
+      moveToHistory(dbWarehouse);
+      // Hibernate would otherwise insert a replacement before deleting this row, which the unique
+      // index on active business unit codes refuses. A concurrent writer that got here first
+      // makes the versioned delete fail now, as an OptimisticLockException.
+      flush();
+    }
+  }
+
+  // Whether a write failed only because another transaction changed the same business unit
+  // first, so that it may be retried from a fresh read.
+  public static boolean isConcurrentModification(Throwable failure) {
+    for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+      if (cause instanceof OptimisticLockException || cause instanceof StaleStateException) {
+        return true;
+      }
+      if (cause instanceof ConstraintViolationException violation
+          && ACTIVE_BUSINESS_UNIT_CODE_INDEX.equalsIgnoreCase(violation.getConstraintName())) {
+        return true;
+      }
+    }
+    return false;
   }
 
   @Override
@@ -54,26 +209,157 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
                 () ->
                     new NoSuchElementException(
                         "Warehouse not found: " + warehouse.businessUnitCode));
+    adjustOccupancy(dbWarehouse.location, -1, -capacityOf(dbWarehouse));
     delete(dbWarehouse);
   }
 
   @Override
   public Warehouse findByBusinessUnitCode(String buCode) {
     return find("businessUnitCode = ?1 and archivedAt is null", buCode)
+        .withHint(HibernateHints.HINT_CACHEABLE, true)
+        .withHint(HibernateHints.HINT_CACHE_REGION, ACTIVE_LOOKUP_REGION)
         .firstResultOptional()
         .map(DbWarehouse::toWarehouse)
         .orElse(null);
   }
 
-  public Warehouse findById(String id) {
-    try {
-      long warehouseId = Long.parseLong(id);
-      return find("id = ?1 and archivedAt is null", warehouseId)
-          .firstResultOptional()
-          .map(DbWarehouse::toWarehouse)
-          .orElse(null);
-    } catch (NumberFormatException ignored) {
+  @Override
+  public List<String> findActiveBusinessUnitCodes(Collection<String> buCodes) {
+    List<String> candidates = List.copyOf(buCodes);
+    List<String> found = new ArrayList<>();
+    // Bounded IN lists, so a large batch neither hits the bind parameter limit nor defeats the
+    // business unit code index.
+    for (int from = 0; from < candidates.size(); from += CODE_LOOKUP_CHUNK) {
+      found.addAll(
+          getEntityManager()
+              .createQuery(
+                  "select businessUnitCode from DbWarehouse "
+                      + "where businessUnitCode in ?1 and archivedAt is null",
+                  String.class)
+              .setParameter(
+                  1,
+                  candidates.subList(from, Math.min(from + CODE_LOOKUP_CHUNK, candidates.size())))
+              .getResultList());
+    }
+    return found;
+  }
+
+  @Override
+  public Warehouse resolve(String identifier) {
+    Long id = parseId(identifier);
+    if (id == null) {
+      return findByBusinessUnitCode(identifier);
+    }
+
+    // Both forms in one round trip. A business unit code that happens to equal the id of another
+    // warehouse takes precedence, as it did when the code was looked up first.
+    return find(
+            "(businessUnitCode = ?1 or id = ?2) and archivedAt is null "
+                + "order by case when businessUnitCode = ?1 then 0 else 1 end",
+            identifier,
+            id)
+        .withHint(HibernateHints.HINT_CACHEABLE, true)
+        .withHint(HibernateHints.HINT_CACHE_REGION, ACTIVE_LOOKUP_REGION)
+        .firstResultOptional()
+        .map(DbWarehouse::toWarehouse)
+        .orElse(null);
+  }
+
+  @Override
+  public LocationOccupancy lockOccupancy(String location) {
+    return lockedOccupancy(location).toLocationOccupancy();
+  }
+
+  @Override
+  public LocationOccupancy lockOccupancyExcluding(String location, String businessUnitCode) {
+    lockedOccupancy(location);
+
+    // The excluded warehouse contributes at most one row, found through the location index, so
+    // the cost does not depend on how many warehouses exist elsewhere.
+    Object[] row =
+        getEntityManager()
+            .createQuery(
+                "select o.warehouses - (select count(w) from DbWarehouse w "
+                    + "where w.location = o.location and w.businessUnitCode = :businessUnitCode "
+                    + "and w.archivedAt is null), "
+                    + "o.capacity - (select coalesce(sum(w.capacity), 0) from DbWarehouse w "
+                    + "where w.location = o.location and w.businessUnitCode = :businessUnitCode "
+                    + "and w.archivedAt is null) "
+                    + "from DbLocationOccupancy o where o.location = :location",
+                Object[].class)
+            .setParameter("businessUnitCode", businessUnitCode)
+            .setParameter("location", location)
+            .getSingleResult();
+    return new LocationOccupancy(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+  }
+
+  // The archived generation leaves the live table in the same transaction, keeping its id, which
+  // the warehouse sequence keeps unique across both tables.
+  private void moveToHistory(DbWarehouse dbWarehouse) {
+    getEntityManager().persist(DbWarehouseHistory.of(dbWarehouse));
+    delete(dbWarehouse);
+  }
+
+  private void adjustOccupancy(String location, long warehouses, long capacity) {
+    DbLocationOccupancy occupancy = lockedOccupancy(location);
+    occupancy.warehouses += warehouses;
+    occupancy.capacity += capacity;
+  }
+
+  private DbLocationOccupancy lockedOccupancy(String location) {
+    EntityManager entityManager = getEntityManager();
+    DbLocationOccupancy occupancy =
+        entityManager.find(DbLocationOccupancy.class, location, LockModeType.PESSIMISTIC_WRITE);
+    if (occupancy != null) {
+      return occupancy;
+    }
+
+    // First time the location is touched: seed its row from the warehouse table, which also
+    // covers warehouses loaded outside the application. Concurrent seeders wait on each other
+    // through the primary key and only one row is kept.
+    entityManager
+        .createNativeQuery(
+            "insert into location_occupancy (location, warehouses, capacity) "
+                + "select :location, count(*), coalesce(sum(capacity), 0) from warehouse "
+                + "where location = :location and archivedAt is null "
+                + "on conflict (location) do nothing")
+        .unwrap(NativeQuery.class)
+        // Without a declared query space Hibernate would evict every second-level cache region.
+        .addSynchronizedEntityClass(DbLocationOccupancy.class)
+        .setParameter("location", location)
+        .executeUpdate();
+    return entityManager.find(
+        DbLocationOccupancy.class, location, LockModeType.PESSIMISTIC_WRITE);
+  }
+
+  // Ids are positive longs; anything else can only be a business unit code. Checked up front so
+  // that a non-numeric identifier does not pay for a NumberFormatException.
+  private static Long parseId(String identifier) {
+    if (identifier == null || identifier.isEmpty() || identifier.length() > 18) {
       return null;
     }
+    for (int index = 0; index < identifier.length(); index++) {
+      char character = identifier.charAt(index);
+      if (character < '0' || character > '9') {
+        return null;
+      }
+    }
+    return Long.parseLong(identifier);
+  }
+
+  private static DbWarehouse toDbWarehouse(Warehouse warehouse) {
+    var dbWarehouse = new DbWarehouse();
+    dbWarehouse.businessUnitCode = warehouse.businessUnitCode;
+    dbWarehouse.location = warehouse.location;
+    dbWarehouse.capacity = warehouse.capacity;
+    dbWarehouse.stock = warehouse.stock;
+    dbWarehouse.createdAt = warehouse.createdAt;
+    dbWarehouse.archivedAt = warehouse.archivedAt;
+    dbWarehouse.version = warehouse.version;
+    return dbWarehouse;
+  }
+
+  private long capacityOf(DbWarehouse dbWarehouse) {
+    return dbWarehouse.capacity == null ? 0 : dbWarehouse.capacity;
   }
 }
@@ -0,0 +1,22 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseCacheStatistics;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import org.hibernate.SessionFactory;
+
+@Path("warehouse-cache")
+@ApplicationScoped
+@Produces("application/json")
+public class WarehouseCacheResource {
+
+  @Inject SessionFactory sessionFactory;
+
+  @GET
+  public WarehouseCacheStatistics statistics() {
+    return WarehouseCacheStatistics.from(sessionFactory.getStatistics());
+  }
+}
@@ -1,17 +1,38 @@
 package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseHistoryCursor;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseHistoryPage;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousePage;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.ArchiveWarehouseUseCase;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.ListWarehousesUseCase;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.ReplaceWarehouseUseCase;
 import com.warehouse.api.WarehouseResource;
 import com.warehouse.api.beans.Warehouse;
+import com.warehouse.api.beans.WarehouseGeneration;
+import io.vertx.core.http.HttpServerResponse;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
 import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
 import java.util.List;
 import java.util.NoSuchElementException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.resteasy.reactive.ResponseStatus;
 
 @RequestScoped
@@ -21,10 +42,60 @@ public class WarehouseResourceImpl implements WarehouseResource {
   @Inject private CreateWarehouseUseCase createWarehouseUseCase;
   @Inject private ArchiveWarehouseUseCase archiveWarehouseUseCase;
   @Inject private ReplaceWarehouseUseCase replaceWarehouseUseCase;
+  @Inject private ListWarehousesUseCase listWarehousesUseCase;
+  @Inject private ObjectMapper objectMapper;
+
+  @ConfigProperty(name = "warehouse.replace.max-attempts", defaultValue = "5")
+  private int replaceMaxAttempts;
+
+  @Context private UriInfo uriInfo;
+  @Context private HttpServerResponse httpResponse;
+
+  @Override
+  public List<Warehouse> listAllWarehousesUnits(String location, String after, Integer limit) {
+    WarehousePage page;
+    try {
+      page = listWarehousesUseCase.list(location, after, limit);
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException(e.getMessage(), 400);
+    }
+
+    if (page.nextAfter != null) {
+      linkNextPage(page.nextAfter);
+    }
+    return page.items.stream().map(this::toWarehouseResponse).toList();
+  }
 
   @Override
-  public List<Warehouse> listAllWarehousesUnits() {
-    return warehouseRepository.getAll().stream().map(this::toWarehouseResponse).toList();
+  public Response streamAllWarehouseUnits(String location, String after) {
+    // Each row goes from the projection query straight to the generator, without an API bean or
+    // a list in between.
+    StreamingOutput body =
+        output -> {
+          JsonGenerator generator =
+              objectMapper
+                  .getFactory()
+                  .createGenerator(output)
+                  .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                  // Lines are ended explicitly instead of separating root values with a space.
+                  .setRootValueSeparator(null);
+          try {
+            listWarehousesUseCase.stream(
+                location,
+                after,
+                warehouse -> {
+                  try {
+                    writeWarehouse(generator, warehouse);
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                });
+          } catch (UncheckedIOException e) {
+            throw e.getCause();
+          }
+          generator.close();
+        };
+    return Response.ok(body).build();
   }
 
   @Override
@@ -36,12 +107,57 @@ public class WarehouseResourceImpl implements WarehouseResource {
       return toWarehouseResponse(warehouse);
     } catch (IllegalArgumentException e) {
       throw new WebApplicationException(e.getMessage(), 400);
+    } catch (PersistenceException e) {
+      // The existence check passed, but a concurrent create of the same code committed first.
+      if (WarehouseRepository.isConcurrentModification(e)) {
+        throw new WebApplicationException(
+            "Warehouse was created concurrently: " + warehouse.businessUnitCode, 409);
+      }
+      throw e;
+    }
+  }
+
+  @Override
+  @ResponseStatus(201)
+  public List<Warehouse> createWarehouseUnitsInBatch(@NotNull List<Warehouse> data) {
+    var warehouses = data.stream().map(this::toDomainWarehouse).toList();
+    try {
+      createWarehouseUseCase.createAll(warehouses);
+      return warehouses.stream().map(this::toWarehouseResponse).toList();
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException(e.getMessage(), 400);
+    } catch (PersistenceException e) {
+      if (WarehouseRepository.isConcurrentModification(e)) {
+        throw new WebApplicationException(
+            "A warehouse of the batch was created concurrently", 409);
+      }
+      throw e;
     }
   }
 
+  @Override
+  public List<WarehouseGeneration> listTheGenerationsOfAWarehouseUnit(
+      String businessUnitCode, String after, Integer limit) {
+    WarehouseHistoryPage page;
+    try {
+      page =
+          listWarehousesUseCase.history(
+              businessUnitCode, after == null ? null : WarehouseHistoryCursor.decode(after), limit);
+    } catch (NoSuchElementException e) {
+      throw new WebApplicationException(e.getMessage(), 404);
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException(e.getMessage(), 400);
+    }
+
+    if (page.next != null) {
+      linkNextPage(page.next.encode());
+    }
+    return page.items.stream().map(this::toGenerationResponse).toList();
+  }
+
   @Override
   public Warehouse getAWarehouseUnitByID(String id) {
-    var warehouse = findWarehouseByIdentifier(id);
+    var warehouse = warehouseRepository.resolve(id);
     if (warehouse == null) {
       throw new WebApplicationException("Warehouse not found: " + id, 404);
     }
@@ -52,7 +168,7 @@ public class WarehouseResourceImpl implements WarehouseResource {
   @Override
   @ResponseStatus(204)
   public void archiveAWarehouseUnitByID(String id) {
-    var warehouse = findWarehouseByIdentifier(id);
+    var warehouse = warehouseRepository.resolve(id);
     if (warehouse == null) {
       throw new WebApplicationException("Warehouse not found: " + id, 404);
     }
@@ -61,16 +177,19 @@ public class WarehouseResourceImpl implements WarehouseResource {
       archiveWarehouseUseCase.archive(warehouse);
     } catch (IllegalArgumentException e) {
       throw new WebApplicationException(e.getMessage(), 400);
+    } catch (PersistenceException e) {
+      if (WarehouseRepository.isConcurrentModification(e)) {
+        throw new WebApplicationException("Warehouse was changed concurrently: " + id, 409);
+      }
+      throw e;
     }
   }
 
   @Override
   public Warehouse replaceTheCurrentActiveWarehouse(
       String businessUnitCode, @NotNull Warehouse data) {
-    var warehouse = toDomainWarehouse(data);
-    warehouse.businessUnitCode = businessUnitCode;
     try {
-      replaceWarehouseUseCase.replace(warehouse);
+      replace(businessUnitCode, data);
       return toWarehouseResponse(warehouseRepository.findByBusinessUnitCode(businessUnitCode));
     } catch (NoSuchElementException e) {
       throw new WebApplicationException(e.getMessage(), 404);
@@ -79,6 +198,57 @@ public class WarehouseResourceImpl implements WarehouseResource {
     }
   }
 
+  // Every attempt runs in its own transaction and reads the current generation afresh, so a
+  // replacement that lost the race to another one is validated again against the winner.
+  private void replace(String businessUnitCode, Warehouse data) {
+    for (int attempt = 1; ; attempt++) {
+      var warehouse = toDomainWarehouse(data);
+      warehouse.businessUnitCode = businessUnitCode;
+      try {
+        replaceWarehouseUseCase.replace(warehouse);
+        return;
+      } catch (PersistenceException e) {
+        if (!WarehouseRepository.isConcurrentModification(e)) {
+          throw e;
+        }
+        if (attempt >= replaceMaxAttempts) {
+          throw new WebApplicationException(
+              "Warehouse was changed concurrently: " + businessUnitCode, 409);
+        }
+      }
+    }
+  }
+
+  // The generated interface fixes the return types, so the header goes on the HTTP response.
+  private void linkNextPage(String after) {
+    URI next = uriInfo.getRequestUriBuilder().replaceQueryParam("after", after).build();
+    httpResponse.putHeader(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+  }
+
+  // Same fields as toWarehouseResponse, one object per line.
+  private static void writeWarehouse(
+      JsonGenerator generator,
+      com.fulfilment.application.monolith.warehouses.domain.models.Warehouse warehouse)
+      throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("id", warehouse.businessUnitCode);
+    generator.writeStringField("businessUnitCode", warehouse.businessUnitCode);
+    generator.writeStringField("location", warehouse.location);
+    writeNumberField(generator, "capacity", warehouse.capacity);
+    writeNumberField(generator, "stock", warehouse.stock);
+    generator.writeEndObject();
+    generator.writeRaw('\n');
+  }
+
+  private static void writeNumberField(JsonGenerator generator, String name, Integer value)
+      throws IOException {
+    if (value == null) {
+      generator.writeNullField(name);
+    } else {
+      generator.writeNumberField(name, value);
+    }
+  }
+
   private Warehouse toWarehouseResponse(
       com.fulfilment.application.monolith.warehouses.domain.models.Warehouse warehouse) {
     var response = new Warehouse();
@@ -91,6 +261,22 @@ public class WarehouseResourceImpl implements WarehouseResource {
     return response;
   }
 
+  private WarehouseGeneration toGenerationResponse(
+      com.fulfilment.application.monolith.warehouses.domain.models.Warehouse warehouse) {
+    var response = new WarehouseGeneration();
+    response.setBusinessUnitCode(warehouse.businessUnitCode);
+    response.setLocation(warehouse.location);
+    response.setCapacity(warehouse.capacity);
+    response.setStock(warehouse.stock);
+    response.setCreatedAt(toDate(warehouse.createdAt));
+    response.setArchivedAt(toDate(warehouse.archivedAt));
+    return response;
+  }
+
+  private static Date toDate(LocalDateTime dateTime) {
+    return dateTime == null ? null : Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+  }
+
   private com.fulfilment.application.monolith.warehouses.domain.models.Warehouse toDomainWarehouse(
       Warehouse request) {
     var warehouse = new com.fulfilment.application.monolith.warehouses.domain.models.Warehouse();
@@ -100,14 +286,4 @@ public class WarehouseResourceImpl implements WarehouseResource {
     warehouse.stock = request.getStock();
     return warehouse;
   }
-
-  private com.fulfilment.application.monolith.warehouses.domain.models.Warehouse findWarehouseByIdentifier(
-      String identifier) {
-    var warehouse = warehouseRepository.findByBusinessUnitCode(identifier);
-    if (warehouse != null) {
-      return warehouse;
-    }
-
-    return warehouseRepository.findById(identifier);
-  }
 }
@@ -0,0 +1,17 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+public class LocationOccupancy {
+
+  public static final LocationOccupancy EMPTY = new LocationOccupancy(0, 0);
+
+  // active warehouses at the location
+  public final long warehouses;
+
+  // summed capacity of those warehouses
+  public final long capacity;
+
+  public LocationOccupancy(long warehouses, long capacity) {
+    this.warehouses = warehouses;
+    this.capacity = capacity;
+  }
+}
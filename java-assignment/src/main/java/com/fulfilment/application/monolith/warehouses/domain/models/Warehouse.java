@@ -16,4 +16,7 @@ public class Warehouse {
   public LocalDateTime createdAt;
 
   public LocalDateTime archivedAt;
+
+  // revision the warehouse was read at, checked when it is written back
+  public Long version;
 }
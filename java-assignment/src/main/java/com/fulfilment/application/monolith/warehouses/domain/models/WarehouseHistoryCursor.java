@@ -0,0 +1,42 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Position in the history of a business unit, ordered by creation time then id, newest first.
+// Clients get it as an opaque token.
+public class WarehouseHistoryCursor {
+
+  // creation time of the last generation returned, null for a row loaded without one
+  public final LocalDateTime createdAt;
+
+  // id of the last generation returned, telling apart generations created at the same time
+  public final Long id;
+
+  public WarehouseHistoryCursor(LocalDateTime createdAt, Long id) {
+    this.createdAt = createdAt;
+    this.id = id;
+  }
+
+  public String encode() {
+    String raw = id + "+" + (createdAt == null ? "" : createdAt);
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static WarehouseHistoryCursor decode(String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int separator = raw.indexOf('+');
+      String createdAt = raw.substring(separator + 1);
+      return new WarehouseHistoryCursor(
+          createdAt.isEmpty() ? null : LocalDateTime.parse(createdAt),
+          Long.parseLong(raw.substring(0, separator)));
+    } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + token);
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.util.List;
+
+public class WarehouseHistoryPage {
+
+  public final List<Warehouse> items;
+
+  // position to continue from, null on the last page
+  public final WarehouseHistoryCursor next;
+
+  public WarehouseHistoryPage(List<Warehouse> items, WarehouseHistoryCursor next) {
+    this.items = items;
+    this.next = next;
+  }
+}
@@ -0,0 +1,16 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.util.List;
+
+public class WarehousePage {
+
+  public final List<Warehouse> items;
+
+  // business unit code to pass as the next `after` cursor, null on the last page
+  public final String nextAfter;
+
+  public WarehousePage(List<Warehouse> items, String nextAfter) {
+    this.items = items;
+    this.nextAfter = nextAfter;
+  }
+}
@@ -1,7 +1,11 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.util.List;
 
 public interface CreateWarehouseOperation {
   void create(Warehouse warehouse);
+
+  // Creates all the warehouses or none, with the same checks as creating them one by one.
+  void createAll(List<Warehouse> warehouses);
 }
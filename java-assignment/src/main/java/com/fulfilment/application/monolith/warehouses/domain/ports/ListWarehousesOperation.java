@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseHistoryCursor;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseHistoryPage;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousePage;
+import java.util.function.Consumer;
+
+public interface ListWarehousesOperation {
+
+  // location and after are optional; limit is the configured maximum page size when null.
+  WarehousePage list(String location, String after, Integer limit);
+
+  void stream(String location, String after, Consumer<Warehouse> consumer);
+
+  // Fails with NoSuchElementException when no warehouse ever had the business unit code.
+  WarehouseHistoryPage history(String buCode, WarehouseHistoryCursor after, Integer limit);
+}
@@ -0,0 +1,13 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseHistoryCursor;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseHistoryPage;
+
+// Read-only view over every generation of a business unit: the active warehouse together with
+// the archived ones, which are kept apart from the live network.
+public interface WarehouseHistoryStore {
+
+  // Up to limit warehouses that ever had the business unit code, active or archived, newest
+  // first, starting after the cursor.
+  WarehouseHistoryPage history(String buCode, WarehouseHistoryCursor after, int limit);
+}
@@ -1,17 +1,44 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface WarehouseStore {
 
   List<Warehouse> getAll();
 
+  // Up to limit active warehouses in business unit code order, starting after the given code.
+  // location and after are optional. Only the fields the API exposes are loaded.
+  List<Warehouse> listActive(String location, String after, int limit);
+
+  // Same selection and order as listActive without a limit, handed over one row at a time.
+  void forEachActive(String location, String after, Consumer<Warehouse> consumer);
+
   void create(Warehouse warehouse);
 
+  // Inserts the warehouses in JDBC batches, adjusting each location's occupancy once.
+  void createAll(List<Warehouse> warehouses);
+
+  // An update that archives the warehouse moves it out of the active warehouses for good.
   void update(Warehouse warehouse);
 
   void remove(Warehouse warehouse);
 
   Warehouse findByBusinessUnitCode(String buCode);
+
+  // Those of the given business unit codes that an active warehouse already has.
+  List<String> findActiveBusinessUnitCodes(Collection<String> buCodes);
+
+  // Active warehouse whose business unit code or id matches the identifier, preferring the code.
+  Warehouse resolve(String identifier);
+
+  // Active warehouse count and capacity at the location. The location stays locked until the
+  // transaction ends, so a check against it cannot be invalidated by a concurrent change.
+  LocationOccupancy lockOccupancy(String location);
+
+  // Same as lockOccupancy, leaving out the active warehouse with the given business unit code.
+  LocationOccupancy lockOccupancyExcluding(String location, String businessUnitCode);
 }
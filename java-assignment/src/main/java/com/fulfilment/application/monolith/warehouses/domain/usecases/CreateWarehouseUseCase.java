@@ -7,6 +7,12 @@ import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStor
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 @ApplicationScoped
 public class CreateWarehouseUseCase implements CreateWarehouseOperation {
@@ -29,35 +35,75 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
           "Warehouse with business unit code already exists: " + warehouse.businessUnitCode);
     }
 
-    var location = locationResolver.resolveByIdentifier(warehouse.location);
-    if (location == null) {
-      throw new IllegalArgumentException("Invalid warehouse location: " + warehouse.location);
-    }
+    admit(warehouse.location, List.of(warehouse));
 
-    validateCapacityAndStock(warehouse, location.maxCapacity);
+    warehouse.createdAt = LocalDateTime.now();
+    warehouse.archivedAt = null;
+    warehouseStore.create(warehouse);
+  }
 
-    var warehousesAtLocation =
-        warehouseStore.getAll().stream().filter(w -> warehouse.location.equals(w.location)).toList();
+  @Override
+  @Transactional
+  public void createAll(List<Warehouse> warehouses) {
+    if (warehouses == null || warehouses.isEmpty()) {
+      throw new IllegalArgumentException("At least one warehouse is required");
+    }
+
+    Set<String> buCodes = new HashSet<>();
+    // Locations in name order, so that concurrent batches lock their occupancy rows in the same
+    // order.
+    Map<String, List<Warehouse>> byLocation = new TreeMap<>();
+    for (Warehouse warehouse : warehouses) {
+      validateRequiredFields(warehouse);
+      if (!buCodes.add(warehouse.businessUnitCode)) {
+        throw new IllegalArgumentException(
+            "Business unit code appears more than once in the batch: "
+                + warehouse.businessUnitCode);
+      }
+      byLocation.computeIfAbsent(warehouse.location, location -> new ArrayList<>()).add(warehouse);
+    }
 
-    if (warehousesAtLocation.size() >= location.maxNumberOfWarehouses) {
+    List<String> existing = warehouseStore.findActiveBusinessUnitCodes(buCodes);
+    if (!existing.isEmpty()) {
       throw new IllegalArgumentException(
-          "Max number of warehouses reached for location: " + warehouse.location);
+          "Warehouse with business unit code already exists: " + String.join(", ", existing));
     }
 
-    int totalCapacityAtLocation =
-        warehousesAtLocation.stream()
-            .map(w -> w.capacity)
-            .filter(capacity -> capacity != null)
-            .reduce(0, Integer::sum);
+    byLocation.forEach(this::admit);
 
-    if (totalCapacityAtLocation + warehouse.capacity > location.maxCapacity) {
+    LocalDateTime now = LocalDateTime.now();
+    for (Warehouse warehouse : warehouses) {
+      warehouse.createdAt = now;
+      warehouse.archivedAt = null;
+    }
+    warehouseStore.createAll(warehouses);
+  }
+
+  // Checks warehouses joining one location against its limits together.
+  private void admit(String locationIdentifier, List<Warehouse> warehouses) {
+    var location = locationResolver.resolveByIdentifier(locationIdentifier);
+    if (location == null) {
+      throw new IllegalArgumentException("Invalid warehouse location: " + locationIdentifier);
+    }
+
+    long capacity = 0;
+    for (Warehouse warehouse : warehouses) {
+      validateCapacityAndStock(warehouse, location.maxCapacity);
+      capacity += warehouse.capacity;
+    }
+
+    // Held until commit, so a concurrent create at the same location waits for this one.
+    var occupancy = warehouseStore.lockOccupancy(locationIdentifier);
+
+    if (occupancy.warehouses + warehouses.size() > location.maxNumberOfWarehouses) {
       throw new IllegalArgumentException(
-          "Location max capacity exceeded for location: " + warehouse.location);
+          "Max number of warehouses reached for location: " + locationIdentifier);
     }
 
-    warehouse.createdAt = LocalDateTime.now();
-    warehouse.archivedAt = null;
-    warehouseStore.create(warehouse);
+    if (occupancy.capacity + capacity > location.maxCapacity) {
+      throw new IllegalArgumentException(
+          "Location max capacity exceeded for location: " + locationIdentifier);
+    }
   }
 
   private void validateRequiredFields(Warehouse warehouse) {
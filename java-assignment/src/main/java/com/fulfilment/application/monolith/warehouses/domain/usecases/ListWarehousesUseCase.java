@@ -0,0 +1,72 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseHistoryCursor;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseHistoryPage;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousePage;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ListWarehousesOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseHistoryStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ApplicationScoped
+public class ListWarehousesUseCase implements ListWarehousesOperation {
+
+  private final WarehouseStore warehouseStore;
+  private final WarehouseHistoryStore warehouseHistoryStore;
+  private final int maxPageSize;
+
+  public ListWarehousesUseCase(
+      WarehouseStore warehouseStore,
+      WarehouseHistoryStore warehouseHistoryStore,
+      @ConfigProperty(name = "warehouse.list.max-results", defaultValue = "1000") int maxPageSize) {
+    this.warehouseStore = warehouseStore;
+    this.warehouseHistoryStore = warehouseHistoryStore;
+    this.maxPageSize = maxPageSize;
+  }
+
+  @Override
+  public WarehousePage list(String location, String after, Integer limit) {
+    int pageSize = pageSize(limit);
+
+    // One row past the page tells whether there is a next page without a count query.
+    List<Warehouse> rows = warehouseStore.listActive(location, after, pageSize + 1);
+    if (rows.size() <= pageSize) {
+      return new WarehousePage(rows, null);
+    }
+    List<Warehouse> items = rows.subList(0, pageSize);
+    return new WarehousePage(items, items.get(pageSize - 1).businessUnitCode);
+  }
+
+  // The cursor only stays open inside the transaction, so the consumer has to do its writing
+  // from within this call.
+  @Override
+  @Transactional
+  public void stream(String location, String after, Consumer<Warehouse> consumer) {
+    warehouseStore.forEachActive(location, after, consumer);
+  }
+
+  @Override
+  public WarehouseHistoryPage history(
+      String buCode, WarehouseHistoryCursor after, Integer limit) {
+    WarehouseHistoryPage page = warehouseHistoryStore.history(buCode, after, pageSize(limit));
+    // An empty later page only means the history ended on the previous one.
+    if (page.items.isEmpty() && after == null) {
+      throw new NoSuchElementException("Warehouse not found: " + buCode);
+    }
+    return page;
+  }
+
+  private int pageSize(Integer limit) {
+    int pageSize = limit == null ? maxPageSize : limit;
+    if (pageSize < 1 || pageSize > maxPageSize) {
+      throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+    }
+    return pageSize;
+  }
+}
@@ -46,6 +46,9 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
 
     newWarehouse.createdAt = LocalDateTime.now();
     newWarehouse.archivedAt = null;
+    // The business unit's revision carries over, so a replace that read the archived generation
+    // cannot pass the version check against the new one.
+    newWarehouse.version = currentWarehouse.version == null ? null : currentWarehouse.version + 1;
     warehouseStore.create(newWarehouse);
   }
 
@@ -98,28 +101,24 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
       Warehouse replacementWarehouse,
       int locationMaxWarehouses,
       int locationMaxCapacity) {
-    var activeWarehousesExcludingCurrent =
-        warehouseStore.getAll().stream()
-            .filter(warehouse -> !warehouse.businessUnitCode.equals(currentWarehouse.businessUnitCode))
-            .toList();
-
-    var warehousesAtReplacementLocation =
-        activeWarehousesExcludingCurrent.stream()
-            .filter(warehouse -> replacementWarehouse.location.equals(warehouse.location))
-            .toList();
+    // Archiving the current warehouse also updates its own location, so both locations are
+    // locked here, in name order, before anything is read.
+    if (!replacementWarehouse.location.equals(currentWarehouse.location)
+        && currentWarehouse.location.compareTo(replacementWarehouse.location) < 0) {
+      warehouseStore.lockOccupancy(currentWarehouse.location);
+    }
+    // The current warehouse is archived by the replacement, so it must not count against the
+    // location it is being replaced at.
+    var occupancy =
+        warehouseStore.lockOccupancyExcluding(
+            replacementWarehouse.location, currentWarehouse.businessUnitCode);
 
-    if (warehousesAtReplacementLocation.size() >= locationMaxWarehouses) {
+    if (occupancy.warehouses >= locationMaxWarehouses) {
       throw new IllegalArgumentException(
           "Max number of warehouses reached for location: " + replacementWarehouse.location);
     }
 
-    int totalCapacityAtLocation =
-        warehousesAtReplacementLocation.stream()
-            .map(warehouse -> warehouse.capacity)
-            .filter(capacity -> capacity != null)
-            .reduce(0, Integer::sum);
-
-    if (totalCapacityAtLocation + replacementWarehouse.capacity > locationMaxCapacity) {
+    if (occupancy.capacity + replacementWarehouse.capacity > locationMaxCapacity) {
       throw new IllegalArgumentException(
           "Location max capacity exceeded for location: " + replacementWarehouse.location);
     }
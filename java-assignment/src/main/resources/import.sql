@@ -8,6 +8,19 @@ INSERT INTO product(id, name, stock) VALUES (2, 'KALLAX', 5);
 INSERT INTO product(id, name, stock) VALUES (3, 'BESTÅ', 3);
 ALTER SEQUENCE product_seq RESTART WITH 4;
 
+-- Partial indexes over active warehouses only. Archived generations move to warehouse_history,
+-- and any that arrive here some other way stay out of these indexes until the compaction job
+-- moves them. The location index carries capacity for the occupancy aggregate, and the business
+-- unit code index guarantees a single active generation per business unit.
+CREATE UNIQUE INDEX idx_warehouse_active_business_unit_code ON warehouse (businessUnitCode) WHERE archivedAt IS NULL;
+CREATE INDEX idx_warehouse_active_location ON warehouse (location) INCLUDE (capacity) WHERE archivedAt IS NULL;
+-- The archived rows left here, which the compaction job looks up by id on every run. The index
+-- stays as small as the backlog of rows waiting to move, however large the live table grows.
+CREATE INDEX idx_warehouse_archived ON warehouse (id) WHERE archivedAt IS NOT NULL;
+
+-- Rows loaded outside the application start at the first revision.
+ALTER TABLE warehouse ALTER COLUMN version SET DEFAULT 0;
+
 INSERT INTO warehouse(id, businessUnitCode, location, capacity, stock, createdAt, archivedAt) 
 VALUES (1, 'MWH.001', 'ZWOLLE-001', 100, 10, '2024-07-01', null);
 INSERT INTO warehouse(id, businessUnitCode, location, capacity, stock, createdAt, archivedAt)
@@ -15,3 +28,12 @@ VALUES (2, 'MWH.012', 'AMSTERDAM-001', 50, 5, '2023-07-01', null);
 INSERT INTO warehouse(id, businessUnitCode, location, capacity, stock, createdAt, archivedAt)
 VALUES (3, 'MWH.023', 'TILBURG-001', 30, 27, '2021-02-01', null);
 ALTER SEQUENCE warehouse_seq RESTART WITH 4;
+
+INSERT INTO location(identification, maxNumberOfWarehouses, maxCapacity) VALUES ('ZWOLLE-001', 1, 40);
+INSERT INTO location(identification, maxNumberOfWarehouses, maxCapacity) VALUES ('ZWOLLE-002', 2, 50);
+INSERT INTO location(identification, maxNumberOfWarehouses, maxCapacity) VALUES ('AMSTERDAM-001', 5, 100);
+INSERT INTO location(identification, maxNumberOfWarehouses, maxCapacity) VALUES ('AMSTERDAM-002', 3, 75);
+INSERT INTO location(identification, maxNumberOfWarehouses, maxCapacity) VALUES ('TILBURG-001', 1, 40);
+INSERT INTO location(identification, maxNumberOfWarehouses, maxCapacity) VALUES ('HELMOND-001', 1, 45);
+INSERT INTO location(identification, maxNumberOfWarehouses, maxCapacity) VALUES ('EINDHOVEN-001', 2, 70);
+INSERT INTO location(identification, maxNumberOfWarehouses, maxCapacity) VALUES ('VETSBY-001', 1, 90);
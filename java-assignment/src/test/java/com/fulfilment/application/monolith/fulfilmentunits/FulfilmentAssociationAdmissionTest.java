@@ -0,0 +1,134 @@
+package com.fulfilment.application.monolith.fulfilmentunits;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.fulfilmentunits.application.usecases.FulfilmentAssociationUseCase;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.ProductLookupPort;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.StoreLookupPort;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.WarehouseLookupPort;
+import com.fulfilment.application.monolith.shared.application.exceptions.ApplicationException;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Runs the admission path the application uses by default, with the in-memory constraint index
+// disabled: the rules are checked against the database under its advisory locks.
+@QuarkusTest
+class FulfilmentAssociationAdmissionTest {
+
+  private static final int THREADS = 16;
+  private static final int REQUESTS_PER_THREAD = 40;
+  private static final int STORES = 2;
+  private static final int PRODUCTS = 8;
+  private static final int WAREHOUSES = 8;
+
+  @InjectMock ProductLookupPort productLookupPort;
+  @InjectMock StoreLookupPort storeLookupPort;
+  @InjectMock WarehouseLookupPort warehouseLookupPort;
+  @Inject FulfilmentAssociationUseCase fulfilmentAssociationUseCase;
+  @Inject FulfilmentAssociationRepository fulfilmentAssociationRepository;
+
+  private long firstStoreId;
+  private String warehousePrefix;
+
+  @BeforeEach
+  void setUp() {
+    // Ids and codes of their own, so that rows left by other tests do not count against the
+    // limits. The association has no foreign keys, so none of them has to exist.
+    firstStoreId = 1_000_000_000L + (System.nanoTime() & 0xFFFFFFL) * STORES;
+    warehousePrefix = "ADMISSION-" + System.nanoTime() + "-";
+    when(productLookupPort.existsById(any())).thenReturn(true);
+    when(storeLookupPort.existsById(any())).thenReturn(true);
+    when(warehouseLookupPort.resolveBusinessUnitCode(any()))
+        .thenAnswer(call -> call.getArgument(0));
+  }
+
+  @Test
+  void concurrentAssociationsShouldNeverExceedAnyLimit() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int thread = 0; thread < THREADS; thread++) {
+        // A quarter of the threads send small batches, so both admission paths contend.
+        boolean batches = thread % 4 == 0;
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  for (int request = 0; request < REQUESTS_PER_THREAD; request++) {
+                    if (batches) {
+                      fulfilmentAssociationUseCase.associateAll(
+                          List.of(randomRequest(), randomRequest(), randomRequest()));
+                      continue;
+                    }
+                    try {
+                      fulfilmentAssociationUseCase.associate(randomRequest());
+                    } catch (ApplicationException rejected) {
+                      // A rule turned it down, which is the point of the contention.
+                    }
+                  }
+                  return null;
+                }));
+      }
+
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(5, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    List<FulfilmentAssociation> committed =
+        fulfilmentAssociationRepository.list(
+            "storeId >= ?1 and storeId < ?2", firstStoreId, firstStoreId + STORES);
+    assertTrue(committed.size() > 0);
+
+    Set<String> unique = new HashSet<>();
+    Map<String, Set<String>> warehousesByProductAndStore = new HashMap<>();
+    Map<Long, Set<String>> warehousesByStore = new HashMap<>();
+    Map<String, Set<Long>> productsByWarehouse = new HashMap<>();
+    for (FulfilmentAssociation association : committed) {
+      String warehouse = association.warehouseBusinessUnitCode;
+      assertTrue(
+          unique.add(association.productId + "/" + association.storeId + "/" + warehouse),
+          "duplicate association");
+      warehousesByProductAndStore
+          .computeIfAbsent(association.productId + "/" + association.storeId, k -> new HashSet<>())
+          .add(warehouse);
+      warehousesByStore.computeIfAbsent(association.storeId, k -> new HashSet<>()).add(warehouse);
+      productsByWarehouse
+          .computeIfAbsent(warehouse, k -> new HashSet<>())
+          .add(association.productId);
+    }
+    warehousesByProductAndStore.values().forEach(set -> assertTrue(set.size() <= 2));
+    warehousesByStore.values().forEach(set -> assertTrue(set.size() <= 3));
+    productsByWarehouse.values().forEach(set -> assertTrue(set.size() <= 5));
+  }
+
+  private FulfilmentAssociationRequest randomRequest() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    FulfilmentAssociationRequest request = new FulfilmentAssociationRequest();
+    request.storeId = firstStoreId + random.nextInt(STORES);
+    request.productId = 1L + random.nextInt(PRODUCTS);
+    request.warehouseIdentifier = warehousePrefix + random.nextInt(WAREHOUSES);
+    return request;
+  }
+}
@@ -2,6 +2,8 @@ package com.fulfilment.application.monolith.fulfilmentunits;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.nullValue;
 
 import io.quarkus.test.junit.QuarkusTest;
 import java.util.ArrayList;
@@ -105,6 +107,97 @@ public class FulfilmentAssociationEndpointTest {
         .body(containsString("at most 5 product types"));
   }
 
+  @Test
+  public void testBatchAssociationReportsEachItemAndEnforcesLimitsWithinTheBatch() {
+    Long storeId = createStore();
+    Long productId = createProduct();
+    String warehouse1 = createWarehouse("AMSTERDAM-001");
+    String warehouse2 = createWarehouse("AMSTERDAM-002");
+    String warehouse3 = createWarehouse("EINDHOVEN-001");
+
+    given()
+        .contentType("application/json")
+        .body(
+            "["
+                + associationPayload(productId, storeId, warehouse1)
+                + ","
+                + associationPayload(productId, storeId, warehouse1)
+                + ","
+                + associationPayload(productId, storeId, warehouse2)
+                + ","
+                + associationPayload(productId, storeId, warehouse3)
+                + "]")
+        .when()
+        .post("/fulfilment-association/batch")
+        .then()
+        .statusCode(200)
+        .body("status", contains(201, 409, 201, 400));
+  }
+
+  @Test
+  public void testBatchAssociationAcceptsNdjson() {
+    Long storeId = createStore();
+    Long productA = createProduct();
+    Long productB = createProduct();
+    String warehouse = createWarehouse("VETSBY-001");
+
+    given()
+        .contentType("application/x-ndjson")
+        .body(
+            associationPayload(productA, storeId, warehouse)
+                + "\n"
+                + associationPayload(productB, storeId, warehouse)
+                + "\n")
+        .when()
+        .post("/fulfilment-association/batch")
+        .then()
+        .statusCode(200)
+        .body("status", contains(201, 201));
+  }
+
+  @Test
+  public void testListIsPagedByIdAndFilteredByStore() {
+    Long storeId = createStore();
+    String warehouse = createWarehouse("VETSBY-001");
+    Long productA = createProduct();
+    Long productB = createProduct();
+    Long productC = createProduct();
+    associate(productA, storeId, warehouse).statusCode(201);
+    associate(productB, storeId, warehouse).statusCode(201);
+    associate(productC, storeId, warehouse).statusCode(201);
+
+    String next =
+        given()
+            .queryParam("storeId", storeId)
+            .queryParam("limit", 2)
+            .when()
+            .get("/fulfilment-association")
+            .then()
+            .statusCode(200)
+            .body("productId", contains(productA.intValue(), productB.intValue()))
+            .header("Link", containsString("rel=\"next\""))
+            .extract()
+            .header("Link");
+
+    String nextUri = next.substring(next.indexOf('<') + 1, next.indexOf('>'));
+    given()
+        .when()
+        .get(nextUri)
+        .then()
+        .statusCode(200)
+        .body("productId", contains(productC.intValue()))
+        .header("Link", nullValue());
+
+    given()
+        .queryParam("storeId", storeId)
+        .when()
+        .get("/fulfilment-association/stream")
+        .then()
+        .statusCode(200)
+        .contentType("application/x-ndjson")
+        .body(containsString("\"productId\":" + productC));
+  }
+
   private io.restassured.response.ValidatableResponse associate(
       Long productId, Long storeId, String warehouseIdentifier) {
     return given()
@@ -0,0 +1,141 @@
+package com.fulfilment.application.monolith.fulfilmentunits;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationFilter;
+import com.fulfilment.application.monolith.shared.adapters.persistence.RecordingStatementInspector;
+import io.quarkus.test.TestTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class FulfilmentAssociationQueryPlanTest {
+
+  private static final int SYNTHETIC_ROWS = 200_000;
+
+  @Inject FulfilmentAssociationRepository fulfilmentAssociationRepository;
+  @Inject RecordingStatementInspector statementInspector;
+  @Inject EntityManager entityManager;
+
+  @Test
+  @TestTransaction
+  void repositoryQueriesShouldNotScanTheWholeTable() {
+    loadSyntheticAssociations();
+
+    // Rebuilding the constraint index and the unfiltered stream read every row by design, so
+    // they are the only access paths left out here.
+    Map<String, Runnable> accessPaths = new LinkedHashMap<>();
+    accessPaths.put(
+        "constraint snapshot",
+        () -> fulfilmentAssociationRepository.loadConstraintSnapshot(7L, 3L, "SYN-7"));
+    accessPaths.put(
+        "constraint graph",
+        () ->
+            fulfilmentAssociationRepository.loadConstraintGraph(
+                Set.of(3L, 4L), Set.of("SYN-7", "SYN-8")));
+    accessPaths.put(
+        "page after cursor",
+        () ->
+            fulfilmentAssociationRepository.listPage(FulfilmentAssociationFilter.NONE, 0L, 100));
+    accessPaths.put(
+        "page by store",
+        () -> fulfilmentAssociationRepository.listPage(filter(3L, null, null), null, 100));
+    accessPaths.put(
+        "page by product",
+        () -> fulfilmentAssociationRepository.listPage(filter(null, 7L, null), null, 100));
+    accessPaths.put(
+        "page by warehouse",
+        () -> fulfilmentAssociationRepository.listPage(filter(null, null, "SYN-7"), null, 100));
+    accessPaths.put(
+        "stream by store",
+        () ->
+            fulfilmentAssociationRepository.forEachAssociation(
+                filter(3L, null, null), null, association -> {}));
+    accessPaths.put(
+        "stream by warehouse",
+        () ->
+            fulfilmentAssociationRepository.forEachAssociation(
+                filter(null, null, "SYN-7"), null, association -> {}));
+
+    List<String> sequentialScans = new ArrayList<>();
+    accessPaths.forEach(
+        (name, accessPath) -> {
+          for (String sql : statementInspector.record(accessPath)) {
+            String plan = explain(sql);
+            if (plan.contains("Seq Scan on fulfilment_association")) {
+              sequentialScans.add(name + ":\n" + sql + "\n" + plan);
+            }
+          }
+        });
+
+    assertTrue(sequentialScans.isEmpty(), String.join("\n\n", sequentialScans));
+  }
+
+  private void loadSyntheticAssociations() {
+    // 5000 stores with 40 associations each, spread over 2000 warehouses and 5000 products.
+    // Negative ids keep the rows clear of the entity sequence.
+    entityManager
+        .createNativeQuery(
+            "insert into fulfilment_association "
+                + "(id, product_id, store_id, warehouse_business_unit_code) "
+                + "select -g, g % 5000, g / 40, 'SYN-' || (g % 2000) "
+                + "from generate_series(1, :rows) g")
+        .setParameter("rows", SYNTHETIC_ROWS)
+        .executeUpdate();
+    entityManager.createNativeQuery("analyze fulfilment_association").executeUpdate();
+  }
+
+  private String explain(String sql) {
+    // Explains the generic plan, the one chosen without looking at the bound values, so the
+    // assertion holds for every parameter rather than only the ones used above.
+    int parameters = 0;
+    StringBuilder numbered = new StringBuilder();
+    for (char character : sql.toCharArray()) {
+      if (character == '?') {
+        numbered.append('$').append(++parameters);
+      } else {
+        numbered.append(character);
+      }
+    }
+    String execute =
+        parameters == 0
+            ? "explain execute plan_probe"
+            : "explain execute plan_probe("
+                + String.join(", ", Collections.nCopies(parameters, "null"))
+                + ")";
+
+    return entityManager
+        .unwrap(Session.class)
+        .doReturningWork(
+            connection -> {
+              try (Statement statement = connection.createStatement()) {
+                statement.execute("set local plan_cache_mode = force_generic_plan");
+                statement.execute("prepare plan_probe as " + numbered);
+                try (ResultSet rows = statement.executeQuery(execute)) {
+                  StringBuilder plan = new StringBuilder();
+                  while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                  }
+                  return plan.toString();
+                } finally {
+                  statement.execute("deallocate plan_probe");
+                }
+              }
+            });
+  }
+
+  private FulfilmentAssociationFilter filter(Long storeId, Long productId, String warehouseCode) {
+    return new FulfilmentAssociationFilter(storeId, productId, warehouseCode);
+  }
+}
@@ -4,9 +4,15 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationFilter;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationGraph;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentConstraintSnapshot;
 import io.quarkus.test.TestTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 
 @QuarkusTest
@@ -24,18 +30,89 @@ class FulfilmentAssociationRepositoryTest {
     fulfilmentAssociationRepository.create(association(1L, 1L, warehouseCodeTwo));
     fulfilmentAssociationRepository.create(association(2L, 1L, warehouseCodeTwo));
 
-    assertFalse(fulfilmentAssociationRepository.listAllById().isEmpty());
-    assertTrue(fulfilmentAssociationRepository.existsAssociation(1L, 1L, warehouseCodeOne));
-    assertFalse(fulfilmentAssociationRepository.existsAssociation(1L, 2L, warehouseCodeOne));
-    assertTrue(fulfilmentAssociationRepository.existsWarehouseForStore(1L, warehouseCodeTwo));
-    assertFalse(fulfilmentAssociationRepository.existsWarehouseForStore(2L, warehouseCodeTwo));
-    assertTrue(fulfilmentAssociationRepository.existsProductForWarehouse(warehouseCodeTwo, 2L));
-    assertFalse(fulfilmentAssociationRepository.existsProductForWarehouse(warehouseCodeOne, 2L));
-    assertEquals(
-        2L,
-        fulfilmentAssociationRepository.countDistinctWarehousesForProductAndStore(1L, 1L));
-    assertEquals(2L, fulfilmentAssociationRepository.countDistinctWarehousesForStore(1L));
-    assertEquals(2L, fulfilmentAssociationRepository.countDistinctProductsForWarehouse(warehouseCodeTwo));
+    FulfilmentAssociationFilter byStore = new FulfilmentAssociationFilter(1L, null, null);
+    List<FulfilmentAssociation> firstPage =
+        fulfilmentAssociationRepository.listPage(byStore, null, 2);
+    assertEquals(2, firstPage.size());
+    assertTrue(firstPage.get(0).id < firstPage.get(1).id);
+    List<FulfilmentAssociation> streamed = new ArrayList<>();
+    fulfilmentAssociationRepository.forEachAssociation(
+        new FulfilmentAssociationFilter(1L, null, warehouseCodeTwo),
+        firstPage.get(0).id,
+        streamed::add);
+    assertEquals(2, streamed.size());
+
+    FulfilmentConstraintSnapshot existing =
+        fulfilmentAssociationRepository.loadConstraintSnapshot(1L, 1L, warehouseCodeOne);
+    assertTrue(existing.associationExists);
+    assertEquals(2L, existing.warehousesForProductAndStore);
+    assertTrue(existing.storeUsesWarehouse);
+    assertTrue(existing.warehouseHoldsProduct);
+
+    FulfilmentConstraintSnapshot otherStore =
+        fulfilmentAssociationRepository.loadConstraintSnapshot(1L, 2L, warehouseCodeOne);
+    assertFalse(otherStore.associationExists);
+    assertFalse(otherStore.storeUsesWarehouse);
+    assertEquals(1L, otherStore.productsForWarehouse);
+
+    FulfilmentConstraintSnapshot secondWarehouse =
+        fulfilmentAssociationRepository.loadConstraintSnapshot(2L, 1L, warehouseCodeTwo);
+    assertTrue(secondWarehouse.storeUsesWarehouse);
+    assertTrue(secondWarehouse.warehouseHoldsProduct);
+    assertEquals(2L, secondWarehouse.warehousesForStore);
+    assertEquals(2L, secondWarehouse.productsForWarehouse);
+
+    FulfilmentConstraintSnapshot firstWarehouse =
+        fulfilmentAssociationRepository.loadConstraintSnapshot(2L, 1L, warehouseCodeOne);
+    assertFalse(firstWarehouse.warehouseHoldsProduct);
+    assertEquals(1L, firstWarehouse.productsForWarehouse);
+  }
+
+  @Test
+  @TestTransaction
+  void shouldBatchInsertAndLoadConstraintGraphOfTouchedStoresAndWarehouses() {
+    String warehouseCodeOne = "TEST-WH-1-" + System.nanoTime();
+    String warehouseCodeTwo = "TEST-WH-2-" + System.nanoTime();
+    long storeId = 900_000L + System.nanoTime() % 100_000L;
+
+    fulfilmentAssociationRepository.createAll(
+        List.of(
+            association(1L, storeId, warehouseCodeOne),
+            association(2L, storeId, warehouseCodeOne),
+            association(3L, storeId + 1, warehouseCodeTwo)));
+
+    FulfilmentAssociationGraph graph =
+        fulfilmentAssociationRepository.loadConstraintGraph(
+            Set.of(storeId), Set.of(warehouseCodeTwo));
+
+    FulfilmentConstraintSnapshot storeSnapshot = graph.snapshot(1L, storeId, warehouseCodeOne);
+    assertTrue(storeSnapshot.associationExists);
+    assertEquals(1L, storeSnapshot.warehousesForStore);
+    assertEquals(2L, storeSnapshot.productsForWarehouse);
+
+    FulfilmentConstraintSnapshot warehouseSnapshot =
+        graph.snapshot(3L, storeId, warehouseCodeTwo);
+    assertTrue(warehouseSnapshot.warehouseHoldsProduct);
+    assertEquals(1L, warehouseSnapshot.productsForWarehouse);
+  }
+
+  @Test
+  @TestTransaction
+  void batchInsertShouldOnlyDetachTheAssociationsItPersisted() {
+    String warehouseCode = "TEST-WH-" + System.nanoTime();
+    FulfilmentAssociation loadedEarlier = association(1L, 1L, warehouseCode);
+    fulfilmentAssociationRepository.create(loadedEarlier);
+
+    List<FulfilmentAssociation> batch = new ArrayList<>();
+    for (long productId = 2; productId < 122; productId++) {
+      batch.add(association(productId, 2L, warehouseCode));
+    }
+    fulfilmentAssociationRepository.createAll(batch);
+
+    var entityManager = fulfilmentAssociationRepository.getEntityManager();
+    assertTrue(entityManager.contains(loadedEarlier));
+    assertFalse(entityManager.contains(batch.get(0)));
+    assertFalse(entityManager.contains(batch.get(batch.size() - 1)));
   }
 
   private FulfilmentAssociation association(Long productId, Long storeId, String warehouseCode) {
@@ -1,15 +1,35 @@
 package com.fulfilment.application.monolith.fulfilmentunits;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fulfilment.application.monolith.fulfilmentunits.application.usecases.FulfilmentAssociationUseCase;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationFilter;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationPage;
+import com.fulfilment.application.monolith.shared.application.exceptions.UnprocessableEntityException;
+import jakarta.ws.rs.core.UriBuilder;
+import jakarta.ws.rs.core.UriInfo;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 class FulfilmentAssociationResourceUnitTest {
 
@@ -21,14 +41,61 @@ class FulfilmentAssociationResourceUnitTest {
     useCase = mock(FulfilmentAssociationUseCase.class);
     resource = new FulfilmentAssociationResource();
     resource.fulfilmentAssociationUseCase = useCase;
+    resource.objectMapper = new ObjectMapper();
   }
 
   @Test
-  void listShouldDelegateToUseCase() {
+  void listShouldReturnPageWithNextLink() {
     List<FulfilmentAssociation> associations = List.of(new FulfilmentAssociation());
-    when(useCase.list()).thenReturn(associations);
+    when(useCase.list(any(), eq(5L), eq(1)))
+        .thenReturn(new FulfilmentAssociationPage(associations, 7L));
+    resource.uriInfo = mock(UriInfo.class);
+    when(resource.uriInfo.getRequestUriBuilder())
+        .thenReturn(
+            UriBuilder.fromUri("http://localhost/fulfilment-association?storeId=2&after=5"));
 
-    assertSame(associations, resource.list());
+    var response = resource.list(2L, null, null, 5L, 1);
+
+    assertSame(associations, response.getEntity());
+    assertEquals(
+        "http://localhost/fulfilment-association?storeId=2&after=7",
+        response.getLink("next").getUri().toString());
+    ArgumentCaptor<FulfilmentAssociationFilter> filter =
+        ArgumentCaptor.forClass(FulfilmentAssociationFilter.class);
+    verify(useCase).list(filter.capture(), eq(5L), eq(1));
+    assertEquals(2L, filter.getValue().storeId);
+  }
+
+  @Test
+  void listShouldOmitNextLinkOnLastPage() {
+    when(useCase.list(any(), any(), eq(100)))
+        .thenReturn(new FulfilmentAssociationPage(List.of(), null));
+
+    var response = resource.list(null, null, null, null, 100);
+
+    assertNull(response.getLink("next"));
+  }
+
+  @Test
+  void streamShouldWriteOneJsonLinePerAssociation() throws IOException {
+    doAnswer(
+            invocation -> {
+              Consumer<FulfilmentAssociation> consumer = invocation.getArgument(2);
+              consumer.accept(association(1L, 10L, 20L, "BU-1"));
+              consumer.accept(association(2L, 11L, 20L, "BU-2"));
+              return null;
+            })
+        .when(useCase)
+        .stream(any(), eq(null), any());
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    resource.stream(20L, null, null, null).write(output);
+
+    String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, lines.length);
+    assertEquals(
+        "{\"id\":1,\"productId\":10,\"storeId\":20,\"warehouseBusinessUnitCode\":\"BU-1\"}",
+        lines[0]);
   }
 
   @Test
@@ -43,4 +110,72 @@ class FulfilmentAssociationResourceUnitTest {
     assertSame(association, response.getEntity());
     verify(useCase).associate(request);
   }
+
+  @Test
+  void associateBatchShouldDelegateToUseCase() {
+    List<FulfilmentAssociationRequest> requests = List.of(new FulfilmentAssociationRequest());
+    List<FulfilmentAssociationBatchResult> results = List.of(new FulfilmentAssociationBatchResult());
+    when(useCase.associateAll(requests)).thenReturn(results);
+
+    assertSame(results, resource.associateBatch(requests));
+  }
+
+  @Test
+  void associateBatchStreamShouldParseOneRequestPerLine() throws IOException {
+    String body =
+        "{\"productId\":1,\"storeId\":2,\"warehouseIdentifier\":\"MWH.001\"}\n"
+            + "\n"
+            + "{\"productId\":3,\"storeId\":4,\"warehouseIdentifier\":\"MWH.012\"}\n";
+
+    resource.associateBatchStream(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+    ArgumentCaptor<List<FulfilmentAssociationRequest>> captor = ArgumentCaptor.forClass(List.class);
+    verify(useCase).associateAll(captor.capture());
+    assertEquals(2, captor.getValue().size());
+    assertEquals(1L, captor.getValue().get(0).productId);
+    assertEquals("MWH.012", captor.getValue().get(1).warehouseIdentifier);
+  }
+
+  @Test
+  void associateBatchStreamShouldRejectMalformedLines() {
+    String body = "{\"productId\":1}\nnot-json\n";
+
+    assertThrows(
+        UnprocessableEntityException.class,
+        () ->
+            resource.associateBatchStream(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))));
+  }
+
+  @Test
+  void associateBatchStreamShouldStopReadingOnceTheBatchIsTooLarge() {
+    byte[] line =
+        "{\"productId\":1,\"storeId\":2,\"warehouseIdentifier\":\"MWH.001\"}\n"
+            .getBytes(StandardCharsets.UTF_8);
+    long[] bytesRead = new long[1];
+    // An endless body: the resource has to give up on its own.
+    InputStream endless =
+        new InputStream() {
+          @Override
+          public int read() {
+            return line[(int) (bytesRead[0]++ % line.length)];
+          }
+        };
+
+    assertThrows(UnprocessableEntityException.class, () -> resource.associateBatchStream(endless));
+    verify(useCase, never()).associateAll(any());
+    assertTrue(
+        bytesRead[0] < (long) (FulfilmentAssociationUseCase.MAX_BATCH_SIZE + 2) * line.length
+            + 16_384);
+  }
+
+  private FulfilmentAssociation association(
+      Long id, Long productId, Long storeId, String warehouseCode) {
+    FulfilmentAssociation association = new FulfilmentAssociation();
+    association.id = id;
+    association.productId = productId;
+    association.storeId = storeId;
+    association.warehouseBusinessUnitCode = warehouseCode;
+    return association;
+  }
 }
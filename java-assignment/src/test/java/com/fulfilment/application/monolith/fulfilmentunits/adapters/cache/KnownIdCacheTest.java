@@ -0,0 +1,85 @@
+package com.fulfilment.application.monolith.fulfilmentunits.adapters.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class KnownIdCacheTest {
+
+  @Test
+  void shouldRememberOnlyIdsThatExist() {
+    KnownIdCache cache = new KnownIdCache(10, Duration.ofMinutes(1));
+    AtomicInteger loads = new AtomicInteger();
+
+    assertTrue(cache.exists(1L, id -> loads.incrementAndGet() > 0));
+    assertTrue(cache.exists(1L, id -> loads.incrementAndGet() > 0));
+    assertFalse(cache.exists(2L, id -> loads.incrementAndGet() < 0));
+    assertFalse(cache.exists(2L, id -> loads.incrementAndGet() < 0));
+
+    assertEquals(3, loads.get());
+  }
+
+  @Test
+  void invalidatedIdShouldBeLoadedAgain() {
+    KnownIdCache cache = new KnownIdCache(10, Duration.ofMinutes(1));
+    cache.add(1L);
+
+    cache.invalidate(1L);
+
+    assertFalse(cache.exists(1L, id -> false));
+  }
+
+  @Test
+  void loadRacingWithAnInvalidationShouldNotBeRemembered() {
+    KnownIdCache cache = new KnownIdCache(10, Duration.ofMinutes(1));
+
+    // The row was read just before a concurrent delete committed and invalidated it.
+    assertTrue(
+        cache.exists(
+            1L,
+            id -> {
+              cache.invalidate(id);
+              return true;
+            }));
+
+    assertFalse(cache.exists(1L, id -> false));
+  }
+
+  @Test
+  void expiredIdShouldBeLoadedAgain() {
+    AtomicLong now = new AtomicLong();
+    KnownIdCache cache = new KnownIdCache(10, Duration.ofSeconds(30), now::get);
+    cache.add(1L);
+
+    now.addAndGet(Duration.ofSeconds(29).toNanos());
+    assertTrue(cache.exists(1L, id -> false));
+
+    // Deleted by another instance, which this one is never told about.
+    now.addAndGet(Duration.ofSeconds(1).toNanos());
+    assertFalse(cache.exists(1L, id -> false));
+  }
+
+  @Test
+  void shouldStayWithinItsBound() {
+    KnownIdCache cache = new KnownIdCache(3, Duration.ofMinutes(1));
+
+    for (long id = 0; id < 10; id++) {
+      cache.add(id);
+    }
+
+    assertTrue(cache.size() <= 3);
+    assertTrue(cache.exists(9L, id -> false));
+  }
+
+  @Test
+  void shouldRejectEmptyBound() {
+    assertThrows(IllegalArgumentException.class, () -> new KnownIdCache(0, Duration.ofMinutes(1)));
+    assertThrows(IllegalArgumentException.class, () -> new KnownIdCache(10, Duration.ZERO));
+  }
+}
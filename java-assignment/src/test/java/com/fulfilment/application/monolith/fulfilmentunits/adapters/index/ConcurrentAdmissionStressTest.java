@@ -0,0 +1,287 @@
+package com.fulfilment.application.monolith.fulfilmentunits.adapters.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.fulfilmentunits.FulfilmentAssociation;
+import com.fulfilment.application.monolith.fulfilmentunits.FulfilmentAssociationRequest;
+import com.fulfilment.application.monolith.fulfilmentunits.application.usecases.FulfilmentAssociationUseCase;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationFilter;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationGraph;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentConstraintSnapshot;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.FulfilmentAssociationStore;
+import com.fulfilment.application.monolith.shared.application.exceptions.ApplicationException;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentAdmissionStressTest {
+
+  private static final Logger LOGGER = Logger.getLogger(ConcurrentAdmissionStressTest.class);
+
+  private static final int THREADS = 16;
+
+  @Test
+  void concurrentAssociationsShouldNeverExceedAnyLimit() throws Exception {
+    // A handful of keys so that nearly every request contends with another one.
+    Harness harness = new Harness(new StripedAdmissionLocks(1024, 10_000), 0);
+
+    harness.run(2_000, 4, 12, 8);
+
+    assertTrue(harness.store.committed.size() > 0);
+    assertLimitsHold(harness.store.committed);
+  }
+
+  // A benchmark rather than a check, so it is left out of the regular test run. Run it with
+  // mvn test -Dsurefire.excludedGroups= -Dgroups=benchmark
+  @Test
+  @Tag("benchmark")
+  void stripedAdmissionThroughputShouldBeComparedAgainstAGlobalLock() throws Exception {
+    // Stores are spread widely so that requests rarely share a stripe, and every insert waits
+    // the way a database round trip would. One stripe is equivalent to a single global lock.
+    double global =
+        new Harness(new StripedAdmissionLocks(1, 10_000), 50_000).run(300, 500, 20, 200);
+    double striped =
+        new Harness(new StripedAdmissionLocks(1024, 10_000), 50_000).run(300, 500, 20, 200);
+
+    // Logged rather than asserted: the ratio depends on the cores of the machine running it.
+    LOGGER.infof(
+        "Association admission throughput: global lock %.0f/s, 1024 stripes %.0f/s",
+        global, striped);
+    assertTrue(global > 0 && striped > 0);
+  }
+
+  private void assertLimitsHold(Collection<FulfilmentAssociation> associations) {
+    Set<String> unique = new HashSet<>();
+    Map<String, Set<String>> warehousesByProductAndStore = new HashMap<>();
+    Map<Long, Set<String>> warehousesByStore = new HashMap<>();
+    Map<String, Set<Long>> productsByWarehouse = new HashMap<>();
+
+    for (FulfilmentAssociation association : associations) {
+      String warehouse = association.warehouseBusinessUnitCode;
+      assertTrue(
+          unique.add(association.productId + "/" + association.storeId + "/" + warehouse),
+          "duplicate association");
+      warehousesByProductAndStore
+          .computeIfAbsent(association.productId + "/" + association.storeId, k -> new HashSet<>())
+          .add(warehouse);
+      warehousesByStore.computeIfAbsent(association.storeId, k -> new HashSet<>()).add(warehouse);
+      productsByWarehouse
+          .computeIfAbsent(warehouse, k -> new HashSet<>())
+          .add(association.productId);
+    }
+
+    warehousesByProductAndStore.values().forEach(set -> assertTrue(set.size() <= 2));
+    warehousesByStore.values().forEach(set -> assertTrue(set.size() <= 3));
+    productsByWarehouse.values().forEach(set -> assertTrue(set.size() <= 5));
+  }
+
+  private static final class Harness {
+
+    private final RecordingStore store;
+    private final ThreadLocalTransactions transactions = new ThreadLocalTransactions();
+    private final FulfilmentAssociationUseCase useCase;
+
+    private Harness(StripedAdmissionLocks locks, long insertLatencyNanos) {
+      store = new RecordingStore(insertLatencyNanos);
+      InMemoryFulfilmentConstraintIndex index =
+          new InMemoryFulfilmentConstraintIndex(store, transactions, locks, true);
+      index.rebuild();
+      useCase =
+          new FulfilmentAssociationUseCase(
+              productId -> true, storeId -> true, identifier -> identifier, store, index);
+    }
+
+    private double run(int requestsPerThread, int stores, int products, int warehouses)
+        throws Exception {
+      ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<?>> futures = new ArrayList<>();
+      try {
+        for (int thread = 0; thread < THREADS; thread++) {
+          futures.add(
+              executor.submit(
+                  () -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int request = 0; request < requestsPerThread; request++) {
+                      associate(
+                          1L + random.nextInt(products),
+                          1L + random.nextInt(stores),
+                          "BU-" + random.nextInt(warehouses));
+                    }
+                    return null;
+                  }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+          future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        assertEquals(0, transactions.open());
+        return THREADS * requestsPerThread / (elapsed / 1e9);
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+
+    private void associate(Long productId, Long storeId, String warehouse) {
+      FulfilmentAssociationRequest request = new FulfilmentAssociationRequest();
+      request.productId = productId;
+      request.storeId = storeId;
+      request.warehouseIdentifier = warehouse;
+
+      transactions.begin();
+      try {
+        useCase.associate(request);
+        transactions.complete(Status.STATUS_COMMITTED);
+      } catch (ApplicationException e) {
+        transactions.complete(Status.STATUS_ROLLEDBACK);
+      }
+    }
+  }
+
+  private static final class RecordingStore implements FulfilmentAssociationStore {
+
+    private final Queue<FulfilmentAssociation> committed = new ConcurrentLinkedQueue<>();
+    private final long insertLatencyNanos;
+
+    private RecordingStore(long insertLatencyNanos) {
+      this.insertLatencyNanos = insertLatencyNanos;
+    }
+
+    @Override
+    public void create(FulfilmentAssociation association) {
+      // Widens the window between reading the index and the commit becoming visible.
+      if (insertLatencyNanos > 0) {
+        LockSupport.parkNanos(insertLatencyNanos);
+      } else {
+        Thread.yield();
+      }
+      committed.add(association);
+    }
+
+    @Override
+    public void createAll(List<FulfilmentAssociation> associations) {
+      associations.forEach(this::create);
+    }
+
+    @Override
+    public List<FulfilmentAssociation> listPage(
+        FulfilmentAssociationFilter filter, Long afterId, int limit) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void forEachAssociation(
+        FulfilmentAssociationFilter filter,
+        Long afterId,
+        Consumer<FulfilmentAssociation> consumer) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FulfilmentConstraintSnapshot loadConstraintSnapshot(
+        Long productId, Long storeId, String warehouseBusinessUnitCode) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FulfilmentAssociationGraph loadConstraintGraph(
+        Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void lockForAdmission(
+        Collection<Long> storeIds, Collection<String> warehouseBusinessUnitCodes) {
+      // Stands in for the database lock, which is always taken behind the striped locks; within
+      // one JVM the stripes already serialize the same keys.
+    }
+
+    @Override
+    public void forEachAssociationByStore(Consumer<FulfilmentAssociation> consumer) {}
+  }
+
+  private static final class ThreadLocalTransactions
+      implements TransactionSynchronizationRegistry {
+
+    private final ThreadLocal<Map<Object, Object>> resources = new ThreadLocal<>();
+    private final ThreadLocal<List<Synchronization>> synchronizations = new ThreadLocal<>();
+    private final Set<Thread> openTransactions = ConcurrentHashMap.newKeySet();
+
+    private void begin() {
+      resources.set(new HashMap<>());
+      synchronizations.set(new ArrayList<>());
+      openTransactions.add(Thread.currentThread());
+    }
+
+    private void complete(int status) {
+      List<Synchronization> registered = synchronizations.get();
+      resources.remove();
+      synchronizations.remove();
+      openTransactions.remove(Thread.currentThread());
+      registered.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private int open() {
+      return openTransactions.size();
+    }
+
+    @Override
+    public Object getTransactionKey() {
+      return Thread.currentThread();
+    }
+
+    @Override
+    public void putResource(Object key, Object value) {
+      resources.get().put(key, value);
+    }
+
+    @Override
+    public Object getResource(Object key) {
+      return resources.get().get(key);
+    }
+
+    @Override
+    public void registerInterposedSynchronization(Synchronization synchronization) {
+      synchronizations.get().add(synchronization);
+    }
+
+    @Override
+    public int getTransactionStatus() {
+      return Status.STATUS_ACTIVE;
+    }
+
+    @Override
+    public void setRollbackOnly() {}
+
+    @Override
+    public boolean getRollbackOnly() {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package com.fulfilment.application.monolith.fulfilmentunits.adapters.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.fulfilmentunits.FulfilmentAssociation;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationGraph;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentConstraintSnapshot;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.FulfilmentAssociationStore;
+import com.fulfilment.application.monolith.shared.application.exceptions.ConflictException;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class InMemoryFulfilmentConstraintIndexTest {
+
+  private FulfilmentAssociationStore store;
+  private TransactionSynchronizationRegistry registry;
+  private InMemoryFulfilmentConstraintIndex index;
+
+  @BeforeEach
+  void setUp() {
+    store = mock(FulfilmentAssociationStore.class);
+    registry = mock(TransactionSynchronizationRegistry.class);
+    index = newIndex(true);
+  }
+
+  @Test
+  void snapshotShouldFallBackToStoreUntilIndexIsBuilt() {
+    FulfilmentConstraintSnapshot snapshot = FulfilmentConstraintSnapshot.EMPTY;
+    when(store.loadConstraintSnapshot(1L, 2L, "BU-1")).thenReturn(snapshot);
+    FulfilmentAssociationGraph graph = new FulfilmentAssociationGraph();
+    when(store.loadConstraintGraph(Set.of(2L), Set.of("BU-1"))).thenReturn(graph);
+
+    assertSame(snapshot, index.snapshot(1L, 2L, "BU-1"));
+    assertSame(graph, index.subgraph(Set.of(2L), Set.of("BU-1")));
+  }
+
+  @Test
+  void snapshotShouldBeServedFromMemoryAfterRebuild() {
+    streamAssociations(association(1L, 2L, "BU-1"), association(3L, 2L, "BU-2"));
+
+    index.rebuild();
+    FulfilmentConstraintSnapshot snapshot = index.snapshot(1L, 2L, "BU-1");
+
+    assertTrue(snapshot.associationExists);
+    assertEquals(2L, snapshot.warehousesForStore);
+    assertTrue(index.subgraph(Set.of(2L), Set.of()).snapshot(3L, 2L, "BU-2").associationExists);
+    verify(store, never()).loadConstraintSnapshot(any(), any(), any());
+    verify(store, never()).loadConstraintGraph(any(), any());
+  }
+
+  @Test
+  void recordedAssociationsShouldOnlyBeVisibleOnceCommitted() {
+    streamAssociations();
+    index.rebuild();
+
+    index.recordOnCommit(List.of(association(1L, 2L, "BU-1")));
+    Synchronization synchronization = capturedSynchronization();
+
+    assertFalse(index.snapshot(1L, 2L, "BU-1").associationExists);
+    synchronization.afterCompletion(Status.STATUS_COMMITTED);
+    assertTrue(index.snapshot(1L, 2L, "BU-1").associationExists);
+  }
+
+  @Test
+  void rolledBackAssociationsShouldBeDiscarded() {
+    streamAssociations();
+    index.rebuild();
+
+    index.recordOnCommit(List.of(association(1L, 2L, "BU-1")));
+    capturedSynchronization().afterCompletion(Status.STATUS_ROLLEDBACK);
+
+    assertFalse(index.snapshot(1L, 2L, "BU-1").associationExists);
+  }
+
+  @Test
+  void admissionShouldBeHeldUntilTheTransactionCompletes() {
+    index.lockForAdmission(List.of(2L), List.of("BU-1"));
+    Synchronization synchronization = capturedSynchronization();
+
+    assertThrows(
+        ConflictException.class, () -> index.lockForAdmission(List.of(2L), List.of("BU-9")));
+    assertThrows(
+        ConflictException.class, () -> index.lockForAdmission(List.of(7L), List.of("BU-1")));
+
+    synchronization.afterCompletion(Status.STATUS_ROLLEDBACK);
+    index.lockForAdmission(List.of(2L), List.of("BU-1"));
+    // The database lock is taken behind the striped one every time.
+    verify(store, times(2)).lockForAdmission(List.of(2L), List.of("BU-1"));
+  }
+
+  @Test
+  void disabledIndexShouldAlwaysUseStore() {
+    index = newIndex(false);
+
+    index.onStart(null);
+    index.lockForAdmission(List.of(2L), List.of("BU-1"));
+    index.recordOnCommit(List.of(association(1L, 2L, "BU-1")));
+    index.snapshot(1L, 2L, "BU-1");
+
+    verify(store).lockForAdmission(List.of(2L), List.of("BU-1"));
+    verify(store).loadConstraintSnapshot(1L, 2L, "BU-1");
+    verify(store, never()).forEachAssociationByStore(any());
+    verifyNoInteractions(registry);
+  }
+
+  private InMemoryFulfilmentConstraintIndex newIndex(boolean enabled) {
+    return new InMemoryFulfilmentConstraintIndex(
+        store, registry, new StripedAdmissionLocks(16, 10), enabled);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void streamAssociations(FulfilmentAssociation... associations) {
+    doAnswer(
+            invocation -> {
+              Consumer<FulfilmentAssociation> consumer = invocation.getArgument(0);
+              List.of(associations).forEach(consumer);
+              return null;
+            })
+        .when(store)
+        .forEachAssociationByStore(any());
+  }
+
+  private Synchronization capturedSynchronization() {
+    ArgumentCaptor<Synchronization> captor = ArgumentCaptor.forClass(Synchronization.class);
+    verify(registry).registerInterposedSynchronization(captor.capture());
+    return captor.getValue();
+  }
+
+  private FulfilmentAssociation association(Long productId, Long storeId, String warehouseCode) {
+    FulfilmentAssociation association = new FulfilmentAssociation();
+    association.productId = productId;
+    association.storeId = storeId;
+    association.warehouseBusinessUnitCode = warehouseCode;
+    return association;
+  }
+}
@@ -3,28 +3,62 @@ package com.fulfilment.application.monolith.fulfilmentunits.adapters.products;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.fulfilmentunits.adapters.cache.KnownIdCache;
+import com.fulfilment.application.monolith.products.ProductLifecycleEvent;
 import com.fulfilment.application.monolith.products.ProductRepository;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 class ProductLookupAdapterTest {
 
+  private ProductRepository repository;
+  private ProductLookupAdapter adapter;
+
+  @BeforeEach
+  void setUp() {
+    repository = mock(ProductRepository.class);
+    adapter = new ProductLookupAdapter(repository, new KnownIdCache(100, Duration.ofMinutes(1)));
+  }
+
   @Test
-  void existsByIdShouldReturnTrueWhenProductExists() {
-    ProductRepository repository = mock(ProductRepository.class);
-    when(repository.findById(1L)).thenReturn(new Product("TONSTAD"));
-    ProductLookupAdapter adapter = new ProductLookupAdapter(repository);
+  void existsByIdShouldQueryOnceAndThenAnswerFromMemory() {
+    when(repository.count("id", 1L)).thenReturn(1L);
 
     assertTrue(adapter.existsById(1L));
+    assertTrue(adapter.existsById(1L));
+
+    verify(repository, times(1)).count("id", 1L);
+  }
+
+  @Test
+  void existsByIdShouldKeepAskingWhileProductIsMissing() {
+    when(repository.count("id", 1L)).thenReturn(0L);
+
+    assertFalse(adapter.existsById(1L));
+    assertFalse(adapter.existsById(1L));
+
+    verify(repository, times(2)).count("id", 1L);
   }
 
   @Test
-  void existsByIdShouldReturnFalseWhenProductMissing() {
-    ProductRepository repository = mock(ProductRepository.class);
-    when(repository.findById(1L)).thenReturn(null);
-    ProductLookupAdapter adapter = new ProductLookupAdapter(repository);
+  void createdProductShouldBeKnownWithoutQuery() {
+    adapter.onCreated(ProductLifecycleEvent.created(5L));
+
+    assertTrue(adapter.existsById(5L));
+    verify(repository, times(0)).count("id", 5L);
+  }
+
+  @Test
+  void deletedProductShouldBeLookedUpAgain() {
+    when(repository.count("id", 1L)).thenReturn(1L, 0L);
+    assertTrue(adapter.existsById(1L));
+
+    adapter.onDeleted(ProductLifecycleEvent.deleted(1L));
 
     assertFalse(adapter.existsById(1L));
   }
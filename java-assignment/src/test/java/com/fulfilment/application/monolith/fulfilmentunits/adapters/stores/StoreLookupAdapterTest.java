@@ -3,28 +3,62 @@ package com.fulfilment.application.monolith.fulfilmentunits.adapters.stores;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.fulfilmentunits.adapters.cache.KnownIdCache;
+import com.fulfilment.application.monolith.stores.StoreLifecycleEvent;
 import com.fulfilment.application.monolith.stores.adapters.database.StoreRepository;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 class StoreLookupAdapterTest {
 
+  private StoreRepository repository;
+  private StoreLookupAdapter adapter;
+
+  @BeforeEach
+  void setUp() {
+    repository = mock(StoreRepository.class);
+    adapter = new StoreLookupAdapter(repository, new KnownIdCache(100, Duration.ofMinutes(1)));
+  }
+
   @Test
-  void existsByIdShouldReturnTrueWhenStoreExists() {
-    StoreRepository repository = mock(StoreRepository.class);
-    when(repository.findById(1L)).thenReturn(new Store("TONSTAD"));
-    StoreLookupAdapter adapter = new StoreLookupAdapter(repository);
+  void existsByIdShouldQueryOnceAndThenAnswerFromMemory() {
+    when(repository.count("id", 1L)).thenReturn(1L);
 
     assertTrue(adapter.existsById(1L));
+    assertTrue(adapter.existsById(1L));
+
+    verify(repository, times(1)).count("id", 1L);
+  }
+
+  @Test
+  void existsByIdShouldKeepAskingWhileStoreIsMissing() {
+    when(repository.count("id", 1L)).thenReturn(0L);
+
+    assertFalse(adapter.existsById(1L));
+    assertFalse(adapter.existsById(1L));
+
+    verify(repository, times(2)).count("id", 1L);
   }
 
   @Test
-  void existsByIdShouldReturnFalseWhenStoreMissing() {
-    StoreRepository repository = mock(StoreRepository.class);
-    when(repository.findById(1L)).thenReturn(null);
-    StoreLookupAdapter adapter = new StoreLookupAdapter(repository);
+  void createdStoreShouldBeKnownWithoutQuery() {
+    adapter.onCreated(StoreLifecycleEvent.created(5L));
+
+    assertTrue(adapter.existsById(5L));
+    verify(repository, times(0)).count("id", 5L);
+  }
+
+  @Test
+  void deletedStoreShouldBeLookedUpAgain() {
+    when(repository.count("id", 1L)).thenReturn(1L, 0L);
+    assertTrue(adapter.existsById(1L));
+
+    adapter.onDeleted(StoreLifecycleEvent.deleted(1L));
 
     assertFalse(adapter.existsById(1L));
   }
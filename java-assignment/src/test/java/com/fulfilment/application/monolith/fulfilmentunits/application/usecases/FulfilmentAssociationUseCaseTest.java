@@ -1,16 +1,27 @@
 package com.fulfilment.application.monolith.fulfilmentunits.application.usecases;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import com.fulfilment.application.monolith.fulfilmentunits.FulfilmentAssociation;
+import com.fulfilment.application.monolith.fulfilmentunits.FulfilmentAssociationBatchResult;
 import com.fulfilment.application.monolith.fulfilmentunits.FulfilmentAssociationRequest;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationFilter;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationGraph;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentAssociationPage;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.models.FulfilmentConstraintSnapshot;
 import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.FulfilmentAssociationStore;
+import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.FulfilmentConstraintIndex;
 import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.ProductLookupPort;
 import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.StoreLookupPort;
 import com.fulfilment.application.monolith.fulfilmentunits.domain.ports.WarehouseLookupPort;
@@ -19,8 +30,11 @@ import com.fulfilment.application.monolith.shared.application.exceptions.Conflic
 import com.fulfilment.application.monolith.shared.application.exceptions.NotFoundException;
 import com.fulfilment.application.monolith.shared.application.exceptions.UnprocessableEntityException;
 import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 
 class FulfilmentAssociationUseCaseTest {
 
@@ -28,6 +42,7 @@ class FulfilmentAssociationUseCaseTest {
   private StoreLookupPort storeLookupPort;
   private WarehouseLookupPort warehouseLookupPort;
   private FulfilmentAssociationStore fulfilmentAssociationStore;
+  private FulfilmentConstraintIndex fulfilmentConstraintIndex;
   private FulfilmentAssociationUseCase useCase;
 
   @BeforeEach
@@ -36,17 +51,51 @@ class FulfilmentAssociationUseCaseTest {
     storeLookupPort = mock(StoreLookupPort.class);
     warehouseLookupPort = mock(WarehouseLookupPort.class);
     fulfilmentAssociationStore = mock(FulfilmentAssociationStore.class);
+    fulfilmentConstraintIndex = mock(FulfilmentConstraintIndex.class);
     useCase =
         new FulfilmentAssociationUseCase(
-            productLookupPort, storeLookupPort, warehouseLookupPort, fulfilmentAssociationStore);
+            productLookupPort,
+            storeLookupPort,
+            warehouseLookupPort,
+            fulfilmentAssociationStore,
+            fulfilmentConstraintIndex);
   }
 
   @Test
-  void listShouldDelegateToStore() {
-    List<FulfilmentAssociation> associations = List.of(new FulfilmentAssociation());
-    when(fulfilmentAssociationStore.listAllById()).thenReturn(associations);
+  void listShouldReturnNextCursorWhenMoreRowsExist() {
+    FulfilmentAssociationFilter filter = new FulfilmentAssociationFilter(2L, null, null);
+    when(fulfilmentAssociationStore.listPage(filter, 10L, 3))
+        .thenReturn(List.of(withId(11L), withId(12L), withId(13L)));
 
-    assertSame(associations, useCase.list());
+    FulfilmentAssociationPage page = useCase.list(filter, 10L, 2);
+
+    assertEquals(2, page.items.size());
+    assertEquals(12L, page.nextAfterId);
+  }
+
+  @Test
+  void listShouldNotReturnCursorOnLastPage() {
+    when(fulfilmentAssociationStore.listPage(FulfilmentAssociationFilter.NONE, null, 3))
+        .thenReturn(List.of(withId(1L), withId(2L)));
+
+    FulfilmentAssociationPage page = useCase.list(FulfilmentAssociationFilter.NONE, null, 2);
+
+    assertEquals(2, page.items.size());
+    assertNull(page.nextAfterId);
+  }
+
+  @Test
+  void listShouldRejectLimitOutsideBounds() {
+    assertThrows(
+        UnprocessableEntityException.class,
+        () -> useCase.list(FulfilmentAssociationFilter.NONE, null, 0));
+    assertThrows(
+        UnprocessableEntityException.class,
+        () ->
+            useCase.list(
+                FulfilmentAssociationFilter.NONE,
+                null,
+                FulfilmentAssociationUseCase.MAX_PAGE_SIZE + 1));
   }
 
   @Test
@@ -109,7 +158,7 @@ class FulfilmentAssociationUseCaseTest {
   void associateShouldFailWhenAssociationAlreadyExists() {
     FulfilmentAssociationRequest request = validRequest();
     mockLookupSuccess(request);
-    when(fulfilmentAssociationStore.existsAssociation(1L, 2L, "BU-1")).thenReturn(true);
+    mockSnapshot(new FulfilmentConstraintSnapshot(true, 1, true, 1, true, 1));
 
     assertThrows(ConflictException.class, () -> useCase.associate(request));
   }
@@ -118,8 +167,7 @@ class FulfilmentAssociationUseCaseTest {
   void associateShouldFailWhenProductStoreHasTwoWarehousesAlready() {
     FulfilmentAssociationRequest request = validRequest();
     mockLookupSuccess(request);
-    when(fulfilmentAssociationStore.existsAssociation(1L, 2L, "BU-1")).thenReturn(false);
-    when(fulfilmentAssociationStore.countDistinctWarehousesForProductAndStore(1L, 2L)).thenReturn(2L);
+    mockSnapshot(new FulfilmentConstraintSnapshot(false, 2, false, 2, false, 1));
 
     assertThrows(BadRequestException.class, () -> useCase.associate(request));
   }
@@ -128,10 +176,7 @@ class FulfilmentAssociationUseCaseTest {
   void associateShouldFailWhenStoreWouldExceedThreeWarehouses() {
     FulfilmentAssociationRequest request = validRequest();
     mockLookupSuccess(request);
-    when(fulfilmentAssociationStore.existsAssociation(1L, 2L, "BU-1")).thenReturn(false);
-    when(fulfilmentAssociationStore.countDistinctWarehousesForProductAndStore(1L, 2L)).thenReturn(1L);
-    when(fulfilmentAssociationStore.existsWarehouseForStore(2L, "BU-1")).thenReturn(false);
-    when(fulfilmentAssociationStore.countDistinctWarehousesForStore(2L)).thenReturn(3L);
+    mockSnapshot(new FulfilmentConstraintSnapshot(false, 1, false, 3, false, 1));
 
     assertThrows(BadRequestException.class, () -> useCase.associate(request));
   }
@@ -140,23 +185,27 @@ class FulfilmentAssociationUseCaseTest {
   void associateShouldFailWhenWarehouseWouldExceedFiveProductTypes() {
     FulfilmentAssociationRequest request = validRequest();
     mockLookupSuccess(request);
-    when(fulfilmentAssociationStore.existsAssociation(1L, 2L, "BU-1")).thenReturn(false);
-    when(fulfilmentAssociationStore.countDistinctWarehousesForProductAndStore(1L, 2L)).thenReturn(1L);
-    when(fulfilmentAssociationStore.existsWarehouseForStore(2L, "BU-1")).thenReturn(true);
-    when(fulfilmentAssociationStore.existsProductForWarehouse("BU-1", 1L)).thenReturn(false);
-    when(fulfilmentAssociationStore.countDistinctProductsForWarehouse("BU-1")).thenReturn(5L);
+    mockSnapshot(new FulfilmentConstraintSnapshot(false, 1, true, 3, false, 5));
 
     assertThrows(BadRequestException.class, () -> useCase.associate(request));
   }
 
+  @Test
+  void associateShouldAllowLimitsAlreadyReachedByTheSameWarehouseAndProduct() {
+    FulfilmentAssociationRequest request = validRequest();
+    mockLookupSuccess(request);
+    mockSnapshot(new FulfilmentConstraintSnapshot(false, 1, true, 3, true, 5));
+
+    FulfilmentAssociation association = useCase.associate(request);
+
+    assertEquals("BU-1", association.warehouseBusinessUnitCode);
+  }
+
   @Test
   void associateShouldPersistAssociationWhenAllRulesPass() {
     FulfilmentAssociationRequest request = validRequest();
     mockLookupSuccess(request);
-    when(fulfilmentAssociationStore.existsAssociation(1L, 2L, "BU-1")).thenReturn(false);
-    when(fulfilmentAssociationStore.countDistinctWarehousesForProductAndStore(1L, 2L)).thenReturn(1L);
-    when(fulfilmentAssociationStore.existsWarehouseForStore(2L, "BU-1")).thenReturn(true);
-    when(fulfilmentAssociationStore.existsProductForWarehouse("BU-1", 1L)).thenReturn(true);
+    mockSnapshot(new FulfilmentConstraintSnapshot(false, 1, true, 1, true, 1));
 
     FulfilmentAssociation association = useCase.associate(request);
 
@@ -166,6 +215,98 @@ class FulfilmentAssociationUseCaseTest {
     verify(fulfilmentAssociationStore).create(any(FulfilmentAssociation.class));
   }
 
+  @Test
+  void associateShouldEvaluateAllRulesFromTheIndexWithoutCountQueries() {
+    FulfilmentAssociationRequest request = validRequest();
+    mockLookupSuccess(request);
+    mockSnapshot(FulfilmentConstraintSnapshot.EMPTY);
+
+    FulfilmentAssociation association = useCase.associate(request);
+
+    InOrder inOrder = inOrder(fulfilmentConstraintIndex);
+    inOrder.verify(fulfilmentConstraintIndex).lockForAdmission(List.of(2L), List.of("BU-1"));
+    inOrder.verify(fulfilmentConstraintIndex).snapshot(1L, 2L, "BU-1");
+    inOrder.verify(fulfilmentConstraintIndex).recordOnCommit(List.of(association));
+    verify(fulfilmentAssociationStore).create(association);
+    verifyNoMoreInteractions(fulfilmentAssociationStore);
+  }
+
+  @Test
+  void associateAllShouldFailWhenBatchIsEmpty() {
+    assertThrows(UnprocessableEntityException.class, () -> useCase.associateAll(List.of()));
+  }
+
+  @Test
+  void associateAllShouldReportEachItemAndPersistAdmittedOnesInOneBatch() {
+    when(productLookupPort.existsById(anyLong())).thenReturn(true);
+    when(productLookupPort.existsById(99L)).thenReturn(false);
+    when(storeLookupPort.existsById(anyLong())).thenReturn(true);
+    when(warehouseLookupPort.resolveBusinessUnitCode("W-1")).thenReturn("BU-1");
+    when(warehouseLookupPort.resolveBusinessUnitCode("W-2")).thenReturn("BU-2");
+    when(warehouseLookupPort.resolveBusinessUnitCode("W-3")).thenReturn("BU-3");
+    when(fulfilmentConstraintIndex.subgraph(any(), any())).thenReturn(new FulfilmentAssociationGraph());
+
+    List<FulfilmentAssociationBatchResult> results =
+        useCase.associateAll(
+            List.of(
+                request(1L, 2L, "W-1"),
+                request(1L, 2L, "W-1"),
+                request(99L, 2L, "W-1"),
+                request(1L, 2L, "W-2"),
+                request(1L, 2L, "W-3")));
+
+    assertEquals(5, results.size());
+    assertEquals(201, results.get(0).status);
+    assertEquals(409, results.get(1).status);
+    assertEquals(404, results.get(2).status);
+    assertEquals(201, results.get(3).status);
+    assertEquals(400, results.get(4).status);
+    assertEquals(4, results.get(4).index);
+
+    ArgumentCaptor<List<FulfilmentAssociation>> captor = ArgumentCaptor.forClass(List.class);
+    verify(fulfilmentAssociationStore).createAll(captor.capture());
+    assertEquals(2, captor.getValue().size());
+    verify(fulfilmentConstraintIndex).recordOnCommit(captor.getValue());
+    verify(productLookupPort, times(1)).existsById(1L);
+    verify(warehouseLookupPort, times(1)).resolveBusinessUnitCode("W-1");
+  }
+
+  @Test
+  void associateAllShouldApplyLimitsAgainstPersistedAssociations() {
+    when(productLookupPort.existsById(anyLong())).thenReturn(true);
+    when(storeLookupPort.existsById(anyLong())).thenReturn(true);
+    when(warehouseLookupPort.resolveBusinessUnitCode("W-4")).thenReturn("BU-4");
+    FulfilmentAssociationGraph persisted = new FulfilmentAssociationGraph();
+    persisted.add(10L, 2L, "BU-1");
+    persisted.add(11L, 2L, "BU-2");
+    persisted.add(12L, 2L, "BU-3");
+    when(fulfilmentConstraintIndex.subgraph(Set.of(2L), Set.of("BU-4"))).thenReturn(persisted);
+
+    List<FulfilmentAssociationBatchResult> results =
+        useCase.associateAll(List.of(request(1L, 2L, "W-4")));
+
+    assertEquals(400, results.get(0).status);
+    InOrder inOrder = inOrder(fulfilmentConstraintIndex);
+    inOrder.verify(fulfilmentConstraintIndex).lockForAdmission(Set.of(2L), Set.of("BU-4"));
+    inOrder.verify(fulfilmentConstraintIndex).subgraph(Set.of(2L), Set.of("BU-4"));
+    verify(fulfilmentAssociationStore, never()).createAll(any());
+  }
+
+  private FulfilmentAssociation withId(Long id) {
+    FulfilmentAssociation association = new FulfilmentAssociation();
+    association.id = id;
+    return association;
+  }
+
+  private FulfilmentAssociationRequest request(
+      Long productId, Long storeId, String warehouseIdentifier) {
+    FulfilmentAssociationRequest request = new FulfilmentAssociationRequest();
+    request.productId = productId;
+    request.storeId = storeId;
+    request.warehouseIdentifier = warehouseIdentifier;
+    return request;
+  }
+
   private FulfilmentAssociationRequest validRequest() {
     FulfilmentAssociationRequest request = new FulfilmentAssociationRequest();
     request.productId = 1L;
@@ -179,4 +320,8 @@ class FulfilmentAssociationUseCaseTest {
     when(storeLookupPort.existsById(request.storeId)).thenReturn(true);
     when(warehouseLookupPort.resolveBusinessUnitCode(request.warehouseIdentifier)).thenReturn("BU-1");
   }
+
+  private void mockSnapshot(FulfilmentConstraintSnapshot snapshot) {
+    when(fulfilmentConstraintIndex.snapshot(1L, 2L, "BU-1")).thenReturn(snapshot);
+  }
 }
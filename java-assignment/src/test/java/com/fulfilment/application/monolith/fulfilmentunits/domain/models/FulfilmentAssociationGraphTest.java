@@ -0,0 +1,98 @@
+package com.fulfilment.application.monolith.fulfilmentunits.domain.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class FulfilmentAssociationGraphTest {
+
+  @Test
+  void snapshotOfEmptyGraphShouldHaveNoAssociations() {
+    FulfilmentConstraintSnapshot snapshot =
+        new FulfilmentAssociationGraph().snapshot(1L, 2L, "BU-1");
+
+    assertFalse(snapshot.associationExists);
+    assertEquals(0L, snapshot.warehousesForProductAndStore);
+    assertEquals(0L, snapshot.warehousesForStore);
+    assertEquals(0L, snapshot.productsForWarehouse);
+  }
+
+  @Test
+  void snapshotShouldCountDistinctNeighboursOfEachKey() {
+    FulfilmentAssociationGraph graph = new FulfilmentAssociationGraph();
+    graph.add(1L, 2L, "BU-1");
+    graph.add(1L, 2L, "BU-2");
+    graph.add(3L, 2L, "BU-2");
+    graph.add(3L, 4L, "BU-2");
+
+    FulfilmentConstraintSnapshot snapshot = graph.snapshot(1L, 2L, "BU-2");
+
+    assertTrue(snapshot.associationExists);
+    assertEquals(2L, snapshot.warehousesForProductAndStore);
+    assertTrue(snapshot.storeUsesWarehouse);
+    assertEquals(2L, snapshot.warehousesForStore);
+    assertTrue(snapshot.warehouseHoldsProduct);
+    assertEquals(2L, snapshot.productsForWarehouse);
+
+    FulfilmentConstraintSnapshot otherStore = graph.snapshot(1L, 4L, "BU-1");
+
+    assertFalse(otherStore.associationExists);
+    assertEquals(0L, otherStore.warehousesForProductAndStore);
+    assertFalse(otherStore.storeUsesWarehouse);
+    assertEquals(1L, otherStore.warehousesForStore);
+    assertTrue(otherStore.warehouseHoldsProduct);
+    assertEquals(1L, otherStore.productsForWarehouse);
+  }
+
+  @Test
+  void addShouldIgnoreDuplicatesAndKeepProductsSortedWithinAStore() {
+    FulfilmentAssociationGraph graph = new FulfilmentAssociationGraph();
+
+    assertTrue(graph.add(5L, 1L, "BU-2"));
+    assertTrue(graph.add(2L, 1L, "BU-1"));
+    assertTrue(graph.add(5L, 1L, "BU-1"));
+    assertFalse(graph.add(5L, 1L, "BU-2"));
+
+    assertEquals(3L, graph.size());
+    assertEquals(2L, graph.snapshot(5L, 1L, "BU-3").warehousesForProductAndStore);
+    assertEquals(1L, graph.snapshot(2L, 1L, "BU-3").warehousesForProductAndStore);
+    assertEquals(0L, graph.snapshot(3L, 1L, "BU-3").warehousesForProductAndStore);
+  }
+
+  @Test
+  void subgraphShouldKeepEverythingTheRulesNeedForTheRequestedKeys() {
+    FulfilmentAssociationGraph graph = new FulfilmentAssociationGraph();
+    graph.add(1L, 1L, "BU-1");
+    graph.add(2L, 1L, "BU-2");
+    graph.add(3L, 2L, "BU-3");
+    graph.add(4L, 3L, "BU-3");
+
+    FulfilmentAssociationGraph subgraph = graph.subgraph(List.of(1L), List.of("BU-3"));
+
+    assertEquals(
+        graph.snapshot(1L, 1L, "BU-3").warehousesForStore,
+        subgraph.snapshot(1L, 1L, "BU-3").warehousesForStore);
+    assertEquals(2L, subgraph.snapshot(5L, 1L, "BU-3").productsForWarehouse);
+    assertTrue(subgraph.snapshot(4L, 1L, "BU-3").warehouseHoldsProduct);
+    assertTrue(subgraph.snapshot(2L, 1L, "BU-2").associationExists);
+    assertFalse(subgraph.snapshot(3L, 2L, "BU-3").associationExists);
+  }
+
+  @Test
+  void trimToSizeShouldShrinkFootprintWithoutChangingAnswers() {
+    FulfilmentAssociationGraph graph = new FulfilmentAssociationGraph();
+    for (long product = 1; product <= 5; product++) {
+      graph.add(product, 1L, "BU-1");
+    }
+    long before = graph.estimatedFootprintBytes();
+
+    graph.trimToSize();
+
+    assertTrue(graph.estimatedFootprintBytes() <= before);
+    assertEquals(5L, graph.snapshot(6L, 1L, "BU-1").productsForWarehouse);
+    assertTrue(graph.snapshot(3L, 1L, "BU-1").associationExists);
+  }
+}
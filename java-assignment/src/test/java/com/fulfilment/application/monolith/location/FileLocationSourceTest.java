@@ -0,0 +1,52 @@
+package com.fulfilment.application.monolith.location;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileLocationSourceTest {
+
+  @TempDir Path directory;
+
+  @Test
+  public void testLoadShouldParseOneLocationPerLine() throws IOException {
+    // given
+    Path file = directory.resolve("locations.csv");
+    Files.writeString(
+        file, "# identification,warehouses,capacity\nZWOLLE-001, 1, 40\n\nTILBURG-001,1,40\n");
+
+    // when
+    List<Location> locations = new FileLocationSource(file).load();
+
+    // then
+    assertEquals(2, locations.size());
+    assertEquals("ZWOLLE-001", locations.get(0).identification);
+    assertEquals(1, locations.get(0).maxNumberOfWarehouses);
+    assertEquals(40, locations.get(1).maxCapacity);
+  }
+
+  @Test
+  public void testLoadShouldRejectMalformedLines() throws IOException {
+    // given
+    Path file = directory.resolve("locations.csv");
+    Files.writeString(file, "ZWOLLE-001,one,40\n");
+
+    // when / then
+    assertThrows(IllegalArgumentException.class, () -> new FileLocationSource(file).load());
+  }
+
+  @Test
+  public void testLoadShouldReportMissingFile() {
+    assertThrows(
+        UncheckedIOException.class,
+        () -> new FileLocationSource(directory.resolve("missing.csv")).load());
+  }
+}
@@ -2,8 +2,11 @@ package com.fulfilment.application.monolith.location;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 public class LocationGatewayTest {
@@ -31,4 +34,56 @@ public class LocationGatewayTest {
     // then
     assertNull(location);
   }
+
+  @Test
+  public void testReloadShouldSwapInTheNewCatalogue() {
+    // given
+    List<List<Location>> loads =
+        new ArrayList<>(
+            List.of(
+                List.of(new Location("ZWOLLE-001", 1, 40)),
+                List.of(new Location("ROTTERDAM-001", 4, 200))));
+    LocationGateway locationGateway = new LocationGateway(() -> loads.remove(0));
+
+    // when
+    Location before = locationGateway.resolveByIdentifier("ZWOLLE-001");
+    locationGateway.reload();
+
+    // then
+    assertEquals(40, before.maxCapacity);
+    assertNull(locationGateway.resolveByIdentifier("ZWOLLE-001"));
+    assertEquals(200, locationGateway.resolveByIdentifier("ROTTERDAM-001").maxCapacity);
+  }
+
+  @Test
+  public void testFailedReloadShouldKeepThePreviousCatalogue() {
+    // given
+    List<List<Location>> loads =
+        new ArrayList<>(
+            List.of(
+                List.of(new Location("ZWOLLE-001", 1, 40)),
+                List.of(new Location("ZWOLLE-001", 1, 40), new Location("ZWOLLE-001", 2, 50))));
+    LocationGateway locationGateway = new LocationGateway(() -> loads.remove(0));
+    locationGateway.reload();
+
+    // when
+    locationGateway.reload();
+
+    // then
+    assertEquals(1, locationGateway.resolveByIdentifier("ZWOLLE-001").maxNumberOfWarehouses);
+  }
+
+  @Test
+  public void testInitialLoadFailureShouldBeReported() {
+    // given
+    LocationGateway locationGateway =
+        new LocationGateway(
+            () -> {
+              throw new IllegalStateException("source unavailable");
+            });
+
+    // when / then
+    assertThrows(
+        IllegalStateException.class, () -> locationGateway.resolveByIdentifier("ZWOLLE-001"));
+  }
 }
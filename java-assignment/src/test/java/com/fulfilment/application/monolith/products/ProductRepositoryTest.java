@@ -5,15 +5,20 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.fulfilment.application.monolith.shared.adapters.persistence.RecordingStatementInspector;
+import com.fulfilment.application.monolith.shared.application.pagination.NameCursor;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.TestTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 @QuarkusTest
 class ProductRepositoryTest {
 
   @Inject ProductRepository productRepository;
+  @Inject RecordingStatementInspector statementInspector;
 
   @Test
   @TestTransaction
@@ -30,13 +35,42 @@ class ProductRepositoryTest {
     assertNotNull(beta.id);
     assertNotNull(productRepository.findById(alpha.id));
 
-    var list = productRepository.listAllByName();
-    assertTrue(list.stream().anyMatch(p -> alpha.name.equals(p.name)));
-    assertTrue(list.stream().anyMatch(p -> beta.name.equals(p.name)));
+    var page = productRepository.listPage("ALPHA-", null, 10);
+    assertTrue(page.stream().anyMatch(p -> alpha.name.equals(p.name)));
+    assertTrue(page.stream().noneMatch(p -> beta.name.equals(p.name)));
+    var afterAlpha = productRepository.listPage(null, new NameCursor(alpha.name, alpha.id), 1000);
+    assertTrue(afterAlpha.stream().noneMatch(p -> alpha.name.equals(p.name)));
+    assertTrue(afterAlpha.stream().anyMatch(p -> beta.name.equals(p.name)));
 
     productRepository.remove(alpha);
     assertNull(productRepository.findById(alpha.id));
     assertNotNull(productRepository.findById(beta.id));
     assertEquals(beta.name, productRepository.findById(beta.id).name);
   }
+
+  @Test
+  void repeatedLookupsByIdShouldNotReachTheDatabase() {
+    // Each lookup runs in its own transaction, so only the second-level cache can serve the
+    // repeats.
+    Long id =
+        QuarkusTransaction.requiringNew()
+            .call(
+                () -> {
+                  Product product = new Product("CACHED-" + System.nanoTime());
+                  productRepository.create(product);
+                  return product.id;
+                });
+    QuarkusTransaction.requiringNew().run(() -> productRepository.findById(id));
+
+    List<String> statements =
+        statementInspector.record(
+            () -> {
+              for (int lookup = 0; lookup < 3; lookup++) {
+                QuarkusTransaction.requiringNew()
+                    .run(() -> assertNotNull(productRepository.findById(id)));
+              }
+            });
+
+    assertEquals(List.of(), statements);
+  }
 }
@@ -1,13 +1,23 @@
 package com.fulfilment.application.monolith.products;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fulfilment.application.monolith.products.application.usecases.ProductUseCase;
+import com.fulfilment.application.monolith.products.domain.models.ProductPage;
+import com.fulfilment.application.monolith.shared.application.exceptions.UnprocessableEntityException;
+import com.fulfilment.application.monolith.shared.application.pagination.NameCursor;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriBuilder;
+import jakarta.ws.rs.core.UriInfo;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -24,11 +34,41 @@ class ProductResourceUnitTest {
   }
 
   @Test
-  void getShouldDelegateToUseCase() {
+  void getShouldReturnPageWithNextLink() {
     List<Product> products = List.of(new Product("TONSTAD"));
-    when(productUseCase.list()).thenReturn(products);
+    when(productUseCase.list(eq("TON"), eq(null), eq(1)))
+        .thenReturn(new ProductPage(products, new NameCursor("TONSTAD", 1L)));
+    resource.uriInfo = mock(UriInfo.class);
+    when(resource.uriInfo.getRequestUriBuilder())
+        .thenReturn(UriBuilder.fromUri("http://localhost/product?namePrefix=TON&limit=1"));
+
+    Response response = resource.get("TON", null, 1, null);
+
+    assertSame(products, response.getEntity());
+    assertEquals(
+        "http://localhost/product?namePrefix=TON&limit=1&after="
+            + new NameCursor("TONSTAD", 1L).encode(),
+        response.getLink("next").getUri().toString());
+  }
+
+  @Test
+  void getShouldProjectSelectedFieldsAndOmitLinkOnLastPage() {
+    Product product = new Product("TONSTAD");
+    product.id = 4L;
+    when(productUseCase.list(null, null, null)).thenReturn(new ProductPage(List.of(product), null));
+
+    Response response = resource.get(null, null, null, "name,id");
 
-    assertSame(products, resource.get());
+    assertEquals(List.of(Map.of("name", "TONSTAD", "id", 4L)), response.getEntity());
+    assertNull(response.getLink("next"));
+  }
+
+  @Test
+  void getShouldRejectUnknownFieldsAndMalformedCursors() {
+    assertThrows(
+        UnprocessableEntityException.class, () -> resource.get(null, null, null, "secret"));
+    assertThrows(
+        UnprocessableEntityException.class, () -> resource.get(null, "%%%", null, null));
   }
 
   @Test
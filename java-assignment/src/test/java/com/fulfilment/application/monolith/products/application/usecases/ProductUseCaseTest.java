@@ -1,6 +1,7 @@
 package com.fulfilment.application.monolith.products.application.usecases;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
@@ -8,9 +9,12 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.products.domain.models.ProductPage;
+import com.fulfilment.application.monolith.products.domain.ports.ProductLifecyclePublisher;
 import com.fulfilment.application.monolith.products.domain.ports.ProductStore;
 import com.fulfilment.application.monolith.shared.application.exceptions.NotFoundException;
 import com.fulfilment.application.monolith.shared.application.exceptions.UnprocessableEntityException;
+import com.fulfilment.application.monolith.shared.application.pagination.NameCursor;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,20 +22,47 @@ import org.junit.jupiter.api.Test;
 class ProductUseCaseTest {
 
   private ProductStore productStore;
+  private ProductLifecyclePublisher productLifecyclePublisher;
   private ProductUseCase useCase;
 
   @BeforeEach
   void setUp() {
     productStore = mock(ProductStore.class);
-    useCase = new ProductUseCase(productStore);
+    productLifecyclePublisher = mock(ProductLifecyclePublisher.class);
+    useCase = new ProductUseCase(productStore, productLifecyclePublisher, 2);
   }
 
   @Test
-  void listShouldDelegateToStore() {
-    List<Product> products = List.of(new Product("P1"));
-    when(productStore.listAllByName()).thenReturn(products);
+  void listWithoutLimitShouldBeCappedAndReturnCursorForTheRest() {
+    Product first = product(1L, "A");
+    Product second = product(2L, "B");
+    when(productStore.listPage(null, null, 3)).thenReturn(List.of(first, second, product(3L, "C")));
 
-    assertSame(products, useCase.list());
+    ProductPage page = useCase.list(null, null, null);
+
+    assertEquals(List.of(first, second), page.items);
+    assertEquals("B", page.next.name);
+    assertEquals(2L, page.next.id);
+  }
+
+  @Test
+  void listShouldPassFilterAndCursorAndEndOnLastPage() {
+    NameCursor after = new NameCursor("A", 1L);
+    List<Product> rows = List.of(product(2L, "AB"));
+    when(productStore.listPage("A", after, 6)).thenReturn(rows);
+
+    ProductPage page = useCase.list("A", after, 5);
+
+    assertEquals(rows, page.items);
+    assertNull(page.next);
+  }
+
+  @Test
+  void listShouldRejectLimitOutsideRange() {
+    assertThrows(UnprocessableEntityException.class, () -> useCase.list(null, null, 0));
+    assertThrows(
+        UnprocessableEntityException.class,
+        () -> useCase.list(null, null, ProductUseCase.MAX_PAGE_SIZE + 1));
   }
 
   @Test
@@ -50,13 +81,14 @@ class ProductUseCaseTest {
   }
 
   @Test
-  void createShouldPersistWhenValid() {
+  void createShouldPersistAndPublishWhenValid() {
     Product product = new Product("P1");
 
     Product created = useCase.create(product);
 
     assertSame(product, created);
     verify(productStore).create(product);
+    verify(productLifecyclePublisher).publishCreated(product);
   }
 
   @Test
@@ -108,5 +140,12 @@ class ProductUseCaseTest {
     useCase.delete(1L);
 
     verify(productStore).remove(existing);
+    verify(productLifecyclePublisher).publishDeleted(existing);
+  }
+
+  private Product product(Long id, String name) {
+    Product product = new Product(name);
+    product.id = id;
+    return product;
   }
 }
@@ -0,0 +1,50 @@
+package com.fulfilment.application.monolith.shared.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fulfilment.application.monolith.shared.application.pagination.NameCursor;
+import io.quarkus.panache.common.Parameters;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class NameKeysetTest {
+
+  @Test
+  void shouldMatchEverythingWithoutPrefixOrCursor() {
+    Parameters parameters = new Parameters();
+
+    assertEquals("", NameKeyset.where(null, null, parameters));
+    assertEquals(Map.of(), parameters.map());
+  }
+
+  @Test
+  void shouldEscapeLikeWildcardsInPrefix() {
+    Parameters parameters = new Parameters();
+
+    NameKeyset.where("50%_off\\", null, parameters);
+
+    assertEquals("50\\%\\_off\\\\%", parameters.map().get("namePrefix"));
+  }
+
+  @Test
+  void shouldContinueAfterNamedRowIncludingRowsWithoutName() {
+    Parameters parameters = new Parameters();
+
+    String where = NameKeyset.where("A", new NameCursor("AB", 3L), parameters);
+
+    assertEquals(
+        "name like :namePrefix escape '\\' and "
+            + "(name > :afterName or (name = :afterName and id > :afterId) or name is null)",
+        where);
+    assertEquals(Map.of("namePrefix", "A%", "afterName", "AB", "afterId", 3L), parameters.map());
+  }
+
+  @Test
+  void shouldContinueWithinRowsWithoutName() {
+    Parameters parameters = new Parameters();
+
+    assertEquals(
+        "(name is null and id > :afterId)",
+        NameKeyset.where(null, new NameCursor(null, 9L), parameters));
+  }
+}
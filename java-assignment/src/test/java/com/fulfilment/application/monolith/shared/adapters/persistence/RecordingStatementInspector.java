@@ -0,0 +1,46 @@
+package com.fulfilment.application.monolith.shared.adapters.persistence;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Lets Quarkus tests see the SQL Hibernate actually sends. It records nothing unless a test has
+// started a recording, so it is harmless for every other test sharing the application.
+@PersistenceUnitExtension
+@ApplicationScoped
+public class RecordingStatementInspector implements StatementInspector {
+
+  private final List<String> statements = new ArrayList<>();
+  private boolean recording;
+
+  @Override
+  public synchronized String inspect(String sql) {
+    if (recording) {
+      statements.add(sql);
+    }
+    return sql;
+  }
+
+  public synchronized void start() {
+    statements.clear();
+    recording = true;
+  }
+
+  public synchronized List<String> stop() {
+    recording = false;
+    return List.copyOf(statements);
+  }
+
+  public List<String> record(Runnable action) {
+    start();
+    try {
+      action.run();
+    } catch (RuntimeException e) {
+      stop();
+      throw e;
+    }
+    return stop();
+  }
+}
@@ -0,0 +1,43 @@
+package com.fulfilment.application.monolith.shared.adapters.restapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fulfilment.application.monolith.shared.application.exceptions.UnprocessableEntityException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class FieldProjectionTest {
+
+  private final FieldProjection<String> projection =
+      new FieldProjection<>(
+          Map.<String, Function<String, Object>>of(
+              "value", value -> value, "length", String::length));
+
+  @Test
+  void shouldReturnItemsUnchangedWithoutSelection() {
+    List<String> items = List.of("a");
+
+    assertNull(projection.parse(" "));
+    assertSame(items, projection.apply(items, projection.parse(null)));
+  }
+
+  @Test
+  void shouldKeepSelectedFieldsInRequestOrder() {
+    Object projected = projection.apply(List.of("abc"), projection.parse("length, value,length"));
+
+    assertEquals(List.of(Map.of("length", 3, "value", "abc")), projected);
+    assertEquals(
+        List.of("length", "value"),
+        List.copyOf(((List<Map<String, Object>>) projected).get(0).keySet()));
+  }
+
+  @Test
+  void shouldRejectUnknownFields() {
+    assertThrows(UnprocessableEntityException.class, () -> projection.parse("value,secret"));
+  }
+}
@@ -0,0 +1,33 @@
+package com.fulfilment.application.monolith.shared.application.pagination;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fulfilment.application.monolith.shared.application.exceptions.UnprocessableEntityException;
+import org.junit.jupiter.api.Test;
+
+class NameCursorTest {
+
+  @Test
+  void shouldRoundTripNamesWithSeparatorsAndNonAsciiCharacters() {
+    NameCursor cursor = NameCursor.decode(new NameCursor("BESTÅ+-/ 2", 42L).encode());
+
+    assertEquals("BESTÅ+-/ 2", cursor.name);
+    assertEquals(42L, cursor.id);
+  }
+
+  @Test
+  void shouldRoundTripMissingName() {
+    NameCursor cursor = NameCursor.decode(new NameCursor(null, 7L).encode());
+
+    assertNull(cursor.name);
+    assertEquals(7L, cursor.id);
+  }
+
+  @Test
+  void shouldRejectMalformedTokens() {
+    assertThrows(UnprocessableEntityException.class, () -> NameCursor.decode("***"));
+    assertThrows(UnprocessableEntityException.class, () -> NameCursor.decode("YWJj"));
+  }
+}
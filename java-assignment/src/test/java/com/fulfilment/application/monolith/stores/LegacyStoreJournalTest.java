@@ -0,0 +1,165 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LegacyStoreJournalTest {
+
+  @TempDir Path directory;
+
+  @Test
+  void nameShouldBeEscapedSoEachRecordStaysOnOneLine() throws IOException {
+    try (LegacyStoreJournal journal = new LegacyStoreJournal(directory, 1024, 2)) {
+      journal.append("key-1", 'U', store(1L, "TWO\nLINES\\", 4));
+      journal.flush();
+    }
+
+    assertEquals(List.of("key-1 U 1 4 TWO\\nLINES\\\\"), lines());
+  }
+
+  @Test
+  void fullSegmentShouldRollOverAndConsumedSegmentsBeDeleted() throws IOException {
+    // Each record is 20 bytes, so a 50 byte segment holds two.
+    try (LegacyStoreJournal journal = new LegacyStoreJournal(directory, 50, 2)) {
+      for (int i = 0; i < 7; i++) {
+        journal.append("key-" + i, 'U', store(1L, "STORE-" + i, 1));
+        // The legacy system keeps up, having read every segment before the current one.
+        List<Path> segments = segments();
+        if (segments.size() > 1) {
+          consumed(segments.get(segments.size() - 2));
+        }
+      }
+      journal.flush();
+    }
+
+    assertEquals(2, segments().size());
+    assertEquals(
+        List.of("key-4 U 1 1 STORE-4", "key-5 U 1 1 STORE-5", "key-6 U 1 1 STORE-6"), lines());
+  }
+
+  @Test
+  void unreadSegmentsShouldNeverBeDeleted() throws IOException {
+    try (LegacyStoreJournal journal = new LegacyStoreJournal(directory, 50, 2)) {
+      for (int i = 0; i < 4; i++) {
+        journal.append("key-" + i, 'U', store(1L, "STORE-" + i, 1));
+      }
+      assertThrows(
+          LegacyStoreJournalFullException.class,
+          () -> journal.append("key-4", 'U', store(1L, "STORE-4", 1)));
+
+      // Once the legacy system has read the first segment, its space can be reused.
+      consumed(segments().get(0));
+      journal.append("key-4", 'U', store(1L, "STORE-4", 1));
+      journal.flush();
+    }
+
+    assertEquals(
+        List.of("key-2 U 1 1 STORE-2", "key-3 U 1 1 STORE-3", "key-4 U 1 1 STORE-4"), lines());
+  }
+
+  @Test
+  void reopenedJournalShouldStartANewSegmentAndReportRecentKeys() throws IOException {
+    try (LegacyStoreJournal journal = new LegacyStoreJournal(directory, 1024, 4)) {
+      journal.append("key-1", 'C', store(1L, "A", 1));
+      journal.append("key-2", 'U', store(1L, "A", 2));
+      journal.append("key-3", 'U', store(1L, "A", 3));
+    }
+
+    try (LegacyStoreJournal journal = new LegacyStoreJournal(directory, 1024, 4)) {
+      assertEquals(2, segments().size());
+      assertEquals(List.of("key-2", "key-3"), journal.recentKeys(2));
+    }
+  }
+
+  @Test
+  void concurrentAppendsShouldAllBeDurableAfterFlush() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try (LegacyStoreJournal journal = new LegacyStoreJournal(directory, 1 << 20, 4)) {
+      List<Future<?>> writers = new ArrayList<>();
+      for (int writer = 0; writer < 8; writer++) {
+        int id = writer;
+        writers.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 250; i++) {
+                    journal.append("key-" + id + "-" + i, 'U', store((long) id, "S", i));
+                    journal.flush();
+                  }
+                }));
+      }
+      for (Future<?> writer : writers) {
+        writer.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    List<String> lines = lines();
+    assertEquals(2_000, lines.size());
+    assertTrue(lines.stream().allMatch(line -> line.endsWith(" S")));
+  }
+
+  @Test
+  void secondJournalOnTheSameDirectoryShouldBeRefused() {
+    try (LegacyStoreJournal journal = new LegacyStoreJournal(directory, 1024, 4)) {
+      assertThrows(IllegalStateException.class, () -> new LegacyStoreJournal(directory, 1024, 4));
+    }
+    new LegacyStoreJournal(directory, 1024, 4).close();
+  }
+
+  @Test
+  void existingSegmentShouldBeSkippedRatherThanReused() throws IOException {
+    // A stray file with the name the journal is about to use.
+    Files.writeString(
+        directory.resolve(String.format("%s%020d%s", "legacy-store-", 1, ".log")), "");
+    try (LegacyStoreJournal journal = new LegacyStoreJournal(directory, 1024, 4)) {
+      journal.append("key-1", 'C', store(1L, "A", 1));
+      journal.flush();
+    }
+
+    assertEquals(2, segments().size());
+    assertEquals(List.of("key-1 C 1 1 A"), lines());
+  }
+
+  private List<Path> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(file -> file.toString().endsWith(LegacyStoreJournal.SEGMENT_SUFFIX))
+          .sorted()
+          .toList();
+    }
+  }
+
+  private void consumed(Path segment) throws IOException {
+    Files.writeString(
+        directory.resolve(LegacyStoreJournal.CONSUMED_FILE), segment.getFileName().toString());
+  }
+
+  private List<String> lines() throws IOException {
+    List<String> lines = new ArrayList<>();
+    for (Path segment : segments()) {
+      lines.addAll(Files.readAllLines(segment));
+    }
+    return lines;
+  }
+
+  private Store store(Long id, String name, int stock) {
+    Store store = new Store(name);
+    store.id = id;
+    store.quantityProductsInStock = stock;
+    return store;
+  }
+}
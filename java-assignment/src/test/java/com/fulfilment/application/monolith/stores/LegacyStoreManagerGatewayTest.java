@@ -1,26 +1,79 @@
 package com.fulfilment.application.monolith.stores;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class LegacyStoreManagerGatewayTest {
 
+  @TempDir Path directory;
+
+  @Test
+  void changesShouldBeJournaledAsOneLineEach() throws IOException {
+    LegacyStoreManagerGateway gateway = gateway();
+
+    assertTrue(gateway.createStoreOnLegacySystem(store(1L, "TONSTAD", 10), "key-1"));
+    assertTrue(gateway.updateStoreOnLegacySystem(store(2L, "KALLAX", 5), "key-2"));
+    gateway.flush();
+    gateway.close();
+
+    assertEquals(List.of("key-1 C 1 10 TONSTAD", "key-2 U 2 5 KALLAX"), journaledLines());
+  }
+
   @Test
-  void createStoreOnLegacySystemShouldCompleteWithoutException() {
-    LegacyStoreManagerGateway gateway = new LegacyStoreManagerGateway();
-    Store store = new Store("TONSTAD");
-    store.quantityProductsInStock = 10;
+  void redeliveredChangeShouldNotBeAppliedTwice() {
+    LegacyStoreManagerGateway gateway = gateway();
+    Store store = store(3L, "BESTA", 3);
 
-    assertDoesNotThrow(() -> gateway.createStoreOnLegacySystem(store));
+    assertTrue(gateway.updateStoreOnLegacySystem(store, "key-3"));
+    assertFalse(gateway.updateStoreOnLegacySystem(store, "key-3"));
+    assertTrue(gateway.updateStoreOnLegacySystem(store, "key-4"));
   }
 
   @Test
-  void updateStoreOnLegacySystemShouldCompleteWithoutException() {
-    LegacyStoreManagerGateway gateway = new LegacyStoreManagerGateway();
-    Store store = new Store("KALLAX");
-    store.quantityProductsInStock = 5;
+  void appliedKeysShouldSurviveARestart() {
+    LegacyStoreManagerGateway gateway = gateway();
+    gateway.updateStoreOnLegacySystem(store(3L, "BESTA", 3), "key-5");
+    gateway.flush();
+    gateway.close();
+
+    assertFalse(gateway().updateStoreOnLegacySystem(store(3L, "BESTA", 3), "key-5"));
+  }
+
+  private LegacyStoreManagerGateway gateway() {
+    return new LegacyStoreManagerGateway(new LegacyStoreJournal(directory, 1024, 4));
+  }
+
+  private List<String> journaledLines() throws IOException {
+    try (Stream<Path> segments =
+        Files.list(directory)
+            .filter(file -> file.toString().endsWith(LegacyStoreJournal.SEGMENT_SUFFIX))
+            .sorted()) {
+      return segments
+          .flatMap(
+              segment -> {
+                try {
+                  return Files.readAllLines(segment).stream();
+                } catch (IOException e) {
+                  throw new IllegalStateException(e);
+                }
+              })
+          .toList();
+    }
+  }
 
-    assertDoesNotThrow(() -> gateway.updateStoreOnLegacySystem(store));
+  private Store store(Long id, String name, int stock) {
+    Store store = new Store(name);
+    store.id = id;
+    store.quantityProductsInStock = stock;
+    return store;
   }
 }
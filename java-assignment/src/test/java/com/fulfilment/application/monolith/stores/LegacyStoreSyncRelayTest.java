@@ -0,0 +1,151 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.stores.adapters.database.DbStoreSyncOutbox;
+import com.fulfilment.application.monolith.stores.adapters.database.StoreSyncOutboxRepository;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+class LegacyStoreSyncRelayTest {
+
+  private StoreSyncOutboxRepository outbox;
+  private LegacyStoreManagerGateway gateway;
+  private LegacyStoreSyncRelay relay;
+
+  @BeforeEach
+  void setUp() {
+    outbox = mock(StoreSyncOutboxRepository.class);
+    gateway = mock(LegacyStoreManagerGateway.class);
+    relay =
+        new LegacyStoreSyncRelay(
+            outbox, gateway, 10, 3, Duration.ofMillis(100), Duration.ofMillis(150));
+  }
+
+  @Test
+  void shouldSendTheLatestStateOfEachClaimedStoreAndAcknowledgeItsRows() {
+    DbStoreSyncOutbox created = change(1L, 1L, DbStoreSyncOutbox.Operation.CREATE, 1);
+    DbStoreSyncOutbox updated = change(2L, 1L, DbStoreSyncOutbox.Operation.UPDATE, 2);
+    DbStoreSyncOutbox other = change(3L, 2L, DbStoreSyncOutbox.Operation.UPDATE, 7);
+    when(outbox.claimHeads(any(), eq(10))).thenReturn(List.of(created, other));
+    when(outbox.listPendingForStores(any())).thenReturn(List.of(created, updated, other));
+
+    assertEquals(2, relay.relayBatch());
+
+    // The store is still new to the legacy system, so its latest state goes out as a create.
+    ArgumentCaptor<Store> store = ArgumentCaptor.forClass(Store.class);
+    verify(gateway).createStoreOnLegacySystem(store.capture(), eq("key-2"));
+    assertEquals(1L, store.getValue().id);
+    assertEquals(2, store.getValue().quantityProductsInStock);
+    verify(gateway).updateStoreOnLegacySystem(any(), eq("key-3"));
+    // Rows are acknowledged only once the journal is flushed.
+    InOrder inOrder = inOrder(gateway, outbox);
+    inOrder.verify(gateway).flush();
+    inOrder.verify(outbox).acknowledge(List.of(1L, 2L, 3L));
+
+    LegacyStoreSyncStatistics statistics = relay.statistics();
+    assertEquals(2, statistics.sent);
+    assertEquals(1, statistics.coalesced);
+  }
+
+  @Test
+  void shouldClaimNothingWhenNoChangeIsDue() {
+    when(outbox.claimHeads(any(), anyInt())).thenReturn(List.of());
+
+    assertEquals(0, relay.relayBatch());
+
+    verify(outbox, never()).listPendingForStores(any());
+    verify(outbox, never()).acknowledge(anyList());
+  }
+
+  @Test
+  void failedSendShouldBeRescheduledWithBackoff() {
+    DbStoreSyncOutbox change = change(1L, 1L, DbStoreSyncOutbox.Operation.UPDATE, 1);
+    change.attempts = 1;
+    when(outbox.claimHeads(any(), anyInt())).thenReturn(List.of(change));
+    when(outbox.listPendingForStores(any())).thenReturn(List.of(change));
+    doThrow(new UncheckedIOException(new IOException("down")))
+        .when(gateway)
+        .updateStoreOnLegacySystem(any(), any());
+
+    LocalDateTime before = LocalDateTime.now();
+    relay.relayBatch();
+
+    ArgumentCaptor<LocalDateTime> availableAt = ArgumentCaptor.forClass(LocalDateTime.class);
+    verify(outbox).reschedule(eq(List.of(1L)), eq(2), availableAt.capture());
+    // Second attempt doubles the initial backoff, capped at the maximum.
+    Duration backoff = Duration.between(before, availableAt.getValue());
+    assertTrue(backoff.compareTo(Duration.ofMillis(150)) >= 0);
+    assertTrue(backoff.compareTo(Duration.ofSeconds(1)) < 0);
+    verify(outbox, never()).acknowledge(anyList());
+    verify(gateway, never()).flush();
+    assertEquals(1, relay.statistics().retried);
+  }
+
+  @Test
+  void changeShouldBeMarkedFailedAfterTheLastAttempt() {
+    DbStoreSyncOutbox change = change(1L, 1L, DbStoreSyncOutbox.Operation.UPDATE, 1);
+    change.attempts = 2;
+    when(outbox.claimHeads(any(), anyInt())).thenReturn(List.of(change));
+    when(outbox.listPendingForStores(any())).thenReturn(List.of(change));
+    doThrow(new UncheckedIOException(new IOException("down")))
+        .when(gateway)
+        .updateStoreOnLegacySystem(any(), any());
+
+    relay.relayBatch();
+
+    verify(outbox).markFailed(eq(List.of(1L)), eq(3), any());
+    verify(outbox, never()).reschedule(anyList(), anyInt(), any());
+  }
+
+  @Test
+  void fullJournalShouldPauseTheRelayWithoutCountingAnAttempt() {
+    DbStoreSyncOutbox first = change(1L, 1L, DbStoreSyncOutbox.Operation.UPDATE, 1);
+    DbStoreSyncOutbox second = change(2L, 2L, DbStoreSyncOutbox.Operation.UPDATE, 1);
+    when(outbox.claimHeads(any(), anyInt())).thenReturn(List.of(first, second));
+    when(outbox.listPendingForStores(any())).thenReturn(List.of(first, second));
+    doThrow(new LegacyStoreJournalFullException("full"))
+        .when(gateway)
+        .updateStoreOnLegacySystem(any(), eq("key-2"));
+
+    assertEquals(0, relay.relayBatch());
+
+    // What went out before the journal filled up is still acknowledged.
+    verify(gateway).flush();
+    verify(outbox).acknowledge(List.of(1L));
+    verify(outbox, never()).reschedule(anyList(), anyInt(), any());
+    verify(outbox, never()).markFailed(anyList(), anyInt(), any());
+  }
+
+  private DbStoreSyncOutbox change(
+      Long id, Long storeId, DbStoreSyncOutbox.Operation operation, int stock) {
+    DbStoreSyncOutbox change = new DbStoreSyncOutbox();
+    change.id = id;
+    change.idempotencyKey = "key-" + id;
+    change.storeId = storeId;
+    change.operation = operation;
+    change.name = "STORE-" + storeId;
+    change.quantityProductsInStock = stock;
+    change.createdAt = LocalDateTime.now();
+    change.availableAt = change.createdAt;
+    return change;
+  }
+}
@@ -1,12 +1,14 @@
 package com.fulfilment.application.monolith.stores;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
-import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.verifyNoInteractions;
-import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.junit.QuarkusTest;
@@ -36,14 +38,16 @@ public class StoreResourceTest {
         .then()
         .statusCode(201);
 
-    verify(legacyStoreManagerGateway, times(1))
+    // Sent by the outbox relay, not the request thread.
+    verify(legacyStoreManagerGateway, timeout(5_000).times(1))
         .createStoreOnLegacySystem(
             argThat(
                 store ->
                     store != null
                         && storeName.equals(store.name)
-                        && store.quantityProductsInStock == 15));
-    verifyNoMoreInteractions(legacyStoreManagerGateway);
+                        && store.quantityProductsInStock == 15),
+            any());
+    verify(legacyStoreManagerGateway, after(200).never()).updateStoreOnLegacySystem(any(), any());
   }
 
   @Test
@@ -56,7 +60,7 @@ public class StoreResourceTest {
         .then()
         .statusCode(500);
 
-    verifyNoInteractions(legacyStoreManagerGateway);
+    verify(legacyStoreManagerGateway, after(500).never()).createStoreOnLegacySystem(any(), any());
   }
 
   @Test
@@ -69,13 +73,47 @@ public class StoreResourceTest {
         .then()
         .statusCode(200);
 
-    verify(legacyStoreManagerGateway, times(1))
+    // Sent by the outbox relay, not the request thread.
+    verify(legacyStoreManagerGateway, timeout(5_000).times(1))
         .updateStoreOnLegacySystem(
             argThat(
                 store ->
                     store != null
                         && "KALLAX".equals(store.name)
-                        && store.quantityProductsInStock == 7));
-    verifyNoMoreInteractions(legacyStoreManagerGateway);
+                        && store.quantityProductsInStock == 7),
+            any());
+    verify(legacyStoreManagerGateway, after(200).never()).createStoreOnLegacySystem(any(), any());
+  }
+
+  @Test
+  public void testBulkCreateShouldCreateAllStoresAndSyncEachOnce() {
+    String prefix = "BULK-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase() + "-";
+
+    given()
+        .contentType("text/csv")
+        .body("name,quantityProductsInStock\n" + prefix + "A,1\n" + prefix + "B,2\n")
+        .when()
+        .post("/store/bulk")
+        .then()
+        .statusCode(201)
+        .body("created", is(2));
+
+    verify(legacyStoreManagerGateway, timeout(5_000).times(2))
+        .createStoreOnLegacySystem(argThat(store -> store.name.startsWith(prefix)), any());
+  }
+
+  @Test
+  public void testBulkCreateShouldRejectTakenNamesWithoutCreatingAny() {
+    String name = "BULK-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+
+    given()
+        .contentType("application/json")
+        .body("[{\"name\":\"" + name + "\"},{\"name\":\"KALLAX\"}]")
+        .when()
+        .post("/store/bulk")
+        .then()
+        .statusCode(409);
+
+    given().when().get("/store?namePrefix=" + name).then().statusCode(200).body("size()", is(0));
   }
 }
@@ -1,13 +1,26 @@
 package com.fulfilment.application.monolith.stores;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fulfilment.application.monolith.shared.application.exceptions.UnprocessableEntityException;
+import com.fulfilment.application.monolith.shared.application.pagination.NameCursor;
 import com.fulfilment.application.monolith.stores.application.usecases.StoreUseCase;
+import com.fulfilment.application.monolith.stores.domain.models.StorePage;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriBuilder;
+import jakarta.ws.rs.core.UriInfo;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -24,11 +37,41 @@ class StoreResourceUnitTest {
   }
 
   @Test
-  void getShouldDelegateToUseCase() {
+  void getShouldReturnPageWithNextLink() {
     List<Store> stores = List.of(new Store("TONSTAD"));
-    when(storeUseCase.list()).thenReturn(stores);
+    when(storeUseCase.list(eq("TON"), eq(null), eq(1)))
+        .thenReturn(new StorePage(stores, new NameCursor("TONSTAD", 1L)));
+    resource.uriInfo = mock(UriInfo.class);
+    when(resource.uriInfo.getRequestUriBuilder())
+        .thenReturn(UriBuilder.fromUri("http://localhost/store?namePrefix=TON&limit=1"));
+
+    Response response = resource.get("TON", null, 1, null);
+
+    assertSame(stores, response.getEntity());
+    assertEquals(
+        "http://localhost/store?namePrefix=TON&limit=1&after="
+            + new NameCursor("TONSTAD", 1L).encode(),
+        response.getLink("next").getUri().toString());
+  }
+
+  @Test
+  void getShouldProjectSelectedFieldsAndOmitLinkOnLastPage() {
+    Store store = new Store("TONSTAD");
+    store.id = 4L;
+    when(storeUseCase.list(null, null, null)).thenReturn(new StorePage(List.of(store), null));
+
+    Response response = resource.get(null, null, null, "name,id");
 
-    assertSame(stores, resource.get());
+    assertEquals(List.of(Map.of("name", "TONSTAD", "id", 4L)), response.getEntity());
+    assertNull(response.getLink("next"));
+  }
+
+  @Test
+  void getShouldRejectUnknownFieldsAndMalformedCursors() {
+    assertThrows(
+        UnprocessableEntityException.class, () -> resource.get(null, null, null, "secret"));
+    assertThrows(
+        UnprocessableEntityException.class, () -> resource.get(null, "%%%", null, null));
   }
 
   @Test
@@ -74,4 +117,16 @@ class StoreResourceUnitTest {
     assertEquals(204, response.getStatus());
     verify(storeUseCase).delete(7L);
   }
+
+  @Test
+  void createBulkShouldReportTheNumberOfStoresCreated() {
+    when(storeUseCase.createAll(any())).thenReturn(2);
+
+    Response response =
+        resource.createBulkCsv(
+            new ByteArrayInputStream("A,1\nB,2\n".getBytes(StandardCharsets.UTF_8)));
+
+    assertEquals(201, response.getStatus());
+    assertEquals(Map.of("created", 2), response.getEntity());
+  }
 }
@@ -0,0 +1,139 @@
+package com.fulfilment.application.monolith.stores.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.stores.Store;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.Transaction;
+import jakarta.transaction.TransactionManager;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+class CoalescingStoreSyncPublisherTest {
+
+  private StoreSyncOutboxRepository outbox;
+  private TransactionManager transactionManager;
+  private Transaction transaction;
+  private CoalescingStoreSyncPublisher publisher;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    outbox = mock(StoreSyncOutboxRepository.class);
+    transactionManager = mock(TransactionManager.class);
+    transaction = mock(Transaction.class);
+    when(transactionManager.getTransaction()).thenReturn(transaction);
+
+    // Transaction-scoped resources, for the single transaction of each test.
+    Map<Object, Object> resources = new HashMap<>();
+    TransactionSynchronizationRegistry registry = mock(TransactionSynchronizationRegistry.class);
+    when(registry.getResource(any())).thenAnswer(call -> resources.get(call.getArgument(0)));
+    doAnswer(call -> resources.put(call.getArgument(0), call.getArgument(1)))
+        .when(registry)
+        .putResource(any(), any());
+
+    publisher = new CoalescingStoreSyncPublisher(outbox, transactionManager, registry);
+  }
+
+  @Test
+  void shouldWriteOneRowPerStoreWithItsFinalStateBeforeCommit() throws Exception {
+    Store tonstad = store(1L, "TONSTAD", 1);
+    Store kallax = store(2L, "KALLAX", 5);
+
+    publisher.publishCreated(tonstad);
+    publisher.publishUpdated(kallax);
+    tonstad.quantityProductsInStock = 2;
+    publisher.publishUpdated(tonstad);
+    tonstad.quantityProductsInStock = 3;
+    publisher.publishUpdated(tonstad);
+    verifyNoInteractions(outbox);
+
+    beforeCommit();
+
+    InOrder inOrder = inOrder(outbox);
+    inOrder.verify(outbox).append(DbStoreSyncOutbox.Operation.CREATE, tonstad);
+    inOrder.verify(outbox).append(DbStoreSyncOutbox.Operation.UPDATE, kallax);
+    verify(outbox, times(2)).append(any(), any());
+    inOrder.verify(outbox).flush();
+    assertEquals(3, tonstad.quantityProductsInStock);
+  }
+
+  @Test
+  void shouldRegisterOneSynchronizationPerTransaction() throws Exception {
+    publisher.publishUpdated(store(1L, "TONSTAD", 1));
+    publisher.publishUpdated(store(2L, "KALLAX", 1));
+
+    verify(transaction, times(1)).registerSynchronization(any());
+  }
+
+  @Test
+  void publishingOutsideATransactionShouldFail() throws Exception {
+    when(transactionManager.getTransaction()).thenReturn(null);
+
+    assertThrows(
+        IllegalStateException.class, () -> publisher.publishUpdated(store(1L, "TONSTAD", 1)));
+  }
+
+  @Test
+  void updateOnlyTransactionShouldWriteAnUpdate() throws Exception {
+    Store store = store(1L, "TONSTAD", 1);
+    publisher.publishUpdated(store);
+
+    beforeCommit();
+
+    verify(outbox).append(same(DbStoreSyncOutbox.Operation.UPDATE), same(store));
+  }
+
+  @Test
+  void storesCreatedInBulkShouldBeWrittenAndDetachedAtOnce() throws Exception {
+    Store tonstad = store(1L, "TONSTAD", 1);
+    Store kallax = store(2L, "KALLAX", 5);
+    DbStoreSyncOutbox tonstadEntry = new DbStoreSyncOutbox();
+    DbStoreSyncOutbox kallaxEntry = new DbStoreSyncOutbox();
+    EntityManager entityManager = mock(EntityManager.class);
+    when(outbox.append(DbStoreSyncOutbox.Operation.CREATE, tonstad)).thenReturn(tonstadEntry);
+    when(outbox.append(DbStoreSyncOutbox.Operation.CREATE, kallax)).thenReturn(kallaxEntry);
+    when(outbox.getEntityManager()).thenReturn(entityManager);
+
+    publisher.publishCreatedAll(List.of(tonstad, kallax));
+
+    InOrder inOrder = inOrder(outbox, entityManager);
+    inOrder.verify(outbox).append(DbStoreSyncOutbox.Operation.CREATE, tonstad);
+    inOrder.verify(outbox).append(DbStoreSyncOutbox.Operation.CREATE, kallax);
+    inOrder.verify(outbox).flush();
+    inOrder.verify(entityManager).detach(tonstadEntry);
+    inOrder.verify(entityManager).detach(kallaxEntry);
+    verify(transaction, never()).registerSynchronization(any());
+  }
+
+  private void beforeCommit() throws Exception {
+    ArgumentCaptor<Synchronization> synchronization =
+        ArgumentCaptor.forClass(Synchronization.class);
+    verify(transaction).registerSynchronization(synchronization.capture());
+    synchronization.getValue().beforeCompletion();
+  }
+
+  private Store store(Long id, String name, int stock) {
+    Store store = new Store(name);
+    store.id = id;
+    store.quantityProductsInStock = stock;
+    return store;
+  }
+}
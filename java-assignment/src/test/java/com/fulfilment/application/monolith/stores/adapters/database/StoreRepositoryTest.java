@@ -5,16 +5,21 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.fulfilment.application.monolith.shared.adapters.persistence.RecordingStatementInspector;
+import com.fulfilment.application.monolith.shared.application.pagination.NameCursor;
 import com.fulfilment.application.monolith.stores.Store;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.TestTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 @QuarkusTest
 class StoreRepositoryTest {
 
   @Inject StoreRepository storeRepository;
+  @Inject RecordingStatementInspector statementInspector;
 
   @Test
   @TestTransaction
@@ -31,13 +36,58 @@ class StoreRepositoryTest {
     assertNotNull(beta.id);
     assertNotNull(storeRepository.findById(alpha.id));
 
-    var list = storeRepository.listAllByName();
-    assertTrue(list.stream().anyMatch(s -> alpha.name.equals(s.name)));
-    assertTrue(list.stream().anyMatch(s -> beta.name.equals(s.name)));
+    var page = storeRepository.listPage("STORE-A-", null, 10);
+    assertTrue(page.stream().anyMatch(s -> alpha.name.equals(s.name)));
+    assertTrue(page.stream().noneMatch(s -> beta.name.equals(s.name)));
+    var afterAlpha = storeRepository.listPage(null, new NameCursor(alpha.name, alpha.id), 1000);
+    assertTrue(afterAlpha.stream().noneMatch(s -> alpha.name.equals(s.name)));
+    assertTrue(afterAlpha.stream().anyMatch(s -> beta.name.equals(s.name)));
 
     storeRepository.remove(alpha);
     assertNull(storeRepository.findById(alpha.id));
     assertNotNull(storeRepository.findById(beta.id));
     assertEquals(beta.name, storeRepository.findById(beta.id).name);
   }
+
+  @Test
+  @TestTransaction
+  void createAllShouldPersistDetachedStoresAndReportTakenNames() {
+    String prefix = "BULK-" + System.nanoTime() + "-";
+    List<Store> stores = List.of(new Store(prefix + "A"), new Store(prefix + "B"));
+
+    storeRepository.createAll(stores);
+
+    assertNotNull(stores.get(0).id);
+    assertTrue(stores.stream().noneMatch(storeRepository.getEntityManager()::contains));
+    assertEquals(
+        List.of(prefix + "B"),
+        storeRepository.findExistingNames(List.of(prefix + "B", prefix + "C")));
+    assertEquals(List.of(), storeRepository.findExistingNames(List.of()));
+  }
+
+  @Test
+  void repeatedLookupsByIdShouldNotReachTheDatabase() {
+    // Each lookup runs in its own transaction, so only the second-level cache can serve the
+    // repeats.
+    Long id =
+        QuarkusTransaction.requiringNew()
+            .call(
+                () -> {
+                  Store store = new Store("CACHED-" + System.nanoTime());
+                  storeRepository.create(store);
+                  return store.id;
+                });
+    QuarkusTransaction.requiringNew().run(() -> storeRepository.findById(id));
+
+    List<String> statements =
+        statementInspector.record(
+            () -> {
+              for (int lookup = 0; lookup < 3; lookup++) {
+                QuarkusTransaction.requiringNew()
+                    .run(() -> assertNotNull(storeRepository.findById(id)));
+              }
+            });
+
+    assertEquals(List.of(), statements);
+  }
 }
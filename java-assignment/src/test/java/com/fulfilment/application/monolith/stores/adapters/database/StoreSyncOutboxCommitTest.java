@@ -0,0 +1,55 @@
+package com.fulfilment.application.monolith.stores.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.stores.LegacyStoreManagerGateway;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.stores.application.usecases.StoreUseCase;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class StoreSyncOutboxCommitTest {
+
+  @InjectMock LegacyStoreManagerGateway legacyStoreManagerGateway;
+  @Inject StoreUseCase storeUseCase;
+  @Inject StoreSyncOutboxRepository outbox;
+
+  @Test
+  void committedStoreChangeShouldLeaveAnOutboxRow() {
+    // The legacy system is down, so the relay keeps the row instead of acknowledging it.
+    when(legacyStoreManagerGateway.createStoreOnLegacySystem(any(), any()))
+        .thenThrow(new IllegalStateException("Legacy system unavailable"));
+
+    Store store = new Store("OUTBOX-COMMIT-" + System.nanoTime());
+    store.quantityProductsInStock = 4;
+    storeUseCase.create(store);
+
+    List<DbStoreSyncOutbox> rows = outbox.list("storeId", store.id);
+    assertEquals(1, rows.size());
+    assertEquals(DbStoreSyncOutbox.Operation.CREATE, rows.get(0).operation);
+    assertEquals(4, rows.get(0).quantityProductsInStock);
+  }
+
+  @Test
+  void importedStoresShouldEachLeaveAnOutboxRow() {
+    when(legacyStoreManagerGateway.createStoreOnLegacySystem(any(), any()))
+        .thenThrow(new IllegalStateException("Legacy system unavailable"));
+
+    String prefix = "OUTBOX-IMPORT-" + System.nanoTime() + "-";
+    List<Store> stores = List.of(new Store(prefix + "A"), new Store(prefix + "B"));
+    assertEquals(2, storeUseCase.createAll(stores.iterator()));
+
+    for (Store store : stores) {
+      List<DbStoreSyncOutbox> rows = outbox.list("storeId", store.id);
+      assertEquals(1, rows.size());
+      assertEquals(DbStoreSyncOutbox.Operation.CREATE, rows.get(0).operation);
+      assertEquals(store.name, rows.get(0).name);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package com.fulfilment.application.monolith.stores.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.fulfilment.application.monolith.stores.Store;
+import io.quarkus.test.TestTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class StoreSyncOutboxRepositoryTest {
+
+  @Inject StoreSyncOutboxRepository outbox;
+
+  @Test
+  @TestTransaction
+  void onlyTheOldestDueChangeOfEachStoreShouldBeClaimed() {
+    // Store ids no real store has, so rows written by other tests do not interfere.
+    long first = -System.nanoTime();
+    long second = first - 1;
+    outbox.append(DbStoreSyncOutbox.Operation.CREATE, store(first, 1));
+    outbox.append(DbStoreSyncOutbox.Operation.UPDATE, store(first, 2));
+    outbox.append(DbStoreSyncOutbox.Operation.UPDATE, store(second, 3));
+
+    List<DbStoreSyncOutbox> heads = claimed(Set.of(first, second));
+    assertEquals(2, heads.size());
+    assertEquals(DbStoreSyncOutbox.Operation.CREATE, heads.get(0).operation);
+    assertEquals(1, heads.get(0).quantityProductsInStock);
+    assertNotEquals(heads.get(0).idempotencyKey, heads.get(1).idempotencyKey);
+    assertEquals(3, outbox.listPendingForStores(List.of(first, second)).size());
+
+    // A rescheduled store is not due yet; a failed row hands over to the store's next change.
+    outbox.reschedule(List.of(heads.get(1).id), 1, LocalDateTime.now().plusHours(1));
+    outbox.markFailed(List.of(heads.get(0).id), 5, LocalDateTime.now());
+    List<DbStoreSyncOutbox> next = claimed(Set.of(first, second));
+    assertEquals(1, next.size());
+    assertEquals(2, next.get(0).quantityProductsInStock);
+
+    outbox.acknowledge(List.of(next.get(0).id));
+    assertEquals(1, outbox.listPendingForStores(List.of(first, second)).size());
+  }
+
+  private List<DbStoreSyncOutbox> claimed(Set<Long> storeIds) {
+    return outbox.claimHeads(LocalDateTime.now().plusSeconds(1), 1000).stream()
+        .filter(change -> storeIds.contains(change.storeId))
+        .toList();
+  }
+
+  private Store store(long id, int stock) {
+    Store store = new Store("OUTBOX-" + id);
+    store.id = id;
+    store.quantityProductsInStock = stock;
+    return store;
+  }
+}
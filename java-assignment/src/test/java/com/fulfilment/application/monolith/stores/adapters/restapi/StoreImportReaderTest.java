@@ -0,0 +1,86 @@
+package com.fulfilment.application.monolith.stores.adapters.restapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.shared.application.exceptions.BadRequestException;
+import com.fulfilment.application.monolith.stores.Store;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StoreImportReaderTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void jsonShouldReadEachStoreOfTheArray() {
+    List<Store> stores =
+        read(
+            StoreImportReader.json(
+                objectMapper,
+                body(
+                    "[{\"name\":\"TONSTAD\",\"quantityProductsInStock\":3},"
+                        + "{\"name\":\"KALLAX\"}]")));
+
+    assertEquals(2, stores.size());
+    assertEquals("TONSTAD", stores.get(0).name);
+    assertEquals(3, stores.get(0).quantityProductsInStock);
+    assertEquals("KALLAX", stores.get(1).name);
+  }
+
+  @Test
+  void jsonShouldRejectAnythingButAnArrayOfObjects() {
+    assertThrows(
+        BadRequestException.class,
+        () -> StoreImportReader.json(objectMapper, body("{\"name\":\"TONSTAD\"}")));
+    assertThrows(
+        BadRequestException.class,
+        () -> read(StoreImportReader.json(objectMapper, body("[{\"name\":\"A\"}, 4]"))));
+    assertThrows(
+        BadRequestException.class,
+        () -> read(StoreImportReader.json(objectMapper, body("[{\"name\":\"A\"}"))));
+  }
+
+  @Test
+  void csvShouldSkipHeaderAndBlankLinesAndUnquoteFields() {
+    List<Store> stores =
+        read(
+            StoreImportReader.csv(
+                body(
+                    "name,quantityProductsInStock\n"
+                        + "TONSTAD,3\n"
+                        + "\n"
+                        + "\"BILLY, \"\"OAK\"\"\", 7\n"
+                        + ",1\n")));
+
+    assertEquals(3, stores.size());
+    assertEquals("TONSTAD", stores.get(0).name);
+    assertEquals("BILLY, \"OAK\"", stores.get(1).name);
+    assertEquals(7, stores.get(1).quantityProductsInStock);
+    assertNull(stores.get(2).name);
+  }
+
+  @Test
+  void csvShouldRejectMalformedLines() {
+    assertThrows(BadRequestException.class, () -> read(StoreImportReader.csv(body("A,1,2\n"))));
+    assertThrows(BadRequestException.class, () -> read(StoreImportReader.csv(body("A,many\n"))));
+    assertThrows(BadRequestException.class, () -> read(StoreImportReader.csv(body("\"A,1\n"))));
+  }
+
+  private static InputStream body(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static List<Store> read(Iterator<Store> stores) {
+    List<Store> result = new ArrayList<>();
+    stores.forEachRemaining(result::add);
+    return result;
+  }
+}
@@ -1,16 +1,25 @@
 package com.fulfilment.application.monolith.stores.application.usecases;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.fulfilment.application.monolith.shared.application.exceptions.ConflictException;
 import com.fulfilment.application.monolith.shared.application.exceptions.NotFoundException;
+import com.fulfilment.application.monolith.shared.application.exceptions.PartiallyAppliedException;
 import com.fulfilment.application.monolith.shared.application.exceptions.UnprocessableEntityException;
+import com.fulfilment.application.monolith.shared.application.pagination.NameCursor;
 import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.stores.domain.models.StorePage;
+import com.fulfilment.application.monolith.stores.domain.ports.StoreLifecyclePublisher;
 import com.fulfilment.application.monolith.stores.domain.ports.StoreStore;
 import com.fulfilment.application.monolith.stores.domain.ports.StoreSyncPublisher;
 import java.util.List;
@@ -21,21 +30,48 @@ class StoreUseCaseTest {
 
   private StoreStore storeStore;
   private StoreSyncPublisher storeSyncPublisher;
+  private StoreLifecyclePublisher storeLifecyclePublisher;
   private StoreUseCase useCase;
 
   @BeforeEach
   void setUp() {
     storeStore = mock(StoreStore.class);
     storeSyncPublisher = mock(StoreSyncPublisher.class);
-    useCase = new StoreUseCase(storeStore, storeSyncPublisher);
+    storeLifecyclePublisher = mock(StoreLifecyclePublisher.class);
+    useCase = new StoreUseCase(storeStore, storeSyncPublisher, storeLifecyclePublisher, 2, 2);
   }
 
   @Test
-  void listShouldDelegateToStore() {
-    List<Store> stores = List.of(new Store("S1"));
-    when(storeStore.listAllByName()).thenReturn(stores);
+  void listWithoutLimitShouldBeCappedAndReturnCursorForTheRest() {
+    Store first = store(1L, "A");
+    Store second = store(2L, "B");
+    when(storeStore.listPage(null, null, 3)).thenReturn(List.of(first, second, store(3L, "C")));
 
-    assertSame(stores, useCase.list());
+    StorePage page = useCase.list(null, null, null);
+
+    assertEquals(List.of(first, second), page.items);
+    assertEquals("B", page.next.name);
+    assertEquals(2L, page.next.id);
+  }
+
+  @Test
+  void listShouldPassFilterAndCursorAndEndOnLastPage() {
+    NameCursor after = new NameCursor("A", 1L);
+    List<Store> rows = List.of(store(2L, "AB"));
+    when(storeStore.listPage("A", after, 6)).thenReturn(rows);
+
+    StorePage page = useCase.list("A", after, 5);
+
+    assertEquals(rows, page.items);
+    assertNull(page.next);
+  }
+
+  @Test
+  void listShouldRejectLimitOutsideRange() {
+    assertThrows(UnprocessableEntityException.class, () -> useCase.list(null, null, 0));
+    assertThrows(
+        UnprocessableEntityException.class,
+        () -> useCase.list(null, null, StoreUseCase.MAX_PAGE_SIZE + 1));
   }
 
   @Test
@@ -62,6 +98,7 @@ class StoreUseCaseTest {
     assertSame(store, created);
     verify(storeStore).create(store);
     verify(storeSyncPublisher).publishCreated(store);
+    verify(storeLifecyclePublisher).publishCreated(store);
   }
 
   @Test
@@ -158,5 +195,83 @@ class StoreUseCaseTest {
     useCase.delete(1L);
 
     verify(storeStore).remove(existing);
+    verify(storeLifecyclePublisher).publishDeleted(existing);
+  }
+
+  @Test
+  void createAllShouldCreateAndPublishWholeChunks() {
+    List<Store> stores = List.of(store(null, "A"), store(null, "B"), store(null, "C"));
+
+    assertEquals(3, useCase.createAll(stores.iterator()));
+
+    verify(storeStore).findExistingNames(List.of("A", "B"));
+    verify(storeStore).createAll(List.of(stores.get(0), stores.get(1)));
+    verify(storeStore).createAll(List.of(stores.get(2)));
+    verify(storeSyncPublisher).publishCreatedAll(List.of(stores.get(0), stores.get(1)));
+    verify(storeSyncPublisher).publishCreatedAll(List.of(stores.get(2)));
+    verify(storeSyncPublisher, never()).publishCreated(any());
+    verifyNoInteractions(storeLifecyclePublisher);
+  }
+
+  @Test
+  void createAllShouldRejectTakenNames() {
+    when(storeStore.findExistingNames(List.of("A", "B"))).thenReturn(List.of("B"));
+
+    ConflictException exception =
+        assertThrows(
+            ConflictException.class,
+            () -> useCase.createAll(List.of(store(null, "A"), store(null, "B")).iterator()));
+
+    assertEquals("Store names already exist: B", exception.getMessage());
+    verify(storeStore, never()).createAll(any());
+  }
+
+  @Test
+  void createAllShouldKeepCommittedChunksAndReportThemWhenALaterOneFails() {
+    when(storeStore.findExistingNames(List.of("C"))).thenReturn(List.of("C"));
+    List<Store> stores = List.of(store(null, "A"), store(null, "B"), store(null, "C"));
+
+    PartiallyAppliedException exception =
+        assertThrows(PartiallyAppliedException.class, () -> useCase.createAll(stores.iterator()));
+
+    assertEquals(409, exception.getStatusCode());
+    assertEquals(
+        "Store names already exist: C 2 stores were created before the failure.",
+        exception.getMessage());
+    assertInstanceOf(ConflictException.class, exception.getCause());
+    verify(storeStore).createAll(List.of(stores.get(0), stores.get(1)));
+  }
+
+  @Test
+  void createAllShouldRejectNameRepeatedInTheImport() {
+    List<Store> stores = List.of(store(null, "A"), store(null, "A"));
+
+    assertThrows(UnprocessableEntityException.class, () -> useCase.createAll(stores.iterator()));
+    verify(storeStore, never()).createAll(any());
+  }
+
+  @Test
+  void nameRepeatedAfterACommittedChunkShouldBeReportedWithTheProgress() {
+    List<Store> stores = List.of(store(null, "A"), store(null, "B"), store(null, "A"));
+
+    PartiallyAppliedException exception =
+        assertThrows(PartiallyAppliedException.class, () -> useCase.createAll(stores.iterator()));
+
+    assertEquals(422, exception.getStatusCode());
+    assertInstanceOf(UnprocessableEntityException.class, exception.getCause());
+  }
+
+  @Test
+  void createAllShouldRejectStoreWithId() {
+    assertThrows(
+        UnprocessableEntityException.class,
+        () -> useCase.createAll(List.of(store(null, "A"), store(7L, "B")).iterator()));
+    verify(storeStore, never()).createAll(any());
+  }
+
+  private Store store(Long id, String name) {
+    Store store = new Store(name);
+    store.id = id;
+    return store;
   }
 }
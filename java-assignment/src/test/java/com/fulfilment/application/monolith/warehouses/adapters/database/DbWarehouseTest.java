@@ -17,6 +17,7 @@ class DbWarehouseTest {
     entity.stock = 10;
     entity.createdAt = LocalDateTime.now().minusDays(1);
     entity.archivedAt = LocalDateTime.now();
+    entity.version = 3L;
 
     var model = entity.toWarehouse();
 
@@ -26,5 +27,6 @@ class DbWarehouseTest {
     assertEquals(10, model.stock);
     assertSame(entity.createdAt, model.createdAt);
     assertSame(entity.archivedAt, model.archivedAt);
+    assertEquals(3L, model.version);
   }
 }
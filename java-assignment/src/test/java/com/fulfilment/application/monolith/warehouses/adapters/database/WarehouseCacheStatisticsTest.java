@@ -0,0 +1,50 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+class WarehouseCacheStatisticsTest {
+
+  @Test
+  void shouldReportEntityAndLookupRegionCounters() {
+    Statistics statistics = mock(Statistics.class);
+    CacheRegionStatistics entities = region(12, 3, 4, 4);
+    CacheRegionStatistics lookups = region(40, 2, 2, 2);
+    when(statistics.isStatisticsEnabled()).thenReturn(true);
+    when(statistics.getDomainDataRegionStatistics(DbWarehouse.class.getName()))
+        .thenReturn(entities);
+    when(statistics.getQueryRegionStatistics(WarehouseRepository.ACTIVE_LOOKUP_REGION))
+        .thenReturn(lookups);
+
+    WarehouseCacheStatistics result = WarehouseCacheStatistics.from(statistics);
+
+    assertTrue(result.enabled);
+    assertEquals(12, result.entities.hits);
+    assertEquals(3, result.entities.misses);
+    assertEquals(40, result.lookups.hits);
+    assertEquals(2, result.lookups.elementsInMemory);
+  }
+
+  @Test
+  void shouldReportZeroForRegionsNotCreatedYet() {
+    WarehouseCacheStatistics result = WarehouseCacheStatistics.from(mock(Statistics.class));
+
+    assertEquals(0, result.lookups.hits);
+    assertEquals(0, result.entities.puts);
+  }
+
+  private CacheRegionStatistics region(long hits, long misses, long puts, long elements) {
+    CacheRegionStatistics region = mock(CacheRegionStatistics.class);
+    when(region.getHitCount()).thenReturn(hits);
+    when(region.getMissCount()).thenReturn(misses);
+    when(region.getPutCount()).thenReturn(puts);
+    when(region.getElementCountInMemory()).thenReturn(elements);
+    return region;
+  }
+}
@@ -0,0 +1,104 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseHistoryPage;
+import io.quarkus.test.TestTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class WarehouseHistoryRepositoryTest {
+
+  @Inject WarehouseRepository warehouseRepository;
+  @Inject WarehouseHistoryRepository warehouseHistoryRepository;
+
+  @Test
+  @TestTransaction
+  void historyShouldPageThroughActiveAndArchivedGenerationsNewestFirst() {
+    String buCode = "MWH.HISTORY." + System.nanoTime();
+    LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+    for (int generation = 0; generation < 3; generation++) {
+      Warehouse warehouse = warehouse(buCode, 10 + generation);
+      warehouse.createdAt = start.plusDays(generation);
+      warehouse.archivedAt = generation < 2 ? start.plusDays(generation + 1) : null;
+      warehouseRepository.create(warehouse);
+    }
+
+    WarehouseHistoryPage first = warehouseHistoryRepository.history(buCode, null, 2);
+    assertEquals(List.of(12, 11), first.items.stream().map(w -> w.capacity).toList());
+    assertNull(first.items.get(0).archivedAt);
+    assertNotNull(first.next);
+
+    WarehouseHistoryPage second = warehouseHistoryRepository.history(buCode, first.next, 2);
+    assertEquals(List.of(10), second.items.stream().map(w -> w.capacity).toList());
+    assertNotNull(second.items.get(0).archivedAt);
+    assertNull(second.next);
+  }
+
+  @Test
+  @TestTransaction
+  void historyShouldPageThroughGenerationsWithoutCreationTime() {
+    String buCode = "MWH.NULL-CREATED." + System.nanoTime();
+    LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+    for (int generation = 0; generation < 3; generation++) {
+      Warehouse warehouse = warehouse(buCode, 10 + generation);
+      // Two archived generations loaded without a creation time, and a dated active one.
+      warehouse.createdAt = generation < 2 ? null : start;
+      warehouse.archivedAt = generation < 2 ? start.minusDays(2 - generation) : null;
+      warehouseRepository.create(warehouse);
+    }
+
+    WarehouseHistoryPage first = warehouseHistoryRepository.history(buCode, null, 1);
+    assertEquals(List.of(11), first.items.stream().map(w -> w.capacity).toList());
+    assertNull(first.next.createdAt);
+
+    WarehouseHistoryPage second = warehouseHistoryRepository.history(buCode, first.next, 1);
+    assertEquals(List.of(10), second.items.stream().map(w -> w.capacity).toList());
+
+    WarehouseHistoryPage third = warehouseHistoryRepository.history(buCode, second.next, 1);
+    assertEquals(List.of(12), third.items.stream().map(w -> w.capacity).toList());
+    assertNull(third.next);
+  }
+
+  @Test
+  @TestTransaction
+  void compactionShouldMoveArchivedRowsLeftInTheLiveTable() {
+    long id = -(System.nanoTime() & Long.MAX_VALUE);
+    String buCode = "MWH.COMPACT." + id;
+    // Written straight to the live table, the way an external load would. A negative id keeps the
+    // row clear of the entity sequence.
+    warehouseRepository
+        .getEntityManager()
+        .createNativeQuery(
+            "insert into warehouse "
+                + "(id, businessUnitCode, location, capacity, stock, createdAt, archivedAt) "
+                + "values (:id, :buCode, 'EINDHOVEN-001', 10, 5, "
+                + "timestamp '2024-01-01', timestamp '2024-02-01')")
+        .setParameter("id", id)
+        .setParameter("buCode", buCode)
+        .executeUpdate();
+
+    while (warehouseHistoryRepository.compactArchived(1000) == 1000) {}
+
+    assertEquals(0, warehouseRepository.count("businessUnitCode", buCode));
+    WarehouseHistoryPage history = warehouseHistoryRepository.history(buCode, null, 10);
+    assertEquals(1, history.items.size());
+    assertEquals(0, warehouseRepository.count("archivedAt is not null"));
+  }
+
+  private Warehouse warehouse(String buCode, int capacity) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = buCode;
+    warehouse.location = "EINDHOVEN-001";
+    warehouse.capacity = capacity;
+    warehouse.stock = 5;
+    return warehouse;
+  }
+}
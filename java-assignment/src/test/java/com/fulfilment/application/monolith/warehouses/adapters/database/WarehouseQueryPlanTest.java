@@ -0,0 +1,141 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.shared.adapters.persistence.RecordingStatementInspector;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseHistoryCursor;
+import io.quarkus.test.TestTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class WarehouseQueryPlanTest {
+
+  private static final int ACTIVE_ROWS = 20_000;
+  private static final int ARCHIVED_ROWS = 200_000;
+
+  @Inject WarehouseRepository warehouseRepository;
+  @Inject WarehouseHistoryRepository warehouseHistoryRepository;
+  @Inject RecordingStatementInspector statementInspector;
+  @Inject EntityManager entityManager;
+
+  @Test
+  @TestTransaction
+  void activeAndHistoryQueriesShouldNotScanTheWholeTable() {
+    loadSyntheticHistory();
+
+    // The unfiltered stream reads the live table by design, so it is the only access path left
+    // out here. The check covers warehouse_history as well.
+    Map<String, Runnable> accessPaths = new LinkedHashMap<>();
+    accessPaths.put(
+        "lookup by business unit code",
+        () -> warehouseRepository.findByBusinessUnitCode("SYN-7"));
+    accessPaths.put("resolve by id or code", () -> warehouseRepository.resolve("17"));
+    accessPaths.put(
+        "existing codes",
+        () -> warehouseRepository.findActiveBusinessUnitCodes(Set.of("SYN-7", "SYN-8")));
+    accessPaths.put(
+        "page after cursor", () -> warehouseRepository.listActive(null, "SYN-7", 100));
+    accessPaths.put(
+        "page by location", () -> warehouseRepository.listActive("SYN-LOC-7", null, 100));
+    accessPaths.put("history", () -> warehouseHistoryRepository.history("SYN-7", null, 100));
+    accessPaths.put(
+        "history after cursor",
+        () ->
+            warehouseHistoryRepository.history(
+                "SYN-7", new WarehouseHistoryCursor(LocalDateTime.now(), 0L), 100));
+    accessPaths.put("compaction", () -> warehouseHistoryRepository.compactArchived(1000));
+
+    List<String> sequentialScans = new ArrayList<>();
+    accessPaths.forEach(
+        (name, accessPath) -> {
+          for (String sql : statementInspector.record(accessPath)) {
+            String plan = explain(sql);
+            if (plan.contains("Seq Scan on warehouse")) {
+              sequentialScans.add(name + ":\n" + sql + "\n" + plan);
+            }
+          }
+        });
+
+    assertTrue(sequentialScans.isEmpty(), String.join("\n\n", sequentialScans));
+  }
+
+  private void loadSyntheticHistory() {
+    // 20000 live business units with 10 archived generations each, as after years of
+    // replacements. Negative ids keep the rows clear of the entity sequence.
+    entityManager
+        .createNativeQuery(
+            "insert into warehouse "
+                + "(id, businessUnitCode, location, capacity, stock, createdAt, archivedAt) "
+                + "select -g, 'SYN-' || g, 'SYN-LOC-' || (g % 200), 10, 5, "
+                + "timestamp '2024-01-01' + g * interval '1 minute', null "
+                + "from generate_series(1, :rows) g")
+        .setParameter("rows", ACTIVE_ROWS)
+        .executeUpdate();
+    entityManager
+        .createNativeQuery(
+            "insert into warehouse_history "
+                + "(id, businessUnitCode, location, capacity, stock, createdAt, archivedAt) "
+                + "select -g - :offset, 'SYN-' || (1 + g % :active), 'SYN-LOC-' || (g % 200), "
+                + "10, 5, timestamp '2020-01-01' + g * interval '1 minute', "
+                + "timestamp '2020-01-01' + (g + :active) * interval '1 minute' "
+                + "from generate_series(1, :rows) g")
+        .setParameter("offset", ACTIVE_ROWS)
+        .setParameter("active", ACTIVE_ROWS)
+        .setParameter("rows", ARCHIVED_ROWS)
+        .executeUpdate();
+    entityManager.createNativeQuery("analyze warehouse").executeUpdate();
+    entityManager.createNativeQuery("analyze warehouse_history").executeUpdate();
+  }
+
+  private String explain(String sql) {
+    // Explains the generic plan, the one chosen without looking at the bound values, so the
+    // assertion holds for every parameter rather than only the ones used above.
+    int parameters = 0;
+    StringBuilder numbered = new StringBuilder();
+    for (char character : sql.toCharArray()) {
+      if (character == '?') {
+        numbered.append('$').append(++parameters);
+      } else {
+        numbered.append(character);
+      }
+    }
+    String execute =
+        parameters == 0
+            ? "explain execute plan_probe"
+            : "explain execute plan_probe("
+                + String.join(", ", Collections.nCopies(parameters, "null"))
+                + ")";
+
+    return entityManager
+        .unwrap(Session.class)
+        .doReturningWork(
+            connection -> {
+              try (Statement statement = connection.createStatement()) {
+                statement.execute("set local plan_cache_mode = force_generic_plan");
+                statement.execute("prepare plan_probe as " + numbered);
+                try (ResultSet rows = statement.executeQuery(execute)) {
+                  StringBuilder plan = new StringBuilder();
+                  while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                  }
+                  return plan.toString();
+                } finally {
+                  statement.execute("deallocate plan_probe");
+                }
+              }
+            });
+  }
+}
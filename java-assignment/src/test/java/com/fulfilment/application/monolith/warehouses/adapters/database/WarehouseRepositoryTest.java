@@ -6,22 +6,30 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import io.quarkus.test.TestTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.Test;
 
 @QuarkusTest
 class WarehouseRepositoryTest {
 
   @Inject WarehouseRepository warehouseRepository;
+  @Inject WarehouseHistoryRepository warehouseHistoryRepository;
+  @Inject SessionFactory sessionFactory;
 
   @Test
   @TestTransaction
-  void shouldCreateAndFindWarehouseByBusinessUnitCodeAndId() {
+  void shouldCreateAndResolveWarehouseByBusinessUnitCodeAndId() {
     String buCode = "MWH.TEST." + System.nanoTime();
     Warehouse warehouse = warehouse(buCode, "EINDHOVEN-001", 55, 20);
     warehouse.createdAt = LocalDateTime.now();
@@ -39,8 +47,133 @@ class WarehouseRepositoryTest {
                 "select w.id from DbWarehouse w where w.businessUnitCode = :buCode", Long.class)
             .setParameter("buCode", buCode)
             .getSingleResult();
-    assertNotNull(warehouseRepository.findById(id.toString()));
-    assertNull(warehouseRepository.findById("not-a-number"));
+    assertEquals(buCode, warehouseRepository.resolve(id.toString()).businessUnitCode);
+    assertEquals(buCode, warehouseRepository.resolve(buCode).businessUnitCode);
+    assertNull(warehouseRepository.resolve("not-a-code"));
+    assertNull(warehouseRepository.resolve("99999999999999999999"));
+  }
+
+  @Test
+  @TestTransaction
+  void resolveShouldPreferBusinessUnitCodeOverMatchingId() {
+    // Warehouse 1 is seeded; a warehouse whose code is "1" must win over it.
+    warehouseRepository.create(warehouse("1", "EINDHOVEN-001", 10, 5));
+
+    assertEquals("1", warehouseRepository.resolve("1").businessUnitCode);
+  }
+
+  @Test
+  void repeatedLookupsShouldBeServedFromTheSecondLevelCache() {
+    warehouseRepository.findByBusinessUnitCode("MWH.023");
+    WarehouseCacheStatistics before = WarehouseCacheStatistics.from(sessionFactory.getStatistics());
+
+    for (int lookup = 0; lookup < 5; lookup++) {
+      warehouseRepository.findByBusinessUnitCode("MWH.023");
+    }
+
+    WarehouseCacheStatistics after = WarehouseCacheStatistics.from(sessionFactory.getStatistics());
+    assertTrue(after.enabled);
+    assertEquals(before.lookups.hits + 5, after.lookups.hits);
+    assertEquals(before.lookups.misses, after.lookups.misses);
+  }
+
+  @Test
+  @TestTransaction
+  void occupancyShouldAggregateActiveWarehousesAtLocation() {
+    LocationOccupancy before = warehouseRepository.lockOccupancy("HELMOND-001");
+    Warehouse active = warehouse("MWH.TEST.A." + System.nanoTime(), "HELMOND-001", 20, 5);
+    Warehouse archived = warehouse("MWH.TEST.B." + System.nanoTime(), "HELMOND-001", 15, 5);
+    archived.archivedAt = LocalDateTime.now();
+    warehouseRepository.create(active);
+    warehouseRepository.create(archived);
+    warehouseRepository.create(warehouse("MWH.TEST.C." + System.nanoTime(), "TILBURG-001", 10, 5));
+
+    LocationOccupancy after = warehouseRepository.lockOccupancy("HELMOND-001");
+
+    assertEquals(before.warehouses + 1, after.warehouses);
+    assertEquals(before.capacity + 20, after.capacity);
+
+    LocationOccupancy excludingActive =
+        warehouseRepository.lockOccupancyExcluding("HELMOND-001", active.businessUnitCode);
+    assertEquals(before.warehouses, excludingActive.warehouses);
+    assertEquals(before.capacity, excludingActive.capacity);
+
+    active.archivedAt = LocalDateTime.now();
+    warehouseRepository.update(active);
+    assertEquals(before.capacity, warehouseRepository.lockOccupancy("HELMOND-001").capacity);
+    assertEquals(0, warehouseRepository.lockOccupancy("NOWHERE").warehouses);
+  }
+
+  @Test
+  @TestTransaction
+  void createAllShouldPersistEveryWarehouseAndAdjustOccupancyPerLocation() {
+    LocationOccupancy before = warehouseRepository.lockOccupancy("VETSBY-001");
+    String prefix = "MWH.BATCH." + System.nanoTime() + ".";
+    List<Warehouse> warehouses =
+        List.of(
+            warehouse(prefix + 1, "VETSBY-001", 10, 5),
+            warehouse(prefix + 2, "VETSBY-001", 15, 5),
+            warehouse(prefix + 3, "TILBURG-001", 10, 5));
+
+    warehouseRepository.createAll(warehouses);
+
+    LocationOccupancy after = warehouseRepository.lockOccupancy("VETSBY-001");
+    assertEquals(before.warehouses + 2, after.warehouses);
+    assertEquals(before.capacity + 25, after.capacity);
+    assertEquals(
+        List.of(prefix + 1, prefix + 3),
+        warehouseRepository
+            .findActiveBusinessUnitCodes(Set.of(prefix + 1, prefix + 3, prefix + 4))
+            .stream()
+            .sorted()
+            .toList());
+  }
+
+  @Test
+  @TestTransaction
+  void listActiveShouldFilterByLocationAndContinueAfterTheCursor() {
+    String prefix = "MWH.PAGE." + System.nanoTime() + ".";
+    warehouseRepository.create(warehouse(prefix + "A", "NOWHERE-001", 10, 5));
+    warehouseRepository.create(warehouse(prefix + "B", "NOWHERE-001", 20, 5));
+    warehouseRepository.create(warehouse(prefix + "C", "NOWHERE-002", 30, 5));
+    Warehouse archived = warehouse(prefix + "D", "NOWHERE-001", 40, 5);
+    archived.archivedAt = LocalDateTime.now();
+    warehouseRepository.create(archived);
+
+    List<Warehouse> page = warehouseRepository.listActive("NOWHERE-001", null, 10);
+    assertEquals(
+        List.of(prefix + "A", prefix + "B"), page.stream().map(w -> w.businessUnitCode).toList());
+    assertEquals(20, page.get(1).capacity);
+
+    assertEquals(
+        List.of(prefix + "B"),
+        warehouseRepository.listActive("NOWHERE-001", prefix + "A", 10).stream()
+            .map(w -> w.businessUnitCode)
+            .toList());
+    assertEquals(1, warehouseRepository.listActive("NOWHERE-001", null, 1).size());
+
+    List<String> streamed = new ArrayList<>();
+    warehouseRepository.forEachActive(
+        null, prefix, warehouse -> streamed.add(warehouse.businessUnitCode));
+    assertTrue(streamed.containsAll(List.of(prefix + "A", prefix + "B", prefix + "C")));
+    assertTrue(!streamed.contains(prefix + "D"));
+  }
+
+  @Test
+  @TestTransaction
+  void archivingShouldMoveTheWarehouseOutOfTheLiveTable() {
+    String buCode = "MWH.ARCHIVE." + System.nanoTime();
+    Warehouse warehouse = warehouse(buCode, "EINDHOVEN-001", 10, 5);
+    warehouse.createdAt = LocalDateTime.now();
+    warehouseRepository.create(warehouse);
+
+    warehouse.archivedAt = LocalDateTime.now();
+    warehouseRepository.update(warehouse);
+    warehouseRepository.flush();
+
+    assertEquals(0, warehouseRepository.count("businessUnitCode", buCode));
+    assertEquals(1, warehouseHistoryRepository.count("businessUnitCode", buCode));
+    assertNull(warehouseRepository.findByBusinessUnitCode(buCode));
   }
 
   @Test
@@ -65,6 +198,21 @@ class WarehouseRepositoryTest {
     assertNull(warehouseRepository.findByBusinessUnitCode(buCode));
   }
 
+  @Test
+  @TestTransaction
+  void updateShouldRefuseAWarehouseReadAtAnOlderVersion() {
+    String buCode = "MWH.VERSION." + System.nanoTime();
+    Warehouse warehouse = warehouse(buCode, "EINDHOVEN-001", 10, 5);
+    warehouseRepository.create(warehouse);
+    assertEquals(0L, warehouse.version);
+
+    Warehouse stale = warehouseRepository.findByBusinessUnitCode(buCode);
+    stale.version = stale.version - 1;
+    stale.archivedAt = LocalDateTime.now();
+
+    assertThrows(OptimisticLockException.class, () -> warehouseRepository.update(stale));
+  }
+
   @Test
   @TestTransaction
   void updateShouldThrowWhenWarehouseNotFound() {
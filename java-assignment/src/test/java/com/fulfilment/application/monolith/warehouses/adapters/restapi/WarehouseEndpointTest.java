@@ -2,6 +2,7 @@ package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
 
 import io.quarkus.test.junit.QuarkusTest;
 import java.util.UUID;
@@ -66,6 +67,92 @@ public class WarehouseEndpointTest {
         .body(containsString(businessUnitCode), containsString("\"capacity\":20"));
   }
 
+  @Test
+  public void testBatchWithRepeatedBusinessUnitCodeShouldReturnBadRequest() {
+    String businessUnitCode = randomBusinessUnitCode();
+
+    given()
+        .contentType("application/json")
+        .body(
+            "["
+                + warehousePayload(businessUnitCode, "AMSTERDAM-002", 10, 5)
+                + ","
+                + warehousePayload(businessUnitCode, "AMSTERDAM-002", 10, 5)
+                + "]")
+        .when()
+        .post("/warehouse/batch")
+        .then()
+        .statusCode(400);
+
+    given().when().get("/warehouse/" + businessUnitCode).then().statusCode(404);
+  }
+
+  @Test
+  public void testListShouldPageThroughWarehouses() {
+    // Three warehouses are seeded, so a page of one always has a next page.
+    given()
+        .when()
+        .get("/warehouse?limit=1")
+        .then()
+        .statusCode(200)
+        .header("Link", containsString("rel=\"next\""))
+        .header("Link", containsString("after="));
+
+    given()
+        .when()
+        .get("/warehouse?location=TILBURG-001")
+        .then()
+        .statusCode(200)
+        .body(containsString("MWH.023"), not(containsString("MWH.012")));
+
+    given()
+        .when()
+        .get("/warehouse?limit=0")
+        .then()
+        .statusCode(400);
+  }
+
+  @Test
+  public void testStreamShouldWriteOneWarehousePerLine() {
+    given()
+        .when()
+        .get("/warehouse/stream?location=ZWOLLE-001")
+        .then()
+        .statusCode(200)
+        .contentType("application/x-ndjson")
+        .body(containsString("\"businessUnitCode\":\"MWH.001\""));
+  }
+
+  @Test
+  public void testHistoryShouldListReplacedGenerations() {
+    String businessUnitCode = randomBusinessUnitCode();
+
+    given()
+        .contentType("application/json")
+        .body(warehousePayload(businessUnitCode, "AMSTERDAM-001", 15, 7))
+        .when()
+        .post("/warehouse")
+        .then()
+        .statusCode(200);
+    given()
+        .contentType("application/json")
+        .body(warehousePayload(businessUnitCode, "AMSTERDAM-001", 20, 7))
+        .when()
+        .post("/warehouse/" + businessUnitCode + "/replacement")
+        .then()
+        .statusCode(200);
+
+    given()
+        .when()
+        .get("/warehouse/" + businessUnitCode + "/history?limit=1")
+        .then()
+        .statusCode(200)
+        .header("Link", containsString("rel=\"next\""))
+        .body(containsString("\"capacity\":20"), not(containsString("\"capacity\":15")));
+
+    given().when().get("/warehouse/MWH.NEVER.EXISTED/history").then().statusCode(404);
+  }
+
   @Test
   public void testCreateWarehouseWithInvalidLocationShouldReturnBadRequest() {
     String businessUnitCode = randomBusinessUnitCode();
@@ -0,0 +1,146 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseHistoryRepository;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class WarehouseReplaceStressTest {
+
+  private static final Logger LOGGER = Logger.getLogger(WarehouseReplaceStressTest.class);
+
+  private static final int THREADS = 16;
+  private static final int REPLACES_PER_THREAD = 25;
+  private static final int BUSINESS_UNITS = 4;
+
+  @InjectMock LocationResolver locationResolver;
+  @Inject WarehouseRepository warehouseRepository;
+  @Inject WarehouseHistoryRepository warehouseHistoryRepository;
+
+  private String location;
+
+  @BeforeEach
+  void setUp() {
+    // A location of its own with room to spare, so only the business unit rules are exercised.
+    location = "STRESS-" + System.nanoTime();
+    when(locationResolver.resolveByIdentifier(any()))
+        .thenAnswer(call -> new Location(call.getArgument(0), 1_000, 1_000_000));
+  }
+
+  @Test
+  void concurrentReplacesShouldLeaveOneActiveWarehousePerBusinessUnit() throws Exception {
+    List<String> businessUnitCodes = new ArrayList<>();
+    for (int unit = 0; unit < BUSINESS_UNITS; unit++) {
+      String businessUnitCode = location + ".BU" + unit;
+      given()
+          .contentType("application/json")
+          .body(payload(businessUnitCode, 10))
+          .when()
+          .post("/warehouse")
+          .then()
+          .statusCode(200);
+      businessUnitCodes.add(businessUnitCode);
+    }
+
+    // Every thread replaces the same few business units, so nearly every replace races another.
+    AtomicInteger replaced = new AtomicInteger();
+    AtomicInteger conflicts = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int thread = 0; thread < THREADS; thread++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  ThreadLocalRandom random = ThreadLocalRandom.current();
+                  for (int request = 0; request < REPLACES_PER_THREAD; request++) {
+                    String businessUnitCode =
+                        businessUnitCodes.get(random.nextInt(BUSINESS_UNITS));
+                    int status =
+                        given()
+                            .contentType("application/json")
+                            .body(payload(businessUnitCode, 5 + random.nextInt(50)))
+                            .when()
+                            .post("/warehouse/" + businessUnitCode + "/replacement")
+                            .statusCode();
+                    if (status == 200) {
+                      replaced.incrementAndGet();
+                    } else if (status == 409) {
+                      conflicts.incrementAndGet();
+                    } else {
+                      fail("Unexpected status " + status + " replacing " + businessUnitCode);
+                    }
+                  }
+                  return null;
+                }));
+      }
+
+      long startedAt = System.nanoTime();
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(5, TimeUnit.MINUTES);
+      }
+      long elapsed = System.nanoTime() - startedAt;
+
+      // Logged rather than asserted: the rate depends on the machine and the database.
+      LOGGER.infof(
+          "Concurrent warehouse replace: %.0f/s, %d replaced, %d gave up after retries",
+          (replaced.get() + conflicts.get()) / (elapsed / 1e9), replaced.get(), conflicts.get());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertTrue(replaced.get() > 0);
+    long generations = 0;
+    for (String businessUnitCode : businessUnitCodes) {
+      assertEquals(
+          1,
+          warehouseRepository.count(
+              "businessUnitCode = ?1 and archivedAt is null", businessUnitCode));
+      generations += warehouseHistoryRepository.count("businessUnitCode", businessUnitCode);
+    }
+    // Each successful replace archived exactly one generation, and the occupancy of the location
+    // still counts one warehouse per business unit.
+    assertEquals(replaced.get(), generations);
+    assertEquals(
+        (long) BUSINESS_UNITS,
+        QuarkusTransaction.requiringNew()
+            .call(() -> warehouseRepository.lockOccupancy(location).warehouses));
+  }
+
+  private String payload(String businessUnitCode, int capacity) {
+    return "{\"businessUnitCode\":\""
+        + businessUnitCode
+        + "\",\"location\":\""
+        + location
+        + "\",\"capacity\":"
+        + capacity
+        + ",\"stock\":5}";
+  }
+}
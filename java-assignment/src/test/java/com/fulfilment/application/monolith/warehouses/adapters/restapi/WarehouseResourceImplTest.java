@@ -4,20 +4,44 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseHistoryCursor;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseHistoryPage;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousePage;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.ArchiveWarehouseUseCase;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.ListWarehousesUseCase;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.ReplaceWarehouseUseCase;
+import com.warehouse.api.beans.WarehouseGeneration;
+import io.vertx.core.http.HttpServerResponse;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriBuilder;
+import jakarta.ws.rs.core.UriInfo;
+import java.io.ByteArrayOutputStream;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -29,6 +53,8 @@ class WarehouseResourceImplTest {
   private CreateWarehouseUseCase createWarehouseUseCase;
   private ArchiveWarehouseUseCase archiveWarehouseUseCase;
   private ReplaceWarehouseUseCase replaceWarehouseUseCase;
+  private ListWarehousesUseCase listWarehousesUseCase;
+  private HttpServerResponse httpResponse;
   private WarehouseResourceImpl resource;
 
   @BeforeEach
@@ -37,23 +63,128 @@ class WarehouseResourceImplTest {
     createWarehouseUseCase = Mockito.mock(CreateWarehouseUseCase.class);
     archiveWarehouseUseCase = Mockito.mock(ArchiveWarehouseUseCase.class);
     replaceWarehouseUseCase = Mockito.mock(ReplaceWarehouseUseCase.class);
+    listWarehousesUseCase = Mockito.mock(ListWarehousesUseCase.class);
+    httpResponse = Mockito.mock(HttpServerResponse.class);
+    UriInfo uriInfo = Mockito.mock(UriInfo.class);
+    when(uriInfo.getRequestUriBuilder())
+        .thenAnswer(call -> UriBuilder.fromUri("http://localhost/warehouse?limit=1"));
     resource = new WarehouseResourceImpl();
     setField(resource, "warehouseRepository", warehouseRepository);
     setField(resource, "createWarehouseUseCase", createWarehouseUseCase);
     setField(resource, "archiveWarehouseUseCase", archiveWarehouseUseCase);
     setField(resource, "replaceWarehouseUseCase", replaceWarehouseUseCase);
+    setField(resource, "listWarehousesUseCase", listWarehousesUseCase);
+    setField(resource, "objectMapper", new ObjectMapper());
+    setField(resource, "uriInfo", uriInfo);
+    setField(resource, "httpResponse", httpResponse);
+    setField(resource, "replaceMaxAttempts", 3);
   }
 
   @Test
   void listAllShouldMapDomainWarehousesToApiResponse() {
-    when(warehouseRepository.getAll())
-        .thenReturn(List.of(domainWarehouse("MWH.001", "ZWOLLE-001", 30, 10)));
+    when(listWarehousesUseCase.list(null, null, null))
+        .thenReturn(
+            new WarehousePage(List.of(domainWarehouse("MWH.001", "ZWOLLE-001", 30, 10)), null));
 
-    List<com.warehouse.api.beans.Warehouse> result = resource.listAllWarehousesUnits();
+    List<com.warehouse.api.beans.Warehouse> result =
+        resource.listAllWarehousesUnits(null, null, null);
 
     assertEquals(1, result.size());
     assertEquals("MWH.001", result.get(0).getBusinessUnitCode());
     assertEquals("MWH.001", result.get(0).getId());
+    verify(httpResponse, never()).putHeader(any(CharSequence.class), any(CharSequence.class));
+  }
+
+  @Test
+  void listAllShouldLinkToTheNextPage() {
+    when(listWarehousesUseCase.list("ZWOLLE-001", null, 1))
+        .thenReturn(
+            new WarehousePage(
+                List.of(domainWarehouse("MWH.001", "ZWOLLE-001", 30, 10)), "MWH.001"));
+
+    resource.listAllWarehousesUnits("ZWOLLE-001", null, 1);
+
+    verify(httpResponse)
+        .putHeader(
+            HttpHeaders.LINK, "<http://localhost/warehouse?limit=1&after=MWH.001>; rel=\"next\"");
+  }
+
+  @Test
+  void listAllShouldMapInvalidLimitToBadRequest() {
+    when(listWarehousesUseCase.list(null, null, 0))
+        .thenThrow(new IllegalArgumentException("limit must be between 1 and 1000"));
+
+    WebApplicationException exception =
+        assertThrows(
+            WebApplicationException.class, () -> resource.listAllWarehousesUnits(null, null, 0));
+
+    assertEquals(400, exception.getResponse().getStatus());
+  }
+
+  @Test
+  void historyShouldMapGenerationsAndLinkToTheNextPage() {
+    Warehouse archived = domainWarehouse("MWH.001", "ZWOLLE-001", 30, 10);
+    archived.createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+    archived.archivedAt = LocalDateTime.of(2024, 6, 1, 0, 0);
+    WarehouseHistoryCursor next = new WarehouseHistoryCursor(archived.createdAt, 5L);
+    when(listWarehousesUseCase.history("MWH.001", null, 1))
+        .thenReturn(new WarehouseHistoryPage(List.of(archived), next));
+
+    List<WarehouseGeneration> result =
+        resource.listTheGenerationsOfAWarehouseUnit("MWH.001", null, 1);
+
+    assertEquals(1, result.size());
+    assertNotNull(result.get(0).getArchivedAt());
+    verify(httpResponse)
+        .putHeader(
+            HttpHeaders.LINK,
+            "<http://localhost/warehouse?limit=1&after=" + next.encode() + ">; rel=\"next\"");
+  }
+
+  @Test
+  void historyShouldMapUnknownBusinessUnitToNotFoundAndBadCursorToBadRequest() {
+    when(listWarehousesUseCase.history("MWH.404", null, null))
+        .thenThrow(new NoSuchElementException("Warehouse not found: MWH.404"));
+
+    WebApplicationException notFound =
+        assertThrows(
+            WebApplicationException.class,
+            () -> resource.listTheGenerationsOfAWarehouseUnit("MWH.404", null, null));
+    WebApplicationException badCursor =
+        assertThrows(
+            WebApplicationException.class,
+            () -> resource.listTheGenerationsOfAWarehouseUnit("MWH.001", "***", null));
+
+    assertEquals(404, notFound.getResponse().getStatus());
+    assertEquals(400, badCursor.getResponse().getStatus());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void streamShouldWriteOneJsonObjectPerLine() throws Exception {
+    Warehouse withoutStock = domainWarehouse("MWH.002", "AMSTERDAM-001", 40, 0);
+    withoutStock.stock = null;
+    doAnswer(
+            call -> {
+              Consumer<Warehouse> consumer = call.getArgument(2);
+              consumer.accept(domainWarehouse("MWH.001", "ZWOLLE-001", 30, 10));
+              consumer.accept(withoutStock);
+              return null;
+            })
+        .when(listWarehousesUseCase)
+        .stream(any(), any(), any(Consumer.class));
+
+    Response response = resource.streamAllWarehouseUnits(null, "MWH.000");
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ((StreamingOutput) response.getEntity()).write(output);
+
+    assertEquals(
+        "{\"id\":\"MWH.001\",\"businessUnitCode\":\"MWH.001\",\"location\":\"ZWOLLE-001\","
+            + "\"capacity\":30,\"stock\":10}\n"
+            + "{\"id\":\"MWH.002\",\"businessUnitCode\":\"MWH.002\","
+            + "\"location\":\"AMSTERDAM-001\",\"capacity\":40,\"stock\":null}\n",
+        output.toString(StandardCharsets.UTF_8));
+    verify(listWarehousesUseCase).stream(eq(null), eq("MWH.000"), any(Consumer.class));
   }
 
   @Test
@@ -81,9 +212,59 @@ class WarehouseResourceImplTest {
   }
 
   @Test
-  void getByIdShouldFallbackToNumericIdLookupWhenBuCodeNotFound() {
-    when(warehouseRepository.findByBusinessUnitCode("12")).thenReturn(null);
-    when(warehouseRepository.findById("12"))
+  void createShouldMapALostRaceForTheBusinessUnitCodeTo409() {
+    doThrow(activeCodeTaken()).when(createWarehouseUseCase).create(any(Warehouse.class));
+
+    WebApplicationException exception =
+        assertThrows(
+            WebApplicationException.class,
+            () -> resource.createANewWarehouseUnit(apiWarehouse("MWH.007", "ZWOLLE-001", 1, 1)));
+
+    assertEquals(409, exception.getResponse().getStatus());
+  }
+
+  @Test
+  void createShouldNotMapOtherPersistenceFailures() {
+    doThrow(new PersistenceException("connection lost"))
+        .when(createWarehouseUseCase)
+        .create(any(Warehouse.class));
+
+    assertThrows(
+        PersistenceException.class,
+        () -> resource.createANewWarehouseUnit(apiWarehouse("MWH.008", "ZWOLLE-001", 1, 1)));
+  }
+
+  @Test
+  void createBatchShouldDelegateToUseCaseAndReturnCreatedWarehouses() {
+    List<com.warehouse.api.beans.Warehouse> request =
+        List.of(
+            apiWarehouse("MWH.004", "EINDHOVEN-001", 50, 20),
+            apiWarehouse("MWH.005", "ZWOLLE-001", 30, 10));
+
+    List<com.warehouse.api.beans.Warehouse> response = resource.createWarehouseUnitsInBatch(request);
+
+    assertEquals(2, response.size());
+    assertEquals("MWH.005", response.get(1).getBusinessUnitCode());
+    verify(createWarehouseUseCase).createAll(any());
+  }
+
+  @Test
+  void createBatchShouldMapValidationFailureToBadRequest() {
+    doThrow(new IllegalArgumentException("invalid")).when(createWarehouseUseCase).createAll(any());
+
+    WebApplicationException exception =
+        assertThrows(
+            WebApplicationException.class,
+            () ->
+                resource.createWarehouseUnitsInBatch(
+                    List.of(apiWarehouse("MWH.006", "UNKNOWN", 1, 1))));
+
+    assertEquals(400, exception.getResponse().getStatus());
+  }
+
+  @Test
+  void getByIdShouldResolveBusinessUnitCodeOrNumericId() {
+    when(warehouseRepository.resolve("12"))
         .thenReturn(domainWarehouse("MWH.012", "AMSTERDAM-001", 50, 5));
 
     com.warehouse.api.beans.Warehouse response = resource.getAWarehouseUnitByID("12");
@@ -93,8 +274,7 @@ class WarehouseResourceImplTest {
 
   @Test
   void getByIdShouldReturnNotFoundWhenWarehouseMissing() {
-    when(warehouseRepository.findByBusinessUnitCode("MISSING")).thenReturn(null);
-    when(warehouseRepository.findById("MISSING")).thenReturn(null);
+    when(warehouseRepository.resolve("MISSING")).thenReturn(null);
 
     WebApplicationException exception =
         assertThrows(WebApplicationException.class, () -> resource.getAWarehouseUnitByID("MISSING"));
@@ -105,7 +285,7 @@ class WarehouseResourceImplTest {
   @Test
   void archiveShouldDelegateToUseCaseWhenWarehouseExists() {
     Warehouse warehouse = domainWarehouse("MWH.001", "ZWOLLE-001", 30, 10);
-    when(warehouseRepository.findByBusinessUnitCode("MWH.001")).thenReturn(warehouse);
+    when(warehouseRepository.resolve("MWH.001")).thenReturn(warehouse);
 
     resource.archiveAWarehouseUnitByID("MWH.001");
 
@@ -114,8 +294,7 @@ class WarehouseResourceImplTest {
 
   @Test
   void archiveShouldReturnNotFoundWhenWarehouseMissing() {
-    when(warehouseRepository.findByBusinessUnitCode("MISSING")).thenReturn(null);
-    when(warehouseRepository.findById("MISSING")).thenReturn(null);
+    when(warehouseRepository.resolve("MISSING")).thenReturn(null);
 
     WebApplicationException exception =
         assertThrows(
@@ -127,7 +306,7 @@ class WarehouseResourceImplTest {
   @Test
   void archiveShouldMapIllegalArgumentToBadRequest() {
     Warehouse warehouse = domainWarehouse("MWH.001", "ZWOLLE-001", 30, 10);
-    when(warehouseRepository.findByBusinessUnitCode("MWH.001")).thenReturn(warehouse);
+    when(warehouseRepository.resolve("MWH.001")).thenReturn(warehouse);
     doThrow(new IllegalArgumentException("already archived"))
         .when(archiveWarehouseUseCase)
         .archive(warehouse);
@@ -188,6 +367,76 @@ class WarehouseResourceImplTest {
     assertEquals(400, exception.getResponse().getStatus());
   }
 
+  @Test
+  void replaceShouldRetryAfterAConcurrentModification() {
+    doThrow(new OptimisticLockException("changed"))
+        .doNothing()
+        .when(replaceWarehouseUseCase)
+        .replace(any(Warehouse.class));
+    when(warehouseRepository.findByBusinessUnitCode("MWH.050"))
+        .thenReturn(domainWarehouse("MWH.050", "AMSTERDAM-001", 60, 5));
+
+    com.warehouse.api.beans.Warehouse response =
+        resource.replaceTheCurrentActiveWarehouse(
+            "MWH.050", apiWarehouse("MWH.050", "AMSTERDAM-001", 60, 5));
+
+    verify(replaceWarehouseUseCase, times(2)).replace(any(Warehouse.class));
+    assertEquals("MWH.050", response.getBusinessUnitCode());
+  }
+
+  @Test
+  void replaceShouldMapRepeatedConflictsTo409() {
+    doThrow(new OptimisticLockException("changed"))
+        .when(replaceWarehouseUseCase)
+        .replace(any(Warehouse.class));
+
+    WebApplicationException exception =
+        assertThrows(
+            WebApplicationException.class,
+            () ->
+                resource.replaceTheCurrentActiveWarehouse(
+                    "MWH.409", apiWarehouse("MWH.409", "ZWOLLE-001", 30, 5)));
+
+    assertEquals(409, exception.getResponse().getStatus());
+    verify(replaceWarehouseUseCase, times(3)).replace(any(Warehouse.class));
+  }
+
+  @Test
+  void createBatchShouldMapALostRaceForABusinessUnitCodeTo409() {
+    doThrow(activeCodeTaken()).when(createWarehouseUseCase).createAll(any());
+
+    WebApplicationException exception =
+        assertThrows(
+            WebApplicationException.class,
+            () ->
+                resource.createWarehouseUnitsInBatch(
+                    List.of(apiWarehouse("MWH.009", "ZWOLLE-001", 1, 1))));
+
+    assertEquals(409, exception.getResponse().getStatus());
+  }
+
+  @Test
+  void replaceShouldNotRetryOtherPersistenceFailures() {
+    doThrow(new PersistenceException("connection lost"))
+        .when(replaceWarehouseUseCase)
+        .replace(any(Warehouse.class));
+
+    assertThrows(
+        PersistenceException.class,
+        () ->
+            resource.replaceTheCurrentActiveWarehouse(
+                "MWH.500", apiWarehouse("MWH.500", "ZWOLLE-001", 30, 5)));
+    verify(replaceWarehouseUseCase, times(1)).replace(any(Warehouse.class));
+  }
+
+  // What the unique index on active business unit codes raises for the losing insert.
+  private static ConstraintViolationException activeCodeTaken() {
+    return new ConstraintViolationException(
+        "duplicate key",
+        new SQLException("duplicate key"),
+        "idx_warehouse_active_business_unit_code");
+  }
+
   private com.warehouse.api.beans.Warehouse apiWarehouse(
       String buCode, String location, int capacity, int stock) {
     com.warehouse.api.beans.Warehouse warehouse = new com.warehouse.api.beans.Warehouse();
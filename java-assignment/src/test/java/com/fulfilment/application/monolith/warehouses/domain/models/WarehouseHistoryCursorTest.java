@@ -0,0 +1,41 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+class WarehouseHistoryCursorTest {
+
+  @Test
+  void shouldRoundTripCreationTimeAndId() {
+    LocalDateTime createdAt = LocalDateTime.of(2024, 7, 1, 12, 30, 5, 123_456_000);
+
+    WarehouseHistoryCursor cursor =
+        WarehouseHistoryCursor.decode(new WarehouseHistoryCursor(createdAt, 42L).encode());
+
+    assertEquals(createdAt, cursor.createdAt);
+    assertEquals(42L, cursor.id);
+  }
+
+  @Test
+  void shouldRoundTripMissingCreationTime() {
+    WarehouseHistoryCursor cursor =
+        WarehouseHistoryCursor.decode(new WarehouseHistoryCursor(null, 42L).encode());
+
+    assertNull(cursor.createdAt);
+    assertEquals(42L, cursor.id);
+  }
+
+  @Test
+  void shouldRejectMalformedTokens() {
+    assertThrows(IllegalArgumentException.class, () -> WarehouseHistoryCursor.decode("***"));
+    assertThrows(IllegalArgumentException.class, () -> WarehouseHistoryCursor.decode("YWJj"));
+    // "42+not-a-date"
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> WarehouseHistoryCursor.decode("NDIrbm90LWEtZGF0ZQ"));
+  }
+}
@@ -3,19 +3,24 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 
 public class CreateWarehouseUseCaseTest {
 
@@ -36,7 +41,7 @@ public class CreateWarehouseUseCaseTest {
     when(warehouseStore.findByBusinessUnitCode("MWH.NEW.01")).thenReturn(null);
     when(locationResolver.resolveByIdentifier("EINDHOVEN-001"))
         .thenReturn(new Location("EINDHOVEN-001", 2, 70));
-    when(warehouseStore.getAll()).thenReturn(List.of());
+    when(warehouseStore.lockOccupancy(any())).thenReturn(LocationOccupancy.EMPTY);
 
     useCase.create(warehouse);
 
@@ -84,8 +89,7 @@ public class CreateWarehouseUseCaseTest {
     when(warehouseStore.findByBusinessUnitCode("MWH.NEW.01")).thenReturn(null);
     when(locationResolver.resolveByIdentifier("EINDHOVEN-001"))
         .thenReturn(new Location("EINDHOVEN-001", 1, 70));
-    when(warehouseStore.getAll())
-        .thenReturn(List.of(warehouse("MWH.EXISTING", "EINDHOVEN-001", 20, 5)));
+    when(warehouseStore.lockOccupancy("EINDHOVEN-001")).thenReturn(new LocationOccupancy(1, 20));
 
     assertThrows(IllegalArgumentException.class, () -> useCase.create(warehouse));
     verify(warehouseStore, never()).create(any());
@@ -97,16 +101,86 @@ public class CreateWarehouseUseCaseTest {
     when(warehouseStore.findByBusinessUnitCode("MWH.NEW.01")).thenReturn(null);
     when(locationResolver.resolveByIdentifier("EINDHOVEN-001"))
         .thenReturn(new Location("EINDHOVEN-001", 3, 70));
-    when(warehouseStore.getAll())
-        .thenReturn(
-            List.of(
-                warehouse("MWH.OLD.1", "EINDHOVEN-001", 30, 10),
-                warehouse("MWH.OLD.2", "EINDHOVEN-001", 20, 10)));
+    when(warehouseStore.lockOccupancy("EINDHOVEN-001")).thenReturn(new LocationOccupancy(2, 50));
 
     assertThrows(IllegalArgumentException.class, () -> useCase.create(warehouse));
     verify(warehouseStore, never()).create(any());
   }
 
+  @Test
+  void createAllShouldCheckEachLocationOnceAndPersistInOneCall() {
+    List<Warehouse> warehouses =
+        List.of(
+            warehouse("MWH.NEW.01", "ZWOLLE-001", 20, 5),
+            warehouse("MWH.NEW.02", "AMSTERDAM-001", 30, 10),
+            warehouse("MWH.NEW.03", "ZWOLLE-001", 20, 5));
+    when(warehouseStore.findActiveBusinessUnitCodes(any())).thenReturn(List.of());
+    when(locationResolver.resolveByIdentifier("ZWOLLE-001"))
+        .thenReturn(new Location("ZWOLLE-001", 3, 50));
+    when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
+        .thenReturn(new Location("AMSTERDAM-001", 5, 100));
+    when(warehouseStore.lockOccupancy(any())).thenReturn(LocationOccupancy.EMPTY);
+
+    useCase.createAll(warehouses);
+
+    InOrder inOrder = inOrder(warehouseStore);
+    inOrder.verify(warehouseStore).lockOccupancy("AMSTERDAM-001");
+    inOrder.verify(warehouseStore).lockOccupancy("ZWOLLE-001");
+    inOrder.verify(warehouseStore).createAll(warehouses);
+    verify(warehouseStore, times(1)).findActiveBusinessUnitCodes(any());
+    verify(locationResolver, times(1)).resolveByIdentifier("ZWOLLE-001");
+    verify(warehouseStore, never()).findByBusinessUnitCode(any());
+    warehouses.forEach(warehouse -> assertNotNull(warehouse.createdAt));
+  }
+
+  @Test
+  void createAllShouldFailWhenBusinessUnitCodeRepeatsWithinTheBatch() {
+    List<Warehouse> warehouses =
+        List.of(
+            warehouse("MWH.NEW.01", "ZWOLLE-001", 20, 5),
+            warehouse("MWH.NEW.01", "AMSTERDAM-001", 30, 10));
+
+    assertThrows(IllegalArgumentException.class, () -> useCase.createAll(warehouses));
+    verify(warehouseStore, never()).createAll(any());
+  }
+
+  @Test
+  void createAllShouldFailWhenAnyBusinessUnitCodeAlreadyExists() {
+    List<Warehouse> warehouses =
+        List.of(
+            warehouse("MWH.001", "ZWOLLE-001", 20, 5),
+            warehouse("MWH.NEW.02", "AMSTERDAM-001", 30, 10));
+    when(warehouseStore.findActiveBusinessUnitCodes(any())).thenReturn(List.of("MWH.001"));
+
+    IllegalArgumentException exception =
+        assertThrows(IllegalArgumentException.class, () -> useCase.createAll(warehouses));
+
+    assertTrue(exception.getMessage().contains("MWH.001"));
+    verify(locationResolver, never()).resolveByIdentifier(any());
+    verify(warehouseStore, never()).createAll(any());
+  }
+
+  @Test
+  void createAllShouldCountTheWholeBatchAgainstTheLocationLimits() {
+    // Each warehouse fits on its own; together they exceed the location's capacity.
+    List<Warehouse> warehouses =
+        List.of(
+            warehouse("MWH.NEW.01", "ZWOLLE-001", 30, 5),
+            warehouse("MWH.NEW.02", "ZWOLLE-001", 30, 5));
+    when(warehouseStore.findActiveBusinessUnitCodes(any())).thenReturn(List.of());
+    when(locationResolver.resolveByIdentifier("ZWOLLE-001"))
+        .thenReturn(new Location("ZWOLLE-001", 3, 50));
+    when(warehouseStore.lockOccupancy("ZWOLLE-001")).thenReturn(LocationOccupancy.EMPTY);
+
+    assertThrows(IllegalArgumentException.class, () -> useCase.createAll(warehouses));
+    verify(warehouseStore, never()).createAll(any());
+  }
+
+  @Test
+  void createAllShouldRejectAnEmptyBatch() {
+    assertThrows(IllegalArgumentException.class, () -> useCase.createAll(List.of()));
+  }
+
   private Warehouse warehouse(String buCode, String location, int capacity, int stock) {
     Warehouse warehouse = new Warehouse();
     warehouse.businessUnitCode = buCode;
@@ -0,0 +1,109 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseHistoryCursor;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseHistoryPage;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousePage;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseHistoryStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ListWarehousesUseCaseTest {
+
+  private WarehouseStore warehouseStore;
+  private WarehouseHistoryStore warehouseHistoryStore;
+  private ListWarehousesUseCase useCase;
+
+  @BeforeEach
+  void setUp() {
+    warehouseStore = mock(WarehouseStore.class);
+    warehouseHistoryStore = mock(WarehouseHistoryStore.class);
+    useCase = new ListWarehousesUseCase(warehouseStore, warehouseHistoryStore, 3);
+  }
+
+  @Test
+  void listShouldReturnTheCursorOfTheLastItemWhenMoreFollow() {
+    when(warehouseStore.listActive("ZWOLLE-001", "MWH.001", 3))
+        .thenReturn(List.of(warehouse("MWH.002"), warehouse("MWH.003"), warehouse("MWH.004")));
+
+    WarehousePage page = useCase.list("ZWOLLE-001", "MWH.001", 2);
+
+    assertEquals(2, page.items.size());
+    assertEquals("MWH.003", page.nextAfter);
+  }
+
+  @Test
+  void listShouldNotReturnACursorOnTheLastPage() {
+    when(warehouseStore.listActive(null, null, 4)).thenReturn(List.of(warehouse("MWH.001")));
+
+    WarehousePage page = useCase.list(null, null, null);
+
+    assertEquals(1, page.items.size());
+    assertNull(page.nextAfter);
+  }
+
+  @Test
+  void listShouldRejectALimitOutsideTheAllowedRange() {
+    assertThrows(IllegalArgumentException.class, () -> useCase.list(null, null, 0));
+    assertThrows(IllegalArgumentException.class, () -> useCase.list(null, null, 4));
+    verify(warehouseStore, never()).listActive(any(), any(), anyInt());
+  }
+
+  @Test
+  void streamShouldHandTheConsumerToTheStore() {
+    Consumer<Warehouse> consumer = warehouse -> {};
+
+    useCase.stream("ZWOLLE-001", null, consumer);
+
+    verify(warehouseStore).forEachActive("ZWOLLE-001", null, consumer);
+  }
+
+  @Test
+  void historyShouldReturnThePageOfTheHistoryStore() {
+    WarehouseHistoryCursor next = new WarehouseHistoryCursor(LocalDateTime.now(), 7L);
+    WarehouseHistoryPage page = new WarehouseHistoryPage(List.of(warehouse("MWH.001")), next);
+    when(warehouseHistoryStore.history("MWH.001", null, 3)).thenReturn(page);
+
+    assertSame(page, useCase.history("MWH.001", null, null));
+  }
+
+  @Test
+  void historyOfAnUnknownBusinessUnitShouldFail() {
+    when(warehouseHistoryStore.history("MWH.404", null, 3))
+        .thenReturn(new WarehouseHistoryPage(List.of(), null));
+
+    assertThrows(NoSuchElementException.class, () -> useCase.history("MWH.404", null, null));
+  }
+
+  @Test
+  void historyPastTheLastPageShouldBeEmpty() {
+    WarehouseHistoryCursor after = new WarehouseHistoryCursor(LocalDateTime.now(), 7L);
+    when(warehouseHistoryStore.history("MWH.001", after, 2))
+        .thenReturn(new WarehouseHistoryPage(List.of(), null));
+
+    assertTrue(useCase.history("MWH.001", after, 2).items.isEmpty());
+  }
+
+  private Warehouse warehouse(String buCode) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = buCode;
+    return warehouse;
+  }
+}
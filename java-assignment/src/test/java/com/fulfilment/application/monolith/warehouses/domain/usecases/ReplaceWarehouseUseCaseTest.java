@@ -1,22 +1,25 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
-import java.util.List;
 import java.util.NoSuchElementException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 
 public class ReplaceWarehouseUseCaseTest {
 
@@ -39,7 +42,8 @@ public class ReplaceWarehouseUseCaseTest {
     when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(current);
     when(locationResolver.resolveByIdentifier("EINDHOVEN-001"))
         .thenReturn(new Location("EINDHOVEN-001", 3, 100));
-    when(warehouseStore.getAll()).thenReturn(List.of(current));
+    when(warehouseStore.lockOccupancyExcluding("EINDHOVEN-001", "MWH.001"))
+        .thenReturn(LocationOccupancy.EMPTY);
 
     useCase.replace(replacement);
 
@@ -50,6 +54,24 @@ public class ReplaceWarehouseUseCaseTest {
     verify(warehouseStore).create(replacement);
   }
 
+  @Test
+  void replacementShouldContinueTheRevisionOfTheCurrentWarehouse() {
+    Warehouse current = warehouse("MWH.001", "ZWOLLE-001", 40, 10);
+    current.version = 4L;
+    Warehouse replacement = warehouse("MWH.001", "ZWOLLE-001", 30, 10);
+
+    when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(current);
+    when(locationResolver.resolveByIdentifier("ZWOLLE-001"))
+        .thenReturn(new Location("ZWOLLE-001", 1, 40));
+    when(warehouseStore.lockOccupancyExcluding("ZWOLLE-001", "MWH.001"))
+        .thenReturn(LocationOccupancy.EMPTY);
+
+    useCase.replace(replacement);
+
+    assertEquals(4L, current.version);
+    assertEquals(5L, replacement.version);
+  }
+
   @Test
   void replaceShouldFailWhenCurrentWarehouseNotFound() {
     Warehouse replacement = warehouse("MWH.MISSING", "EINDHOVEN-001", 30, 10);
@@ -103,8 +125,8 @@ public class ReplaceWarehouseUseCaseTest {
     when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(current);
     when(locationResolver.resolveByIdentifier("EINDHOVEN-001"))
         .thenReturn(new Location("EINDHOVEN-001", 1, 100));
-    when(warehouseStore.getAll())
-        .thenReturn(List.of(current, warehouse("MWH.002", "EINDHOVEN-001", 30, 10)));
+    when(warehouseStore.lockOccupancyExcluding("EINDHOVEN-001", "MWH.001"))
+        .thenReturn(new LocationOccupancy(1, 30));
 
     assertThrows(IllegalArgumentException.class, () -> useCase.replace(replacement));
   }
@@ -117,12 +139,47 @@ public class ReplaceWarehouseUseCaseTest {
     when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(current);
     when(locationResolver.resolveByIdentifier("EINDHOVEN-001"))
         .thenReturn(new Location("EINDHOVEN-001", 3, 50));
-    when(warehouseStore.getAll())
-        .thenReturn(List.of(current, warehouse("MWH.002", "EINDHOVEN-001", 25, 10)));
+    when(warehouseStore.lockOccupancyExcluding("EINDHOVEN-001", "MWH.001"))
+        .thenReturn(new LocationOccupancy(1, 25));
 
     assertThrows(IllegalArgumentException.class, () -> useCase.replace(replacement));
   }
 
+  @Test
+  void replaceAtSameLocationShouldBeCheckedWithoutTheCurrentWarehouse() {
+    Warehouse current = warehouse("MWH.001", "ZWOLLE-001", 40, 10);
+    Warehouse replacement = warehouse("MWH.001", "ZWOLLE-001", 45, 10);
+
+    when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(current);
+    when(locationResolver.resolveByIdentifier("ZWOLLE-001"))
+        .thenReturn(new Location("ZWOLLE-001", 1, 50));
+    when(warehouseStore.lockOccupancyExcluding("ZWOLLE-001", "MWH.001"))
+        .thenReturn(LocationOccupancy.EMPTY);
+
+    useCase.replace(replacement);
+
+    verify(warehouseStore).create(replacement);
+  }
+
+  @Test
+  void replaceShouldLockBothLocationsInNameOrder() {
+    Warehouse current = warehouse("MWH.001", "AMSTERDAM-001", 40, 10);
+    Warehouse replacement = warehouse("MWH.001", "EINDHOVEN-001", 30, 10);
+
+    when(warehouseStore.findByBusinessUnitCode("MWH.001")).thenReturn(current);
+    when(locationResolver.resolveByIdentifier("EINDHOVEN-001"))
+        .thenReturn(new Location("EINDHOVEN-001", 3, 100));
+    when(warehouseStore.lockOccupancyExcluding("EINDHOVEN-001", "MWH.001"))
+        .thenReturn(LocationOccupancy.EMPTY);
+
+    useCase.replace(replacement);
+
+    InOrder inOrder = inOrder(warehouseStore);
+    inOrder.verify(warehouseStore).lockOccupancy("AMSTERDAM-001");
+    inOrder.verify(warehouseStore).lockOccupancyExcluding("EINDHOVEN-001", "MWH.001");
+    inOrder.verify(warehouseStore).update(current);
+  }
+
   private Warehouse warehouse(String buCode, String location, int capacity, int stock) {
     Warehouse warehouse = new Warehouse();
     warehouse.businessUnitCode = buCode;